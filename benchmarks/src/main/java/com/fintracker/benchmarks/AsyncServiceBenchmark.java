@@ -0,0 +1,101 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.service.AsyncTransactionService;
+import com.fintracker.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// Closed-loop load through AsyncTransactionService: `clients` requests are kept in flight, each client issuing
+// its next request as soon as the previous one completes. Scores are requests/sec.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncServiceBenchmark {
+    private static final int REQUESTS_PER_INVOCATION = 2048;
+    private static final int SEEDED_ROWS = 10_000;
+
+    @Param({"1", "16", "256"})
+    public int clients;
+
+    // Adds serialize on H2 commits; write-behind lets concurrent clients share them
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionService service;
+    private AsyncTransactionService async;
+    private long[] seededIds;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.cache.enabled", "false");
+        properties.setProperty("fintracker.writeBehind.enabled", Boolean.toString(writeBehind));
+        databaseConfig = BenchmarkDatabase.inMemory("async-service", properties);
+        service = new TransactionService(databaseConfig);
+        List<Transaction> seeded = new TransactionGenerator(42).next(SEEDED_ROWS);
+        service.addTransactions(seeded);
+        seededIds = seeded.stream().mapToLong(Transaction::getId).toArray();
+        async = new AsyncTransactionService(service, databaseConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        async.close();
+        service.close();
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS_PER_INVOCATION)
+    public void findById() throws InterruptedException {
+        long[] ids = new long[REQUESTS_PER_INVOCATION];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = seededIds[random.nextInt(seededIds.length)];
+        }
+        run(i -> async.getTransactionById(ids[i]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS_PER_INVOCATION)
+    public void addTransaction() throws InterruptedException {
+        run(i -> async.addTransaction(i % 5 == 0 ? "income" : "expense", i % 10_000,
+                TransactionGenerator.CATEGORIES[i % TransactionGenerator.CATEGORIES.length]));
+    }
+
+    private void run(IntFunction<CompletableFuture<?>> request) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(clients);
+        for (int i = 0; i < REQUESTS_PER_INVOCATION; i++) {
+            inFlight.acquire();
+            request.apply(i).whenComplete((result, error) -> inFlight.release());
+        }
+        inFlight.acquire(clients);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.CategoryDictionary;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.RollupRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class BenchmarkDatabase {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    private BenchmarkDatabase() {
+    }
+
+    // Each call gets its own private in-memory database so trials never share state
+    public static DatabaseConfig inMemory(String name) {
+        return inMemory(name, new Properties());
+    }
+
+    public static DatabaseConfig inMemory(String name, Properties overrides) {
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.db.path",
+                "jdbc:h2:mem:" + name + "-" + SEQUENCE.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty("fintracker.db.user", "sa");
+        properties.setProperty("fintracker.db.password", "");
+        properties.putAll(overrides);
+        return new DatabaseConfig(properties);
+    }
+
+    // Inserts TransactionGenerator rows with plain JDBC batches, then rebuilds the rollups once. Going through
+    // saveAll would update the rollups every 500 rows and make a 10M-row setup take many minutes.
+    // On a fresh database the rows get ids 1..rows.
+    public static void seed(DatabaseConfig databaseConfig, CategoryDictionary categories, long rows, long seed)
+            throws SQLException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                     "INSERT INTO transactions (type, amount, category_id, date) VALUES (?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            SQLException[] failure = new SQLException[1];
+            new TransactionGenerator(seed).forEachBatch(rows, SEED_BATCH_SIZE, batch -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    for (Transaction transaction : batch) {
+                        stmt.setString(1, transaction.getType());
+                        stmt.setLong(2, transaction.getAmount());
+                        stmt.setInt(3, categories.resolve(transaction.getCategory()));
+                        stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    connection.commit();
+                } catch (SQLException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+        new RollupRepository(databaseConfig, categories).rebuild();
+    }
+
+}
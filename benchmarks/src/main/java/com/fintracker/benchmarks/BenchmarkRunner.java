@@ -0,0 +1,110 @@
+package com.fintracker.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runs benchmarks, always writes JSON results, and optionally compares them with a previous run:
+//
+//   java -cp benchmarks/target/benchmarks.jar com.fintracker.benchmarks.BenchmarkRunner \
+//        [pattern ...] [--param name=v1,v2] [--output file.json] [--baseline previous.json] [--threshold 10] [--quick]
+//
+// A benchmark regresses when its score is worse than the baseline by more than threshold percent
+// (lower throughput, or higher time per operation). Any regression makes the exit code 1.
+// --quick shortens warmup and measurement for smoke runs; its numbers are not comparable with full runs.
+public final class BenchmarkRunner {
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        List<String> patterns = new ArrayList<>();
+        Map<String, String[]> params = new LinkedHashMap<>();
+        Path output = Path.of("benchmark-results", "jmh-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".json");
+        Path baseline = null;
+        double threshold = 10;
+        boolean quick = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output" -> output = Path.of(value(args, ++i));
+                case "--baseline" -> baseline = Path.of(value(args, ++i));
+                case "--threshold" -> threshold = Double.parseDouble(value(args, ++i));
+                case "--quick" -> quick = true;
+                case "--param", "-p" -> {
+                    String param = value(args, ++i);
+                    int equals = param.indexOf('=');
+                    if (equals <= 0) {
+                        throw new IllegalArgumentException("Expected name=v1,v2 after --param but got " + param);
+                    }
+                    params.put(param.substring(0, equals), param.substring(equals + 1).split(","));
+                }
+                default -> patterns.add(args[i]);
+            }
+        }
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString());
+        patterns.forEach(options::include);
+        params.forEach(options::param);
+        if (quick) {
+            options.warmupIterations(1).warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(2).measurementTime(TimeValue.seconds(1));
+        }
+        new Runner(options.build()).run();
+        System.out.println("Results written to " + output);
+
+        if (baseline != null && compare(JmhResults.read(baseline), JmhResults.read(output), threshold) > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Returns the number of regressions
+    static int compare(Map<String, JmhResults.Score> baseline, Map<String, JmhResults.Score> current, double threshold) {
+        int regressions = 0;
+        System.out.printf("%nComparison with baseline (threshold %.1f%%):%n", threshold);
+        for (JmhResults.Score score : current.values()) {
+            JmhResults.Score before = baseline.get(score.key());
+            if (before == null || !before.mode().equals(score.mode()) || !before.unit().equals(score.unit())) {
+                System.out.printf("  NEW        %s: %.3f %s%n", score.key(), score.score(), score.unit());
+                continue;
+            }
+            // Positive means better, whichever direction the mode counts as better
+            double change = (score.score() - before.score()) / before.score() * 100;
+            double improvement = score.higherIsBetter() ? change : -change;
+            String verdict = improvement < -threshold ? "REGRESSION" : improvement > threshold ? "IMPROVED" : "ok";
+            if (improvement < -threshold) {
+                regressions++;
+            }
+            System.out.printf("  %-10s %s: %.3f -> %.3f %s (%+.1f%%)%n", verdict, score.key(), before.score(),
+                    score.score(), score.unit(), change);
+        }
+        System.out.printf("%d regression(s)%n", regressions);
+        return regressions;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+// Scores are rows/sec: every invocation inserts ROWS_PER_INVOCATION rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+    private static final int ROWS_PER_INVOCATION = 10_000;
+    private static final String[] CATEGORIES = {"FOOD", "TRANSPORT", "ENTERTAINMENT", "BILLS", "SALARY", "OTHER"};
+
+    @Param({"100", "500", "2000"})
+    public int batchSize;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private List<Transaction> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.db.batchSize", Integer.toString(batchSize));
+        databaseConfig = BenchmarkDatabase.inMemory("bulk-insert", properties);
+        repository = new TransactionRepository(databaseConfig);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareRows() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        rows = new ArrayList<>(ROWS_PER_INVOCATION);
+        for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+            rows.add(new Transaction(0L, i % 5 == 0 ? "income" : "expense", i % 10_000,
+                    CATEGORIES[i % CATEGORIES.length], base.plusMinutes(i)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public void singleRowSave() {
+        for (Transaction row : rows) {
+            repository.save(row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public void batchedSaveAll() {
+        repository.saveAll(rows);
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.analytics.ColumnarLedger;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Same filter-and-group questions answered by H2 and by the columnar snapshot.
+// Setup fails fast if the two disagree, so the timings always compare equivalent work.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarAnalyticsBenchmark {
+    private static final int YEARS = 10;
+    private static final LocalDateTime FIRST_YEAR = LocalDateTime.of(2015, 1, 1, 0, 0);
+
+    @Param({"100000"})
+    public int rows;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private ColumnarLedger ledger;
+    private long[] categorySums;
+    private long[] categoryCounts;
+    private int call;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        databaseConfig = BenchmarkDatabase.inMemory("columnar");
+        repository = new TransactionRepository(databaseConfig);
+        repository.saveAll(new TransactionGenerator(42).next(rows));
+        ledger = ColumnarLedger.load(repository, null, null, null, null);
+        categorySums = new long[ledger.categoryCount()];
+        categoryCounts = new long[ledger.categoryCount()];
+        for (TransactionGrouping grouping : TransactionGrouping.values()) {
+            assertSame(grouping, repository.aggregateByFilter(grouping, null, null, null, null),
+                    ledger.aggregate(grouping, null, null, null, null));
+            assertSame(grouping, repository.aggregateByFilter(grouping, "expense", null, FIRST_YEAR, FIRST_YEAR.plusYears(1)),
+                    ledger.aggregate(grouping, "expense", null, FIRST_YEAR, FIRST_YEAR.plusYears(1)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    public List<TransactionAggregate> h2ExpenseByCategoryForYear() {
+        LocalDateTime start = nextYear();
+        return repository.aggregateByFilter(TransactionGrouping.CATEGORY, "expense", null, start,
+                start.plusYears(1).minusSeconds(1));
+    }
+
+    @Benchmark
+    public long[] columnarExpenseByCategoryForYear() {
+        LocalDateTime start = nextYear();
+        ledger.sumByCategory(ColumnarLedger.EXPENSE_ONLY, ColumnarLedger.toEpochSecond(start),
+                ColumnarLedger.toEpochSecond(start.plusYears(1).minusSeconds(1)), categorySums, categoryCounts);
+        return categorySums;
+    }
+
+    @Benchmark
+    public List<TransactionAggregate> h2AllByMonth() {
+        return repository.aggregateByFilter(TransactionGrouping.MONTH, nextType(), null, null, null);
+    }
+
+    @Benchmark
+    public List<TransactionAggregate> columnarAllByMonth() {
+        return ledger.aggregate(TransactionGrouping.MONTH, nextType(), null, null, null);
+    }
+
+    private LocalDateTime nextYear() {
+        return FIRST_YEAR.plusYears(call++ % YEARS);
+    }
+
+    private String nextType() {
+        return call++ % 2 == 0 ? "income" : "expense";
+    }
+
+    private static void assertSame(TransactionGrouping grouping, List<TransactionAggregate> expected,
+                                   List<TransactionAggregate> actual) {
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException(grouping + ": H2 returned " + expected.size()
+                    + " groups, columnar returned " + actual.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            TransactionAggregate want = expected.get(i);
+            TransactionAggregate have = actual.get(i);
+            if (!want.equals(have)) {
+                throw new IllegalStateException(grouping + ": expected " + want + " but was " + have);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionPage;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// indexed=false drops the V2 indexes to reproduce the pre-migration full scans.
+// Parameters rotate between calls because H2 reuses the previous result of an identical query.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterQueryBenchmark {
+    private static final int MONTHS = 24;
+    private static final LocalDateTime FIRST_MONTH = LocalDateTime.of(2019, 1, 1, 0, 0);
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private int call;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        databaseConfig = BenchmarkDatabase.inMemory("filter-query");
+        repository = new TransactionRepository(databaseConfig);
+        repository.saveAll(new TransactionGenerator(42).next(rows));
+        if (!indexed) {
+            try (Connection connection = databaseConfig.getConnection();
+                 Statement stmt = connection.createStatement()) {
+                stmt.execute("DROP INDEX IF EXISTS idx_transactions_date_id");
+                stmt.execute("DROP INDEX IF EXISTS idx_transactions_type_date_id");
+                stmt.execute("DROP INDEX IF EXISTS idx_transactions_category_date_id");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    public List<Transaction> dateRange() {
+        LocalDateTime start = nextMonth();
+        return repository.findByFilter(null, null, start, start.plusMonths(1).minusSeconds(1));
+    }
+
+    @Benchmark
+    public List<Transaction> typeAndDateRange() {
+        LocalDateTime start = nextMonth();
+        return repository.findByFilter("income", null, start, start.plusMonths(1).minusSeconds(1));
+    }
+
+    @Benchmark
+    public List<Transaction> categoryAndDateRange() {
+        LocalDateTime start = nextMonth();
+        return repository.findByFilter(null, nextCategory(), start, start.plusMonths(1).minusSeconds(1));
+    }
+
+    @Benchmark
+    public TransactionPage firstPageByCategory() {
+        return repository.findPage(null, nextCategory(), null, null, null, 50);
+    }
+
+    private LocalDateTime nextMonth() {
+        return FIRST_MONTH.plusMonths(call++ % MONTHS);
+    }
+
+    private String nextCategory() {
+        return TransactionGenerator.CATEGORIES[call++ % TransactionGenerator.CATEGORIES.length];
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.metrics.MetricsRegistry;
+import com.fintracker.metrics.OperationMetrics;
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+// Cost of the per-operation metrics with fintracker.metrics.enabled on and off. The wrapped* benchmarks isolate
+// the wrapper around a trivial operation; findByIdCached is the cheapest real repository call (a cache hit), so it
+// shows the worst-case relative overhead a production call can see.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+    private static final int ROWS = 4096;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private MetricsRegistry registry;
+    private OperationMetrics operation;
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private long value;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        registry = new MetricsRegistry(new MetricsRegistry.Settings(metrics, "instrumentation-benchmark", null, 60));
+        operation = registry.operation("benchmark", "noop");
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.metrics.enabled", Boolean.toString(metrics));
+        properties.setProperty("fintracker.cache.maxSize", Integer.toString(2 * ROWS));
+        databaseConfig = BenchmarkDatabase.inMemory("instrumentation", properties);
+        repository = new TransactionRepository(databaseConfig);
+        BenchmarkDatabase.seed(databaseConfig, repository.getCategoryDictionary(), ROWS, 42);
+        for (long id = 1; id <= ROWS; id++) {
+            repository.findById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        registry.close();
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    public long wrappedCall() {
+        return operation.call(() -> value++, result -> 1);
+    }
+
+    // Every thread records into the same histogram buckets and adders
+    @Benchmark
+    @Threads(4)
+    public long wrappedCallContended() {
+        return operation.call(() -> value++, result -> 1);
+    }
+
+    @Benchmark
+    public Transaction findByIdCached() {
+        return repository.findById(1 + (next++ & (ROWS - 1)));
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.fintracker.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reads the primary scores out of a JMH JSON result file (-rf json). JMH ships no JSON parser, and the
+// format is simple enough that a small recursive-descent reader avoids adding a dependency.
+public final class JmhResults {
+
+    // key is the benchmark name plus its sorted @Param values, so runs with the same parameters line up
+    public record Score(String key, String mode, double score, double error, String unit) {
+        public boolean higherIsBetter() {
+            return mode.equals("thrpt");
+        }
+    }
+
+    private JmhResults() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Score> read(Path file) throws IOException {
+        Object root = new Parser(Files.readString(file)).parseDocument();
+        if (!(root instanceof List<?> runs)) {
+            throw new IOException(file + " is not a JMH JSON result file");
+        }
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (Object run : runs) {
+            Map<String, Object> result = (Map<String, Object>) run;
+            Map<String, Object> params = (Map<String, Object>) result.getOrDefault("params", Map.of());
+            Map<String, Object> metric = (Map<String, Object>) result.get("primaryMetric");
+            String key = result.get("benchmark") + (params.isEmpty() ? "" : new TreeMap<>(params).toString());
+            scores.put(key, new Score(key, (String) result.get("mode"), number(metric.get("score")),
+                    number(metric.get("scoreError")), (String) metric.get("scoreUnit")));
+        }
+        return scores;
+    }
+
+    // scoreError is the string "NaN" when there were too few iterations to compute it
+    private static double number(Object value) {
+        return value instanceof Double number ? number : Double.NaN;
+    }
+
+    private static final class Parser {
+        private final String json;
+        private int position;
+
+        private Parser(String json) {
+            this.json = json;
+        }
+
+        private Object parseDocument() throws IOException {
+            Object value = parseValue();
+            skipWhitespace();
+            if (position != json.length()) {
+                throw error("trailing content");
+            }
+            return value;
+        }
+
+        private Object parseValue() throws IOException {
+            skipWhitespace();
+            if (position >= json.length()) {
+                throw error("unexpected end");
+            }
+            char c = json.charAt(position);
+            switch (c) {
+                case '{':
+                    return parseObject();
+                case '[':
+                    return parseArray();
+                case '"':
+                    return parseString();
+                default:
+                    return parseLiteral();
+            }
+        }
+
+        private Map<String, Object> parseObject() throws IOException {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = parseString();
+                skipWhitespace();
+                expect(':');
+                object.put(name, parseValue());
+                skipWhitespace();
+                char c = json.charAt(position++);
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw error("expected , or }");
+                }
+            }
+        }
+
+        private List<Object> parseArray() throws IOException {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                array.add(parseValue());
+                skipWhitespace();
+                char c = json.charAt(position++);
+                if (c == ']') {
+                    return array;
+                }
+                if (c != ',') {
+                    throw error("expected , or ]");
+                }
+            }
+        }
+
+        private String parseString() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    char escape = json.charAt(position++);
+                    switch (escape) {
+                        case 'n' -> value.append('\n');
+                        case 't' -> value.append('\t');
+                        case 'r' -> value.append('\r');
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'u' -> {
+                            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                            position += 4;
+                        }
+                        default -> value.append(escape);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private Object parseLiteral() throws IOException {
+            int start = position;
+            while (position < json.length() && ",}] \t\r\n".indexOf(json.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = json.substring(start, position);
+            switch (literal) {
+                case "true":
+                    return Boolean.TRUE;
+                case "false":
+                    return Boolean.FALSE;
+                case "null":
+                    return null;
+                default:
+                    try {
+                        return Double.parseDouble(literal);
+                    } catch (NumberFormatException e) {
+                        throw error("invalid literal " + literal);
+                    }
+            }
+        }
+
+        private char peek() throws IOException {
+            if (position >= json.length()) {
+                throw error("unexpected end");
+            }
+            return json.charAt(position);
+        }
+
+        private void expect(char expected) throws IOException {
+            if (peek() != expected) {
+                throw error("expected " + expected);
+            }
+            position++;
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException("Invalid JSON at position " + position + ": " + message);
+        }
+    }
+
+}
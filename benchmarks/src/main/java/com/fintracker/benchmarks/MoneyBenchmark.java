@@ -0,0 +1,68 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Money parse/format against the double-based code it replaced; run with -prof gc to see allocation per op
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final int SIZE = 1024;
+
+    private final String[] texts = new String[SIZE];
+    private final long[] amounts = new long[SIZE];
+    private final StringBuilder buffer = new StringBuilder(32);
+    private int index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SIZE; i++) {
+            amounts[i] = random.nextLong(10_000_000);
+            texts[i] = Money.format(amounts[i]);
+        }
+    }
+
+    @Benchmark
+    public long parseMoney() {
+        return Money.parse(texts[next()]);
+    }
+
+    @Benchmark
+    public double parseDouble() {
+        return Double.parseDouble(texts[next()]);
+    }
+
+    @Benchmark
+    public int formatMoneyIntoBuffer() {
+        buffer.setLength(0);
+        Money.format(amounts[next()], buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public String formatDouble() {
+        return String.format("%.2f", amounts[next()] / 100.0);
+    }
+
+    private int next() {
+        return index++ & (SIZE - 1);
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.analytics.OffHeapLedger;
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// The same ledger held as a List<Transaction> with a HashMap by id, or as an OffHeapLedger. Setup prints the heap
+// and off-heap bytes each row costs, and teardown prints the collector's time during the trial. churn promotes
+// short-lived rows so that old-generation collections run and have to trace whatever the ledger keeps on the heap.
+// H2 runs from a temporary file and is closed after loading, so its pages do not count towards either layout.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OffHeapLedgerBenchmark {
+    private static final long SEED = 42;
+    private static final int MONTHS = 120;
+    private static final int CHURN_WINDOW = 200_000;
+    private static final int CHURN_BATCH = 1_000;
+
+    @Param({"heap", "offheap"})
+    public String layout;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Path directory;
+    private List<Transaction> list;
+    private Map<Long, Transaction> byId;
+    private OffHeapLedger ledger;
+    private OffHeapLedger.Row row;
+    private TransactionGenerator generator;
+    private final Transaction[] churned = new Transaction[CHURN_WINDOW];
+    private final SplittableRandom random = new SplittableRandom(SEED);
+    private int churnSlot;
+    private int month;
+    private long sum;
+    private long gcCountAtStart;
+    private long gcMillisAtStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("fintracker-offheap");
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.cache.enabled", "false");
+        properties.setProperty("fintracker.db.path", "jdbc:h2:file:" + directory.resolve("ledger"));
+        DatabaseConfig databaseConfig = BenchmarkDatabase.inMemory("offheap", properties);
+        TransactionRepository repository = new TransactionRepository(databaseConfig);
+        BenchmarkDatabase.seed(databaseConfig, repository.getCategoryDictionary(), rows, SEED);
+
+        long heapBefore = usedHeapAfterGc();
+        if (layout.equals("heap")) {
+            list = repository.getAll();
+            byId = new HashMap<>(list.size() * 2);
+            for (Transaction transaction : list) {
+                byId.put(transaction.getId(), transaction);
+            }
+        } else {
+            ledger = OffHeapLedger.load(repository, null, null, null, null);
+            row = ledger.newRow();
+        }
+        databaseConfig.closeConnection();
+        long heapBytes = usedHeapAfterGc() - heapBefore;
+        long offHeapBytes = ledger == null ? 0 : ledger.offHeapBytes();
+        System.out.printf("%n%s layout, %d rows: %.1f heap bytes/row, %.1f off-heap bytes/row%n",
+                layout, rows, (double) heapBytes / rows, (double) offHeapBytes / rows);
+
+        generator = new TransactionGenerator(SEED + 1);
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s layout: %d collections, %d ms in GC during the trial%n",
+                layout, gcCount() - gcCountAtStart, gcMillis() - gcMillisAtStart);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long findById() {
+        long id = 1 + random.nextInt(rows);
+        if (ledger == null) {
+            return byId.get(id).getAmount();
+        }
+        return row.moveToId(id) ? row.amount() : 0;
+    }
+
+    // One category's expenses for one month: about rows / 180 matches
+    @Benchmark
+    public long sumExpensesForMonth() {
+        LocalDateTime start = TransactionGenerator.START.plusMonths(month++ % MONTHS);
+        LocalDateTime end = start.plusMonths(1).minusSeconds(1);
+        String category = TransactionGenerator.CATEGORIES[month % TransactionGenerator.CATEGORIES.length];
+        if (ledger == null) {
+            long total = 0;
+            for (Transaction transaction : list) {
+                if (transaction.getType().equals("expense") && transaction.getCategory().equals(category)
+                        && !transaction.getDate().isBefore(start) && !transaction.getDate().isAfter(end)) {
+                    total += transaction.getAmount();
+                }
+            }
+            return total;
+        }
+        sum = 0;
+        ledger.forEach("expense", category, start, end, match -> sum += match.amount());
+        return sum;
+    }
+
+    // Keeps the last CHURN_WINDOW generated rows alive long enough to be promoted, then drops them
+    @Benchmark
+    public Transaction[] churn() {
+        for (Transaction transaction : generator.next(CHURN_BATCH)) {
+            churned[churnSlot] = transaction;
+            churnSlot = (churnSlot + 1) % CHURN_WINDOW;
+        }
+        return churned;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+}
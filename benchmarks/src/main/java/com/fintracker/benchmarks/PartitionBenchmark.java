@@ -0,0 +1,98 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionPartitions;
+import com.fintracker.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Ten years of TransactionGenerator history, with archived=true moving every year but the last out of the hot
+// table. The "current" months are those of the last year, so both variants read the same rows.
+// Months rotate between calls because H2 reuses the previous result of an identical query.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionBenchmark {
+    private static final LocalDateTime LAST_YEAR = TransactionGenerator.START.plusSeconds(TransactionGenerator.SPAN_SECONDS)
+            .withDayOfYear(1).withHour(0).withMinute(0).withSecond(0);
+    private static final int MONTHS = 11;
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean archived;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private int call;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        databaseConfig = BenchmarkDatabase.inMemory("partition");
+        repository = new TransactionRepository(databaseConfig);
+        BenchmarkDatabase.seed(databaseConfig, repository.getCategoryDictionary(), rows, 42);
+        if (archived) {
+            List<TransactionPartitions.ArchiveReport> reports =
+                    databaseConfig.getPartitions().archiveThrough(LAST_YEAR.getYear() - 1);
+            System.out.println("Archived " + reports.size() + " years, "
+                    + reports.stream().mapToLong(TransactionPartitions.ArchiveReport::rowsMoved).sum() + " rows");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    public List<Transaction> currentMonth() {
+        LocalDateTime start = nextMonth();
+        return repository.findByFilter(null, null, start, start.plusMonths(1).minusSeconds(1));
+    }
+
+    @Benchmark
+    public TransactionPage currentMonthFirstPage() {
+        LocalDateTime start = nextMonth();
+        return repository.findPage(null, null, start, start.plusMonths(1).minusSeconds(1), null, 50);
+    }
+
+    // No date range reads every archive table, one index-ordered branch each, merged by the outer ORDER BY
+    @Benchmark
+    public TransactionPage firstPageWholeHistory() {
+        return repository.findPage(call++ % 2 == 0 ? "income" : "expense", null, null, null, null, 50);
+    }
+
+    @Benchmark
+    public List<TransactionAggregate> wholeHistoryByYear() {
+        return repository.aggregateByFilter(TransactionGrouping.YEAR, null, null, null, nextMonth());
+    }
+
+    private LocalDateTime nextMonth() {
+        return LAST_YEAR.plusMonths(call++ % MONTHS);
+    }
+
+}
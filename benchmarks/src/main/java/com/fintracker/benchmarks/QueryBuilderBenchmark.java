@@ -0,0 +1,40 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.repository.QueryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBuilderBenchmark {
+    // Fields rather than constants so the JIT cannot fold the calls away
+    public String type = "expense";
+    public Integer categoryId = 3;
+    public LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    public LocalDateTime end = LocalDateTime.of(2024, 1, 31, 23, 59, 59);
+
+    @Benchmark
+    public QueryBuilder.QueryParams noFilters() {
+        return QueryBuilder.buildTransactionFilterQuery(null, null, null, null);
+    }
+
+    @Benchmark
+    public QueryBuilder.QueryParams allFilters() {
+        return QueryBuilder.buildTransactionFilterQuery(type, categoryId, start, end);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Core repository calls against a seeded in-memory ledger. The cache is off so findById measures the database.
+// 10M rows need roughly 4 GB of heap, hence the fork's -Xmx; run `-p rows=10000,1000000` on smaller machines.
+// Filter windows rotate month by month because H2 reuses the previous result of an identical query.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryBenchmark {
+    private static final long SEED = 42;
+    private static final int MONTHS = 120;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private TransactionGenerator generator;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+    private int month;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.cache.enabled", "false");
+        databaseConfig = BenchmarkDatabase.inMemory("repository", properties);
+        repository = new TransactionRepository(databaseConfig);
+        BenchmarkDatabase.seed(databaseConfig, repository.getCategoryDictionary(), rows, SEED);
+        // A different seed so saved rows do not repeat the seeded ones
+        generator = new TransactionGenerator(SEED + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    public Transaction save() {
+        Transaction transaction = generator.next();
+        repository.save(transaction);
+        return transaction;
+    }
+
+    @Benchmark
+    public Transaction findById() {
+        return repository.findById(1 + random.nextInt(rows));
+    }
+
+    // One category's expenses for one month: about rows / 180 matches
+    @Benchmark
+    public List<Transaction> findByFilter() {
+        LocalDateTime start = TransactionGenerator.START.plusMonths(month++ % MONTHS);
+        String category = TransactionGenerator.CATEGORIES[month % TransactionGenerator.CATEGORIES.length];
+        return repository.findByFilter("expense", category, start, start.plusMonths(1).minusSeconds(1));
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionPage;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TransactionLogStore;
+import com.fintracker.repository.TransactionRepository;
+import com.fintracker.repository.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// The two TransactionStore backends on the same seeded ledger, both in files in a temporary directory so that
+// neither gets the advantage of an in-memory database. The cache is off so findById measures the store.
+// Updates rewrite seeded rows and so leave garbage behind in the log; compaction runs in the background.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StoreBenchmark {
+    private static final long SEED = 42;
+    private static final int MONTHS = 120;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"h2", "log"})
+    public String store;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Path directory;
+    private DatabaseConfig databaseConfig;
+    private TransactionStore transactions;
+    private TransactionGenerator generator;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+    private int month;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("fintracker-store");
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.cache.enabled", "false");
+        properties.setProperty("fintracker.db.path", "jdbc:h2:file:" + directory.resolve("ledger"));
+        databaseConfig = BenchmarkDatabase.inMemory("store", properties);
+        if (store.equals("log")) {
+            transactions = new TransactionLogStore(new TransactionLogStore.Settings(true,
+                    directory.resolve("transactions.log"), false, 10, 50), databaseConfig.getMetricsRegistry());
+            new TransactionGenerator(SEED).forEachBatch(rows, 10_000, transactions::saveAll);
+        } else {
+            TransactionRepository repository = new TransactionRepository(databaseConfig);
+            BenchmarkDatabase.seed(databaseConfig, repository.getCategoryDictionary(), rows, SEED);
+            transactions = repository;
+        }
+        // A different seed so saved rows do not repeat the seeded ones
+        generator = new TransactionGenerator(SEED + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        transactions.close();
+        databaseConfig.closeConnection();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Transaction save() {
+        Transaction transaction = generator.next();
+        transactions.save(transaction);
+        return transaction;
+    }
+
+    @Benchmark
+    public List<Transaction> saveBatch() {
+        List<Transaction> batch = generator.next(BATCH_SIZE);
+        transactions.saveBatch(batch);
+        return batch;
+    }
+
+    @Benchmark
+    public Transaction update() {
+        Transaction transaction = transactions.findById(1 + random.nextInt(rows));
+        transaction.setAmount(1 + random.nextInt(1_000_000));
+        transactions.update(transaction);
+        return transaction;
+    }
+
+    @Benchmark
+    public Transaction findById() {
+        return transactions.findById(1 + random.nextInt(rows));
+    }
+
+    // One category's expenses for one month: about rows / 180 matches
+    @Benchmark
+    public List<Transaction> findByFilter() {
+        LocalDateTime start = TransactionGenerator.START.plusMonths(month++ % MONTHS);
+        String category = TransactionGenerator.CATEGORIES[month % TransactionGenerator.CATEGORIES.length];
+        return transactions.findByFilter("expense", category, start, start.plusMonths(1).minusSeconds(1));
+    }
+
+    @Benchmark
+    public TransactionPage firstPage() {
+        LocalDateTime start = TransactionGenerator.START.plusMonths(month++ % MONTHS);
+        return transactions.findPage(null, null, start, null, null, 50);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// Deterministic for a given seed, so every run and every release benchmarks the same ledger
+public final class TransactionGenerator {
+    public static final String[] CATEGORIES = {"FOOD", "TRANSPORT", "ENTERTAINMENT", "BILLS", "SALARY", "OTHER",
+            "HEALTH", "EDUCATION", "TRAVEL", "SHOPPING", "RENT", "GIFTS"};
+    public static final LocalDateTime START = LocalDateTime.of(2015, 1, 1, 0, 0);
+    public static final long SPAN_SECONDS = 10L * 365 * 24 * 3600;
+
+    private final SplittableRandom random;
+
+    public TransactionGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public Transaction next() {
+        String type = random.nextInt(5) == 0 ? "income" : "expense";
+        long amount = random.nextInt(1_000_000);
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        LocalDateTime date = START.plusSeconds(random.nextLong(SPAN_SECONDS));
+        return new Transaction(0L, type, amount, category, date);
+    }
+
+    public List<Transaction> next(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(next());
+        }
+        return transactions;
+    }
+
+    // Hands out count rows in reused batches so millions of rows never sit in memory at once
+    public void forEachBatch(long count, int batchSize, Consumer<List<Transaction>> action) {
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        for (long i = 0; i < count; i++) {
+            batch.add(next());
+            if (batch.size() == batchSize) {
+                action.accept(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            action.accept(batch);
+        }
+    }
+
+}
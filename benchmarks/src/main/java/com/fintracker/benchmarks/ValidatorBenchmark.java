@@ -0,0 +1,77 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.validator.TransactionValidator;
+import com.fintracker.validator.ValidationReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Single-row calls use valid rows only: their rejection path logs a warning, which would dominate the
+// measurement. The batch calls validate all ROWS per operation; mixedBatch has every tenth row invalid.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+    private static final int ROWS = 1024;
+
+    private List<Transaction> transactions;
+    private List<Transaction> mixed;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        transactions = new TransactionGenerator(42).next(ROWS);
+        mixed = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction row = transactions.get(i);
+            mixed.add(i % 10 == 0
+                    ? new Transaction(0, "transfer", row.getAmount(), row.getCategory(), row.getDate())
+                    : row);
+        }
+    }
+
+    @Benchmark
+    public Transaction validateTransaction() {
+        Transaction transaction = transactions.get(next++ & (ROWS - 1));
+        TransactionValidator.validateTransaction(transaction);
+        return transaction;
+    }
+
+    // The checks validateTransaction made before the rule engine, for comparison
+    @Benchmark
+    public Transaction regexValidateTransaction() {
+        Transaction transaction = transactions.get(next++ & (ROWS - 1));
+        if (transaction.getType() == null || !transaction.getType().matches("^(income|expense)$")
+                || transaction.getAmount() < 0 || transaction.getCategory() == null
+                || transaction.getCategory().trim().isEmpty() || transaction.getDate() == null) {
+            throw new IllegalArgumentException("Invalid transaction");
+        }
+        return transaction;
+    }
+
+    @Benchmark
+    public ValidationReport validBatch() {
+        return TransactionValidator.validateTransactions(transactions);
+    }
+
+    @Benchmark
+    public ValidationReport mixedBatch() {
+        return TransactionValidator.validateTransactions(mixed);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.fintracker.benchmarks;
+
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Many concurrent callers each adding one transaction and waiting for its id. Synchronous mode commits every
+// row on its own; write-behind group-commits whatever the callers enqueued while the previous commit ran.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class WriteBehindBenchmark {
+    private static final String[] CATEGORIES = {"FOOD", "TRANSPORT", "ENTERTAINMENT", "BILLS", "SALARY", "OTHER"};
+
+    // writeBehindLinger waits up to 2 ms after the first queued row for more before committing
+    @Param({"sync", "writeBehind", "writeBehindLinger"})
+    public String mode;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private DatabaseConfig databaseConfig;
+    private TransactionService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.writeBehind.enabled", Boolean.toString(!mode.equals("sync")));
+        properties.setProperty("fintracker.writeBehind.maxDelayMs", mode.equals("writeBehindLinger") ? "2" : "0");
+        properties.setProperty("fintracker.cache.enabled", "false");
+        databaseConfig = BenchmarkDatabase.inMemory("write-behind", properties);
+        service = new TransactionService(databaseConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+        databaseConfig.closeConnection();
+    }
+
+    @Benchmark
+    public long addTransaction() {
+        long i = sequence.incrementAndGet();
+        return service.addTransactionAsync(i % 5 == 0 ? "income" : "expense", i % 10_000,
+                CATEGORIES[(int) (i % CATEGORIES.length)]).join();
+    }
+
+}
@@ -0,0 +1,290 @@
+package com.fintracker.analytics;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.repository.TransactionStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable column-per-field snapshot of the ledger. Scans touch only primitive arrays:
+// no Transaction, String or LocalDateTime is created per row.
+public final class ColumnarLedger {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarLedger.class);
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final String INCOME = "income";
+    private static final String EXPENSE = "expense";
+
+    // Type filter codes for the scan methods
+    public static final int ANY_TYPE = 0;
+    public static final int INCOME_ONLY = 1;
+    public static final int EXPENSE_ONLY = 2;
+    public static final int ANY_CATEGORY = -1;
+
+    private final int size;
+    private final long[] epochSeconds;
+    private final long[] amounts;
+    private final int[] categoryCodes;
+    private final long[] incomeBits;
+    private final String[] categories;
+    private final Map<String, Integer> categoryIndex;
+
+    private ColumnarLedger(int size, long[] epochSeconds, long[] amounts, int[] categoryCodes, long[] incomeBits,
+                           String[] categories, Map<String, Integer> categoryIndex) {
+        this.size = size;
+        this.epochSeconds = epochSeconds;
+        this.amounts = amounts;
+        this.categoryCodes = categoryCodes;
+        this.incomeBits = incomeBits;
+        this.categories = categories;
+        this.categoryIndex = categoryIndex;
+    }
+
+    public static ColumnarLedger load(TransactionStore repository, String type, String category,
+                                      LocalDateTime startDate, LocalDateTime endDate) {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        repository.forEachByFilter(type, category, startDate, endDate, builder::add);
+        ColumnarLedger ledger = builder.build();
+        logger.info("Loaded columnar ledger: {} rows, {} categories in {} ms",
+                ledger.size(), ledger.categoryCount(), (System.nanoTime() - start) / 1_000_000);
+        return ledger;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int categoryCount() {
+        return categories.length;
+    }
+
+    // Null for the code of legacy rows that have no category
+    public String categoryName(int code) {
+        return categories[code];
+    }
+
+    // Returns -2 for unknown names so that scans match nothing, as an SQL equality filter would
+    public int categoryCode(String category) {
+        if (category == null) {
+            return ANY_CATEGORY;
+        }
+        return categoryIndex.getOrDefault(category, -2);
+    }
+
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static int typeCode(String type) {
+        if (type == null) {
+            return ANY_TYPE;
+        }
+        return INCOME.equals(type) ? INCOME_ONLY : EXPENSE_ONLY;
+    }
+
+    public long sum(int typeCode, int categoryCode, long fromEpochSecond, long toEpochSecond) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (matches(i, typeCode, categoryCode, fromEpochSecond, toEpochSecond)) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    public int count(int typeCode, int categoryCode, long fromEpochSecond, long toEpochSecond) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (matches(i, typeCode, categoryCode, fromEpochSecond, toEpochSecond)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Caller-owned output arrays of length categoryCount() keep repeated queries allocation-free
+    public void sumByCategory(int typeCode, long fromEpochSecond, long toEpochSecond, long[] sums, long[] counts) {
+        Arrays.fill(sums, 0, categories.length, 0);
+        Arrays.fill(counts, 0, categories.length, 0);
+        for (int i = 0; i < size; i++) {
+            if (matches(i, typeCode, ANY_CATEGORY, fromEpochSecond, toEpochSecond)) {
+                int code = categoryCodes[i];
+                sums[code] += amounts[i];
+                counts[code]++;
+            }
+        }
+    }
+
+    // Same groups, keys and order as TransactionRepository.aggregateByFilter, for cross-checking against H2
+    public List<TransactionAggregate> aggregate(TransactionGrouping grouping, String type, String category,
+                                                LocalDateTime startDate, LocalDateTime endDate) {
+        int typeCode = typeCode(type);
+        int categoryCode = categoryCode(category);
+        long from = startDate == null ? Long.MIN_VALUE : toEpochSecond(startDate);
+        long to = endDate == null ? Long.MAX_VALUE : toEpochSecond(endDate);
+
+        int base = 0;
+        int buckets;
+        switch (grouping) {
+            case CATEGORY -> buckets = categories.length;
+            case TYPE -> buckets = 2;
+            default -> {
+                if (size == 0) {
+                    return List.of();
+                }
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (int i = 0; i < size; i++) {
+                    min = Math.min(min, epochSeconds[i]);
+                    max = Math.max(max, epochSeconds[i]);
+                }
+                base = bucketOf(grouping, min, 0);
+                buckets = bucketOf(grouping, max, base) + 1;
+            }
+        }
+
+        long[] counts = new long[buckets];
+        long[] sums = new long[buckets];
+        long[] mins = new long[buckets];
+        long[] maxs = new long[buckets];
+        Arrays.fill(mins, Long.MAX_VALUE);
+        Arrays.fill(maxs, Long.MIN_VALUE);
+        for (int i = 0; i < size; i++) {
+            if (!matches(i, typeCode, categoryCode, from, to)) {
+                continue;
+            }
+            int bucket = switch (grouping) {
+                case CATEGORY -> categoryCodes[i];
+                case TYPE -> isIncome(i) ? 1 : 0;
+                default -> bucketOf(grouping, epochSeconds[i], base);
+            };
+            long amount = amounts[i];
+            counts[bucket]++;
+            sums[bucket] += amount;
+            mins[bucket] = Math.min(mins[bucket], amount);
+            maxs[bucket] = Math.max(maxs[bucket], amount);
+        }
+
+        List<TransactionAggregate> result = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (counts[bucket] > 0) {
+                result.add(new TransactionAggregate(groupKey(grouping, bucket, base), counts[bucket], sums[bucket],
+                        mins[bucket], maxs[bucket]));
+            }
+        }
+        if (grouping == TransactionGrouping.CATEGORY) {
+            result.sort(Comparator.comparing(TransactionAggregate::group,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+        }
+        return result;
+    }
+
+    private boolean matches(int row, int typeCode, int categoryCode, long fromEpochSecond, long toEpochSecond) {
+        long second = epochSeconds[row];
+        if (second < fromEpochSecond || second > toEpochSecond) {
+            return false;
+        }
+        if (categoryCode != ANY_CATEGORY && categoryCodes[row] != categoryCode) {
+            return false;
+        }
+        return typeCode == ANY_TYPE || isIncome(row) == (typeCode == INCOME_ONLY);
+    }
+
+    private boolean isIncome(int row) {
+        return (incomeBits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private static int bucketOf(TransactionGrouping grouping, long epochSecond, int base) {
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        if (grouping == TransactionGrouping.DAY) {
+            return (int) epochDay - base;
+        }
+        int yearMonth = civilYearMonth(epochDay);
+        return (grouping == TransactionGrouping.YEAR ? yearMonth / 12 : yearMonth) - base;
+    }
+
+    // Days-to-civil conversion (proleptic Gregorian) returning year * 12 + (month - 1) without allocating a LocalDate
+    private static int civilYearMonth(long epochDay) {
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    private String groupKey(TransactionGrouping grouping, int bucket, int base) {
+        int value = bucket + base;
+        return switch (grouping) {
+            case CATEGORY -> categories[bucket];
+            case TYPE -> bucket == 1 ? INCOME : EXPENSE;
+            case DAY -> LocalDate.ofEpochDay(value).toString();
+            case MONTH -> String.format("%04d-%02d", value / 12, value % 12 + 1);
+            case YEAR -> Integer.toString(value);
+        };
+    }
+
+    private static final class Builder {
+        private int size;
+        private long[] epochSeconds = new long[1024];
+        private long[] amounts = new long[1024];
+        private int[] categoryCodes = new int[1024];
+        private long[] incomeBits = new long[16];
+        private final List<String> categories = new ArrayList<>();
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+        // Legacy rows without a category share one code, kept out of categoryIndex since Map.copyOf rejects null
+        private int nullCategoryCode = -1;
+
+        private void add(Transaction transaction) {
+            if (size == epochSeconds.length) {
+                int capacity = size * 2;
+                epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+                incomeBits = Arrays.copyOf(incomeBits, (capacity + 63) >>> 6);
+            }
+            epochSeconds[size] = toEpochSecond(transaction.getDate());
+            amounts[size] = transaction.getAmount();
+            categoryCodes[size] = categoryCode(transaction.getCategory());
+            if (INCOME.equals(transaction.getType())) {
+                incomeBits[size >>> 6] |= 1L << size;
+            }
+            size++;
+        }
+
+        private int categoryCode(String category) {
+            if (category == null) {
+                if (nullCategoryCode < 0) {
+                    categories.add(null);
+                    nullCategoryCode = categories.size() - 1;
+                }
+                return nullCategoryCode;
+            }
+            return categoryIndex.computeIfAbsent(category, name -> {
+                categories.add(name);
+                return categories.size() - 1;
+            });
+        }
+
+        private ColumnarLedger build() {
+            return new ColumnarLedger(size, Arrays.copyOf(epochSeconds, size), Arrays.copyOf(amounts, size),
+                    Arrays.copyOf(categoryCodes, size), Arrays.copyOf(incomeBits, (size + 63) >>> 6),
+                    categories.toArray(new String[0]), Map.copyOf(categoryIndex));
+        }
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.fintracker.analytics;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.TransactionStore;
+import com.fintracker.validator.TransactionValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Immutable row-per-transaction snapshot of the ledger kept in direct ByteBuffers, outside the garbage-collected
+// heap. Each row is 32 bytes with no object behind it, where a Transaction with its Strings and LocalDateTime
+// costs over 100 bytes of heap and several objects for the collector to trace. Rows are read through a Row
+// flyweight, so lookups and scans allocate nothing per row until a caller asks for a Transaction.
+// The memory is released with the buffers once the ledger is unreachable; it counts against -XX:MaxDirectMemorySize.
+public final class OffHeapLedger {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapLedger.class);
+    private static final String INCOME = "income";
+    private static final String EXPENSE = "expense";
+
+    // Row layout. The last int holds the date's nanoseconds in its low 30 bits and the income flag in the top bit.
+    static final int ROW_BYTES = 32;
+    private static final int ID = 0;
+    private static final int EPOCH_SECOND = 8;
+    private static final int AMOUNT = 16;
+    private static final int CATEGORY = 24;
+    private static final int NANO_AND_TYPE = 28;
+    private static final int INCOME_BIT = 1 << 31;
+    private static final int NANO_MASK = (1 << 30) - 1;
+    // 32 MiB per buffer, so no single allocation approaches the 2 GiB ByteBuffer limit
+    private static final int SEGMENT_SHIFT = 20;
+    private static final int SEGMENT_ROWS = 1 << SEGMENT_SHIFT;
+    // Keeps the id index within one buffer: it needs the next power of two at or above rows * 4 / 3 int slots, and
+    // at most 1 << 28 of them fit, since 1 << 29 slots would take 2 GiB
+    private static final int MAX_ROWS = 3 << 26;
+
+    private final int size;
+    private final ByteBuffer[] segments;
+    // Open-addressing id index: each int slot holds row + 1, or 0 when empty
+    private final ByteBuffer idIndex;
+    private final int idMask;
+    private final String[] categories;
+    private final Map<String, Integer> categoryIndex;
+
+    private OffHeapLedger(int size, ByteBuffer[] segments, ByteBuffer idIndex, String[] categories,
+                          Map<String, Integer> categoryIndex) {
+        this.size = size;
+        this.segments = segments;
+        this.idIndex = idIndex;
+        this.idMask = idIndex.capacity() / Integer.BYTES - 1;
+        this.categories = categories;
+        this.categoryIndex = categoryIndex;
+    }
+
+    public static OffHeapLedger load(TransactionStore repository, String type, String category,
+                                     LocalDateTime startDate, LocalDateTime endDate) {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        repository.forEachByFilter(type, category, startDate, endDate, builder::add);
+        OffHeapLedger ledger = builder.build();
+        logger.info("Loaded off-heap ledger: {} rows, {} categories, {} bytes off-heap in {} ms",
+                ledger.size(), ledger.categoryCount(), ledger.offHeapBytes(), (System.nanoTime() - start) / 1_000_000);
+        return ledger;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int categoryCount() {
+        return categories.length;
+    }
+
+    // Null for the code of legacy rows that have no category
+    public String categoryName(int code) {
+        return categories[code];
+    }
+
+    // Rows plus the id index; the category names are the only part on the heap
+    public long offHeapBytes() {
+        long bytes = idIndex.capacity();
+        for (ByteBuffer segment : segments) {
+            bytes += segment.capacity();
+        }
+        return bytes;
+    }
+
+    // A flyweight over this ledger's rows. Not thread-safe; give each thread its own.
+    public Row newRow() {
+        return new Row();
+    }
+
+    public Transaction findById(long id) {
+        TransactionValidator.validateTransactionId(id);
+        int row = rowOf(id);
+        TransactionValidator.checkTransactionExists(id, row >= 0);
+        return newRow().moveTo(row).toTransaction();
+    }
+
+    // Calls action with the same Row, positioned on each match in turn; it must not keep the Row past the call.
+    // Returns the number of matches.
+    public long forEach(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                        Consumer<? super Row> action) {
+        TransactionValidator.validateFilterParams(type, category, startDate, endDate);
+        int typeCode = ColumnarLedger.typeCode(type);
+        // Unknown names match nothing, as an SQL equality filter would
+        int categoryCode = category == null ? ColumnarLedger.ANY_CATEGORY : categoryIndex.getOrDefault(category, -2);
+        long fromSecond = startDate == null ? Long.MIN_VALUE : startDate.toEpochSecond(ZoneOffset.UTC);
+        int fromNano = startDate == null ? 0 : startDate.getNano();
+        long toSecond = endDate == null ? Long.MAX_VALUE : endDate.toEpochSecond(ZoneOffset.UTC);
+        int toNano = endDate == null ? NANO_MASK : endDate.getNano();
+        Row row = new Row();
+        long matches = 0;
+        for (int index = 0; index < size; index++) {
+            ByteBuffer segment = segments[index >>> SEGMENT_SHIFT];
+            int offset = (index & (SEGMENT_ROWS - 1)) * ROW_BYTES;
+            long second = segment.getLong(offset + EPOCH_SECOND);
+            if (second < fromSecond || second > toSecond) {
+                continue;
+            }
+            int nanoAndType = segment.getInt(offset + NANO_AND_TYPE);
+            int nano = nanoAndType & NANO_MASK;
+            if (second == fromSecond && nano < fromNano || second == toSecond && nano > toNano) {
+                continue;
+            }
+            if (categoryCode != ColumnarLedger.ANY_CATEGORY && segment.getInt(offset + CATEGORY) != categoryCode) {
+                continue;
+            }
+            if (typeCode != ColumnarLedger.ANY_TYPE
+                    && ((nanoAndType & INCOME_BIT) != 0) != (typeCode == ColumnarLedger.INCOME_ONLY)) {
+                continue;
+            }
+            action.accept(row.moveTo(index));
+            matches++;
+        }
+        return matches;
+    }
+
+    // In load order, which is the store's scan order
+    public List<Transaction> findByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Transaction> transactions = new ArrayList<>();
+        forEach(type, category, startDate, endDate, row -> transactions.add(row.toTransaction()));
+        return transactions;
+    }
+
+    private int rowOf(long id) {
+        for (int slot = slotOf(id, idMask); ; slot = (slot + 1) & idMask) {
+            int entry = idIndex.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (segments[row >>> SEGMENT_SHIFT].getLong((row & (SEGMENT_ROWS - 1)) * ROW_BYTES + ID) == id) {
+                return row;
+            }
+        }
+    }
+
+    private static int slotOf(long id, int mask) {
+        long mixed = id * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    public final class Row {
+        private ByteBuffer segment;
+        private int offset;
+        private int index = -1;
+
+        private Row() {
+        }
+
+        public Row moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+            }
+            this.segment = segments[index >>> SEGMENT_SHIFT];
+            this.offset = (index & (SEGMENT_ROWS - 1)) * ROW_BYTES;
+            this.index = index;
+            return this;
+        }
+
+        // Leaves the row where it was if no row has this id
+        public boolean moveToId(long id) {
+            int row = rowOf(id);
+            if (row < 0) {
+                return false;
+            }
+            moveTo(row);
+            return true;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public long id() {
+            return segment.getLong(offset + ID);
+        }
+
+        public long amount() {
+            return segment.getLong(offset + AMOUNT);
+        }
+
+        public long epochSecond() {
+            return segment.getLong(offset + EPOCH_SECOND);
+        }
+
+        public int nano() {
+            return segment.getInt(offset + NANO_AND_TYPE) & NANO_MASK;
+        }
+
+        public boolean isIncome() {
+            return (segment.getInt(offset + NANO_AND_TYPE) & INCOME_BIT) != 0;
+        }
+
+        public String type() {
+            return isIncome() ? INCOME : EXPENSE;
+        }
+
+        public int categoryCode() {
+            return segment.getInt(offset + CATEGORY);
+        }
+
+        public String category() {
+            return categories[categoryCode()];
+        }
+
+        // Allocates; prefer epochSecond and nano in scans
+        public LocalDateTime date() {
+            return LocalDateTime.ofEpochSecond(epochSecond(), nano(), ZoneOffset.UTC);
+        }
+
+        public Transaction toTransaction() {
+            return new Transaction(id(), type(), amount(), category(), date());
+        }
+    }
+
+    private static final class Builder {
+        private final List<ByteBuffer> segments = new ArrayList<>();
+        private int size;
+        private final List<String> categories = new ArrayList<>();
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+        // Legacy rows without a category share one code, kept out of categoryIndex since Map.copyOf rejects null
+        private int nullCategoryCode = -1;
+
+        private void add(Transaction transaction) {
+            if (size == MAX_ROWS) {
+                throw new IllegalStateException("Off-heap ledger is limited to " + MAX_ROWS + " rows");
+            }
+            int offset = (size & (SEGMENT_ROWS - 1)) * ROW_BYTES;
+            if (offset == 0) {
+                segments.add(ByteBuffer.allocateDirect(SEGMENT_ROWS * ROW_BYTES).order(ByteOrder.nativeOrder()));
+            }
+            ByteBuffer segment = segments.get(segments.size() - 1);
+            LocalDateTime date = transaction.getDate();
+            int categoryCode = categoryCode(transaction.getCategory());
+            segment.putLong(offset + ID, transaction.getId())
+                    .putLong(offset + EPOCH_SECOND, date.toEpochSecond(ZoneOffset.UTC))
+                    .putLong(offset + AMOUNT, transaction.getAmount())
+                    .putInt(offset + CATEGORY, categoryCode)
+                    .putInt(offset + NANO_AND_TYPE, date.getNano() | (INCOME.equals(transaction.getType()) ? INCOME_BIT : 0));
+            size++;
+        }
+
+        private int categoryCode(String category) {
+            if (category == null) {
+                if (nullCategoryCode < 0) {
+                    categories.add(null);
+                    nullCategoryCode = categories.size() - 1;
+                }
+                return nullCategoryCode;
+            }
+            return categoryIndex.computeIfAbsent(category, name -> {
+                categories.add(name);
+                return categories.size() - 1;
+            });
+        }
+
+        private OffHeapLedger build() {
+            ByteBuffer[] rows = segments.toArray(new ByteBuffer[0]);
+            // Trims the last buffer to the rows it holds; the full-size one is freed with the builder
+            int lastRows = size & (SEGMENT_ROWS - 1);
+            if (lastRows > 0) {
+                ByteBuffer last = ByteBuffer.allocateDirect(lastRows * ROW_BYTES).order(ByteOrder.nativeOrder());
+                last.put(rows[rows.length - 1].duplicate().limit(lastRows * ROW_BYTES)).clear();
+                rows[rows.length - 1] = last;
+            }
+            // At most 3/4 full, so probe runs stay short
+            int slots = Integer.highestOneBit(Math.max(4, size + size / 3) * 2 - 1);
+            ByteBuffer idIndex = ByteBuffer.allocateDirect(slots * Integer.BYTES).order(ByteOrder.nativeOrder());
+            int mask = slots - 1;
+            for (int row = 0; row < size; row++) {
+                long id = rows[row >>> SEGMENT_SHIFT].getLong((row & (SEGMENT_ROWS - 1)) * ROW_BYTES + ID);
+                int slot = slotOf(id, mask);
+                while (idIndex.getInt(slot * Integer.BYTES) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                idIndex.putInt(slot * Integer.BYTES, row + 1);
+            }
+            return new OffHeapLedger(size, rows, idIndex, categories.toArray(new String[0]),
+                    Map.copyOf(categoryIndex));
+        }
+    }
+
+}
@@ -1,6 +1,12 @@
 package com.fintracker.controller;
 
+import com.fintracker.exporter.TransactionExporter;
+import com.fintracker.importer.CsvTransactionImporter;
+import com.fintracker.model.Money;
+import com.fintracker.model.MonthlySummary;
 import com.fintracker.model.Transaction;
+import com.fintracker.repository.RollupRepository;
+import com.fintracker.repository.TransactionPartitions;
 
 import java.util.List;
 
@@ -12,7 +18,8 @@ public class ConsoleDisplay {
         System.out.println("3. Delete transaction");
         System.out.println("4. Edit transaction");
         System.out.println("5. Filter transactions");
-        System.out.println("6. Exit");
+        System.out.println("6. Show balance and monthly summary");
+        System.out.println("7. Exit");
         System.out.print("Choose an option: ");
     }
 
@@ -34,6 +41,66 @@ public class ConsoleDisplay {
         }
     }
 
+    public void displayMonthlySummaries(long balance, List<MonthlySummary> summaries) {
+        System.out.println("\n--- Monthly Summary ---");
+        System.out.println("Current balance: " + Money.format(balance));
+        if (summaries.isEmpty()) {
+            System.out.println("No transactions found.");
+        } else {
+            summaries.forEach(System.out::println);
+        }
+    }
+
+    public void displayRollupVerification(RollupRepository.Verification verification) {
+        System.out.println("\n--- Rollup Verification ---");
+        System.out.println("Buckets checked: " + verification.bucketsChecked());
+        if (verification.isConsistent()) {
+            System.out.println("No drift found.");
+            return;
+        }
+        System.out.println("Drifted buckets: " + verification.drifts().size());
+        verification.drifts().forEach(drift -> System.out.printf("%s | %s | %s | expected %s (%d) | stored %s (%d)%n",
+                drift.bucket().month(), drift.bucket().category(), drift.bucket().type(),
+                Money.format(drift.expectedTotal()), drift.expectedCount(),
+                Money.format(drift.actualTotal()), drift.actualCount()));
+    }
+
+    public void displayArchiveReports(List<TransactionPartitions.ArchiveReport> reports) {
+        System.out.println("\n--- Archive Report ---");
+        if (reports.isEmpty()) {
+            System.out.println("Nothing to archive.");
+            return;
+        }
+        reports.forEach(report -> System.out.printf("%d | %s | %d rows moved in %.2f s%n", report.year(),
+                report.table() == null ? "no transactions" : report.table(), report.rowsMoved(),
+                report.elapsedNanos() / 1e9));
+    }
+
+    public void displayImportReport(CsvTransactionImporter.ImportReport report) {
+        System.out.println("\n--- Import Report ---");
+        System.out.println("File: " + report.file());
+        if (report.resumedFromLine() > 0) {
+            System.out.println("Resumed after line: " + report.resumedFromLine());
+        }
+        System.out.printf("Imported %d rows, %d errors in %.2f s (%.0f rows/s, %.1f MB/s)%n",
+                report.rowsImported(), report.errorCount(), report.elapsedNanos() / 1e9,
+                report.rowsPerSecond(), report.megabytesPerSecond());
+        report.errors().stream().limit(20).forEach(error ->
+                System.out.println("Line " + error.line() + ": " + error.message()));
+        if (report.errorCount() > 20) {
+            System.out.println("... and " + (report.errorCount() - 20) + " more errors");
+        }
+    }
+
+    public void displayExportReport(TransactionExporter.ExportReport report) {
+        System.out.println("\n--- Export Report ---");
+        System.out.println("File: " + report.file() + " (" + report.format().name().toLowerCase()
+                + (report.compressed() ? ", gzip" : "") + ")");
+        System.out.printf("Exported %d rows in %.2f s (%.0f rows/s, %.1f MB/s)%n",
+                report.rowsExported(), report.elapsedNanos() / 1e9,
+                report.rowsPerSecond(), report.megabytesPerSecond());
+    }
+
     public void showAvailableTransactions(List<Transaction> transactions) {
         System.out.println("\nAvailable transactions:");
         transactions.forEach(System.out::println);
@@ -1,17 +1,29 @@
 package com.fintracker.controller;
 
+import com.fintracker.exporter.BinaryTransactionReader;
+import com.fintracker.exporter.TransactionExporter;
+import com.fintracker.importer.CsvTransactionImporter;
 import com.fintracker.model.Transaction;
 import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.server.TransactionHttpServer;
+import com.fintracker.service.AsyncTransactionService;
 import com.fintracker.service.TransactionService;
 
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Scanner;
 
 public class FinanceController {
+    private static final int RELOAD_BATCH_SIZE = 5000;
     private final TransactionService service;
     private final ConsoleDisplay display;
     private final UserInputHandler inputHandler;
@@ -21,22 +33,21 @@ public class FinanceController {
         this.dbConfig = new DatabaseConfig();
         this.service = new TransactionService(dbConfig);
         this.display = new ConsoleDisplay();
-        this.inputHandler = new UserInputHandler(new Scanner(System.in), display);
+        this.inputHandler = new UserInputHandler(new Scanner(System.in), display, service::getCategories);
 
     }
 
     public void start() {
-        convertExistingTransactionTypesToLowerCase();
-
         Map<Integer, Runnable> actions = Map.of(
                 1, this::addTransaction,
                 2, this::displayTransactions,
                 3, this::deleteTransaction,
                 4, this::editTransaction,
                 5, this::filterTransactions,
-                6, () -> {
+                6, this::displayMonthlySummaries,
+                7, () -> {
                     display.showMessage("Goodbye!");
-                    dbConfig.closeConnection(); // Закрываем соединение при выходе
+                    shutdown(); // Закрываем соединение при выходе
                     System.exit(0);
                 }
         );
@@ -48,31 +59,108 @@ public class FinanceController {
                 inputHandler.readStringInput("");
 
                 actions.getOrDefault(opt, () -> display
-                        .showMessage("Invalid option. Please enter a number between 1 and 6.")).run();
+                        .showMessage("Invalid option. Please enter a number between 1 and 7.")).run();
             }
         } catch (Exception e) {
             display.showMessage("An error occurred: " + e.getMessage());
-            dbConfig.closeConnection(); // Закрываем соединение в случае ошибки
+            shutdown(); // Закрываем соединение в случае ошибки
         }
     }
 
-    private void convertExistingTransactionTypesToLowerCase() {
-        List<Transaction> transactions = service.getAllTransactions();
-        for (Transaction transaction : transactions) {
-            String type = transaction.getType();
-            if (type != null && (type.equals("INCOME") || type.equals("EXPENSE"))) {
-                transaction.setType(type.toLowerCase());
-                service.updateTransaction(transaction);
+    public void verifyRollups() {
+        display.displayRollupVerification(service.verifyRollups());
+        shutdown();
+    }
+
+    public void rebuildRollups() {
+        display.displayRollupVerification(service.rebuildRollups());
+        display.showMessage("Rollups rebuilt from transactions.");
+        shutdown();
+    }
+
+    // Safe to rerun: years already archived are skipped and an interrupted year is finished
+    public void archiveThrough(int year) {
+        try {
+            display.displayArchiveReports(service.archiveClosedYears(year));
+        } finally {
+            shutdown();
+        }
+    }
+
+    // A failed import keeps its checkpoint; running the same command again resumes it.
+    // Binary exports (.ftx, .ftx.gz) are reloaded as they are; they are only written by --export.
+    public void importTransactions(String file) {
+        try {
+            Path path = Path.of(file);
+            if (isBinaryExport(path)) {
+                reloadBinaryExport(path);
+                return;
             }
+            CsvTransactionImporter importer = new CsvTransactionImporter(service, CsvTransactionImporter.Settings.defaults());
+            display.displayImportReport(importer.importFile(path));
+        } finally {
+            shutdown();
         }
-        display.showMessage("Converted existing transaction types to lowercase.");
+    }
+
+    // Runs until the JVM is stopped; the shutdown hook drains requests and queued writes before closing the pool
+    public void serve(int port) {
+        AsyncTransactionService async = new AsyncTransactionService(service, dbConfig);
+        TransactionHttpServer server = new TransactionHttpServer(async, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            async.close();
+            shutdown();
+        }, "fintracker-server-shutdown"));
+        server.start();
+        display.showMessage("Serving the JSON API on http://localhost:" + server.getPort() + "/transactions (Ctrl+C to stop)");
+    }
+
+    // Both dates are whole days and inclusive; null leaves that side open
+    public void exportTransactions(String file, String type, String category, LocalDate from, LocalDate to) {
+        try {
+            TransactionExporter exporter = new TransactionExporter(service);
+            display.displayExportReport(exporter.export(Path.of(file), type, category,
+                    from == null ? null : from.atStartOfDay(), to == null ? null : to.atTime(LocalTime.MAX)));
+        } finally {
+            shutdown();
+        }
+    }
+
+    // Flushes queued writes before the pool they need is closed
+    private void shutdown() {
+        service.close();
+        dbConfig.closeConnection();
+    }
+
+    private static boolean isBinaryExport(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ftx") || name.endsWith(".ftx.gz");
+    }
+
+    // Rows get new ids; each batch is one transaction, so memory stays bounded by the batch size
+    private void reloadBinaryExport(Path file) {
+        long start = System.nanoTime();
+        List<Transaction> batch = new ArrayList<>(RELOAD_BATCH_SIZE);
+        long rows = BinaryTransactionReader.forEach(file, transaction -> {
+            batch.add(transaction);
+            if (batch.size() == RELOAD_BATCH_SIZE) {
+                service.addTransactions(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            service.addTransactions(batch);
+        }
+        display.showMessage(String.format("Reloaded %d rows from %s in %.2f s", rows, file,
+                (System.nanoTime() - start) / 1e9));
     }
 
     private void addTransaction() {
         String type = inputHandler.readType();
         if (type == null) return;
 
-        Double amount = inputHandler.readAmount();
+        Long amount = inputHandler.readAmount();
         if (amount == null) return;
 
         String category = inputHandler.readCategory();
@@ -198,7 +286,7 @@ public class FinanceController {
             return collectUpdatedTransactionData(transaction);
         }
 
-        Double amount = inputHandler.readUpdatedAmount(transaction.getAmount());
+        Long amount = inputHandler.readUpdatedAmount(transaction.getAmount());
         if (amount == null) return null;
 
         String category = inputHandler.readUpdatedCategory(transaction.getCategory());
@@ -230,17 +318,27 @@ public class FinanceController {
             return;
         }
 
-        String category = inputHandler.readStringInput("Filter by category (ex. FOOD, or press Enter to skip): ").toUpperCase();
+        // A prefix or a misspelling is enough; it expands to every close category
+        String categoryQuery = inputHandler.readStringInput("Filter by category (ex. FOOD or FO, or press Enter to skip): ");
+        List<String> categories = null;
+        if (!categoryQuery.isBlank()) {
+            categories = service.resolveCategoryQuery(categoryQuery);
+            if (categories.isEmpty()) {
+                display.showMessage("No category matches '" + categoryQuery + "'.");
+                return;
+            }
+            if (categories.size() > 1 || !categories.get(0).equalsIgnoreCase(categoryQuery.trim())) {
+                display.showMessage("Matching categories: " + String.join(", ", categories));
+            }
+        }
 
         LocalDateTime startDate = readFilterDate("Start date (yyyy-MM-dd HH:mm:ss, or press Enter to skip): ");
         LocalDateTime endDate = readFilterDate("End date (yyyy-MM-dd HH:mm:ss, or press Enter to skip): ");
 
-        List<Transaction> filtered = service.getTransactionsByFilter(
-                type.isEmpty() ? null : type,
-                category.isEmpty() ? null : category,
-                startDate,
-                endDate
-        );
+        String typeFilter = type.isEmpty() ? null : type;
+        List<Transaction> filtered = categories == null
+                ? service.getTransactionsByFilter(typeFilter, null, startDate, endDate)
+                : service.getTransactionsByCategories(typeFilter, categories, startDate, endDate);
         display.displayFilteredTransactions(filtered);
     }
 
@@ -259,4 +357,8 @@ public class FinanceController {
         display.displayTransactions(service.getAllTransactions());
     }
 
+    private void displayMonthlySummaries() {
+        display.displayMonthlySummaries(service.getBalance(), service.getMonthlySummaries(null, null));
+    }
+
 }
\ No newline at end of file
@@ -1,22 +1,26 @@
 package com.fintracker.controller;
 
+import com.fintracker.model.Money;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
 public class UserInputHandler {
     private final Scanner scanner;
-    private final List<String> predefinedCategories = Arrays.asList("FOOD", "TRANSPORT", "ENTERTAINMENT", "BILLS", "SALARY", "OTHER");
+    // Read on every prompt so categories created since the last prompt are offered too
+    private final Supplier<List<String>> knownCategories;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final ConsoleDisplay display;
 
-    public UserInputHandler(Scanner scanner, ConsoleDisplay display) {
+    public UserInputHandler(Scanner scanner, ConsoleDisplay display, Supplier<List<String>> knownCategories) {
         this.scanner = scanner;
         this.display = display;
+        this.knownCategories = knownCategories;
     }
 
     public String readType() {
@@ -29,27 +33,28 @@ public class UserInputHandler {
         }
     }
 
-    public Double readAmount() {
+    public Long readAmount() {
         while (true) {
             System.out.print("Sum or 'cancel' to abort: ");
             String input = scanner.nextLine().trim();
             if (input.equalsIgnoreCase("cancel")) return null;
             try {
-                double amount = Double.parseDouble(input);
+                long amount = Money.parse(input);
                 if (amount < 0) {
                     System.out.println("Error: Amount cannot be negative.");
                     continue;
                 }
                 return amount;
             } catch (NumberFormatException e) {
-                System.out.println("Error: Please enter a valid number.");
+                System.out.println("Error: Please enter a valid amount with at most " + Money.SCALE + " decimal places.");
             }
         }
     }
 
     public String readCategory() {
         while (true) {
-            System.out.println("Available categories: " + predefinedCategories);
+            List<String> categories = knownCategories.get();
+            System.out.println("Available categories: " + categories);
             System.out.print("Category (choose from list or enter custom) or 'cancel' to abort: ");
             String category = scanner.nextLine().trim().toUpperCase();
             if (category.equalsIgnoreCase("cancel")) return null;
@@ -57,8 +62,8 @@ public class UserInputHandler {
                 System.out.println("Error: Category cannot be empty.");
                 continue;
             }
-            if (!predefinedCategories.contains(category)) {
-                System.out.print("Category '" + category + "' is not in the predefined list. Use it anyway? (yes/no): ");
+            if (!categories.contains(category)) {
+                System.out.print("Category '" + category + "' is not in the list of known categories. Use it anyway? (yes/no): ");
                 String confirmation = scanner.nextLine().trim().toLowerCase();
                 if (confirmation.equals("yes")) return category;
             } else {
@@ -80,8 +85,8 @@ public class UserInputHandler {
             display.showMessage("Please try again or enter 'cancel' to abort.");
             return readUpdatedCategory(currentCategory);
         }
-        if (!predefinedCategories.contains(categoryInput)) {
-            String confirmation = readConfirmation("Category '" + categoryInput + "' is not in the predefined list. Use it anyway? (yes/no): ");
+        if (!knownCategories.get().contains(categoryInput)) {
+            String confirmation = readConfirmation("Category '" + categoryInput + "' is not in the list of known categories. Use it anyway? (yes/no): ");
             if (confirmation.equals("yes")) return categoryInput;
             display.showMessage("Please try again or enter 'cancel' to abort.");
             return readUpdatedCategory(currentCategory);
@@ -124,15 +129,15 @@ public class UserInputHandler {
         return scanner.nextLine().trim().toLowerCase();
     }
 
-    public Double readUpdatedAmount(double currentAmount) {
-        String amountInput = readStringInput("Enter new amount or press Enter to keep current [" + currentAmount + "]: ");
+    public Long readUpdatedAmount(long currentAmount) {
+        String amountInput = readStringInput("Enter new amount or press Enter to keep current [" + Money.format(currentAmount) + "]: ");
         if (amountInput.isEmpty()) return currentAmount;
         if (amountInput.equalsIgnoreCase("cancel")) {
             display.showMessage("Edit cancelled.");
             return null;
         }
         try {
-            double amount = Double.parseDouble(amountInput);
+            long amount = Money.parse(amountInput);
             if (amount < 0) {
                 display.showError("Amount cannot be negative.");
                 display.showMessage("Please try again or enter 'cancel' to abort.");
@@ -140,7 +145,7 @@ public class UserInputHandler {
             }
             return amount;
         } catch (NumberFormatException e) {
-            display.showError("Please enter a valid number.");
+            display.showError("Please enter a valid amount with at most " + Money.SCALE + " decimal places.");
             display.showMessage("Please try again or enter 'cancel' to abort.");
             return readUpdatedAmount(currentAmount);
         }
@@ -0,0 +1,75 @@
+package com.fintracker.exporter;
+
+import com.fintracker.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+// File: "FTX" followed by a version byte, then records until end of file. Each record is an int length
+// followed by that many bytes: long id, long date (epoch second of the local date-time read as UTC),
+// long amount in minor units, byte type (1 income, 0 expense), short category length and UTF-8 category.
+final class BinaryTransactionFormat implements TransactionEncoder {
+    static final byte[] MAGIC = {'F', 'T', 'X', 1};
+    static final int FIXED_RECORD_BYTES = 8 + 8 + 8 + 1 + 2;
+    static final int MAX_RECORD_BYTES = FIXED_RECORD_BYTES + 0xFFFF;
+    static final String INCOME = "income";
+    static final String EXPENSE = "expense";
+
+    private final Map<String, byte[]> encodedCategories = new HashMap<>();
+
+    @Override
+    public void writeHeader(ByteBuffer out) {
+        out.put(MAGIC);
+    }
+
+    @Override
+    public int maxEncodedSize(Transaction transaction) {
+        return Integer.BYTES + FIXED_RECORD_BYTES + category(transaction.getCategory()).length;
+    }
+
+    @Override
+    public void encode(Transaction transaction, ByteBuffer out) {
+        byte[] category = category(transaction.getCategory());
+        out.putInt(FIXED_RECORD_BYTES + category.length);
+        out.putLong(transaction.getId());
+        out.putLong(transaction.getDate().toEpochSecond(ZoneOffset.UTC));
+        out.putLong(transaction.getAmount());
+        out.put(INCOME.equals(transaction.getType()) ? (byte) 1 : (byte) 0);
+        out.putShort((short) category.length);
+        out.put(category);
+    }
+
+    // Reads one record body; the caller has already consumed the length prefix
+    static Transaction decode(ByteBuffer in, int length, Map<String, String> categories) {
+        long id = in.getLong();
+        LocalDateTime date = LocalDateTime.ofEpochSecond(in.getLong(), 0, ZoneOffset.UTC);
+        long amount = in.getLong();
+        String type = in.get() == 1 ? INCOME : EXPENSE;
+        int categoryLength = Short.toUnsignedInt(in.getShort());
+        if (categoryLength != length - FIXED_RECORD_BYTES) {
+            throw new IllegalStateException("Corrupt record: length " + length + " does not match category length "
+                    + categoryLength);
+        }
+        byte[] bytes = new byte[categoryLength];
+        in.get(bytes);
+        String category = categories.computeIfAbsent(new String(bytes, StandardCharsets.UTF_8), name -> name);
+        return new Transaction(id, type, amount, category, date);
+    }
+
+    private byte[] category(String name) {
+        byte[] bytes = encodedCategories.get(name);
+        if (bytes == null) {
+            bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Category is longer than 65535 bytes: " + name.substring(0, 32) + "...");
+            }
+            encodedCategories.put(name, bytes);
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.fintracker.exporter;
+
+import com.fintracker.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+// Reads files written by TransactionExporter in the binary format, gzipped or not, one record at a time
+public final class BinaryTransactionReader {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryTransactionReader.class);
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private BinaryTransactionReader() {
+    }
+
+    // Returns the number of records passed to action. Ids are the ones the rows had when exported.
+    public static long forEach(Path file, Consumer<? super Transaction> action) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             ReadableByteChannel in = open(channel)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).limit(0);
+            Map<String, String> categories = new HashMap<>();
+            if (!fill(in, buffer, BinaryTransactionFormat.MAGIC.length)) {
+                throw new IOException(file + " is empty");
+            }
+            byte[] magic = new byte[BinaryTransactionFormat.MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, BinaryTransactionFormat.MAGIC)) {
+                throw new IOException(file + " is not a transaction export or was written by a newer version");
+            }
+
+            long count = 0;
+            while (fill(in, buffer, Integer.BYTES)) {
+                int length = buffer.getInt();
+                if (length < BinaryTransactionFormat.FIXED_RECORD_BYTES || length > BinaryTransactionFormat.MAX_RECORD_BYTES) {
+                    throw new IOException("Corrupt record " + (count + 1) + " in " + file + ": length " + length);
+                }
+                if (!fill(in, buffer, length)) {
+                    throw new IOException(file + " is truncated inside record " + (count + 1));
+                }
+                action.accept(BinaryTransactionFormat.decode(buffer, length, categories));
+                count++;
+            }
+            return count;
+        } catch (IOException | IllegalStateException e) {
+            logger.error("Failed to read transactions from {}", file, e);
+            throw new RuntimeException("Failed to read transactions from " + file, e);
+        }
+    }
+
+    // Detects gzip by its magic number rather than the file name
+    private static ReadableByteChannel open(FileChannel channel) throws IOException {
+        PushbackInputStream stream = new PushbackInputStream(Channels.newInputStream(channel), 2);
+        byte[] head = stream.readNBytes(2);
+        stream.unread(head);
+        boolean gzip = head.length == 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B;
+        InputStream in = gzip ? new GZIPInputStream(stream, BUFFER_BYTES) : stream;
+        return Channels.newChannel(in);
+    }
+
+    // Ensures at least count unread bytes are buffered. False only at a clean end of file (nothing left at all).
+    private static boolean fill(ReadableByteChannel in, ByteBuffer buffer, int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return true;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < count) {
+                if (in.read(buffer) < 0) {
+                    if (buffer.position() == 0) {
+                        return false;
+                    }
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.fintracker.exporter;
+
+import com.fintracker.model.Money;
+import com.fintracker.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Same "date,type,amount,category" layout CsvTransactionImporter reads, so exports can be imported again
+final class CsvTransactionEncoder implements TransactionEncoder {
+    private static final byte[] HEADER = "date,type,amount,category\n".getBytes(StandardCharsets.US_ASCII);
+    // yyyy-MM-dd HH:mm:ss, a type, a long amount and four separators
+    private static final int FIXED_ROW_BYTES = 19 + 7 + 22 + 4;
+
+    private final StringBuilder amount = new StringBuilder(24);
+    private final Map<String, byte[]> encodedTexts = new HashMap<>();
+
+    @Override
+    public void writeHeader(ByteBuffer out) {
+        out.put(HEADER);
+    }
+
+    @Override
+    public int maxEncodedSize(Transaction transaction) {
+        return FIXED_ROW_BYTES + encoded(transaction.getCategory()).length;
+    }
+
+    @Override
+    public void encode(Transaction transaction, ByteBuffer out) {
+        LocalDateTime date = transaction.getDate();
+        putDigits(out, date.getYear(), 4);
+        out.put((byte) '-');
+        putDigits(out, date.getMonthValue(), 2);
+        out.put((byte) '-');
+        putDigits(out, date.getDayOfMonth(), 2);
+        out.put((byte) ' ');
+        putDigits(out, date.getHour(), 2);
+        out.put((byte) ':');
+        putDigits(out, date.getMinute(), 2);
+        out.put((byte) ':');
+        putDigits(out, date.getSecond(), 2);
+        out.put((byte) ',');
+        out.put(encoded(transaction.getType()));
+        out.put((byte) ',');
+        amount.setLength(0);
+        Money.format(transaction.getAmount(), amount);
+        for (int i = 0; i < amount.length(); i++) {
+            out.put((byte) amount.charAt(i));
+        }
+        out.put((byte) ',');
+        out.put(encoded(transaction.getCategory()));
+        out.put((byte) '\n');
+    }
+
+    private static void putDigits(ByteBuffer out, int value, int width) {
+        int position = out.position();
+        for (int i = width - 1; i >= 0; i--) {
+            out.put(position + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        out.position(position + width);
+    }
+
+    // Types and categories repeat across rows, so each distinct value is quoted and encoded once
+    private byte[] encoded(String text) {
+        byte[] bytes = encodedTexts.get(text);
+        if (bytes == null) {
+            bytes = quoteIfNeeded(text).getBytes(StandardCharsets.UTF_8);
+            encodedTexts.put(text, bytes);
+        }
+        return bytes;
+    }
+
+    private static String quoteIfNeeded(String text) {
+        boolean needsQuotes = !text.isEmpty() && (text.charAt(0) == ' ' || text.charAt(text.length() - 1) == ' ');
+        for (int i = 0; i < text.length() && !needsQuotes; i++) {
+            char c = text.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return needsQuotes ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.fintracker.exporter;
+
+import com.fintracker.model.Transaction;
+
+import java.nio.ByteBuffer;
+
+// Writes rows straight into the export buffer; implementations keep their scratch state between rows
+interface TransactionEncoder {
+
+    void writeHeader(ByteBuffer out);
+
+    // Upper bound on the bytes encode() will write for this row, so the caller can flush first
+    int maxEncodedSize(Transaction transaction);
+
+    void encode(Transaction transaction, ByteBuffer out);
+
+}
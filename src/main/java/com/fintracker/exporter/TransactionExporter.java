@@ -0,0 +1,137 @@
+package com.fintracker.exporter;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+// Streams a filtered query from the database cursor into a file. Rows are encoded one at a time into a single
+// reusable buffer that is flushed to the channel whenever it fills, so memory stays flat however many rows match.
+// The format follows the file name: .csv or .ftx (binary), with an optional .gz suffix for gzip compression.
+public class TransactionExporter {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExporter.class);
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private final TransactionService service;
+
+    public enum Format {
+        CSV, BINARY;
+
+        public static Format forFile(Path file) {
+            String name = baseName(file);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ftx")) {
+                return BINARY;
+            }
+            throw new IllegalArgumentException("Unknown export format for " + file + " (expected .csv, .ftx, .csv.gz or .ftx.gz)");
+        }
+    }
+
+    public record ExportReport(Path file, Format format, boolean compressed, long rowsExported, long bytesWritten,
+                               long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rowsExported * 1e9 / elapsedNanos;
+        }
+
+        // bytesWritten counts encoded bytes before compression
+        public double megabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytesWritten / (1024.0 * 1024.0) * 1e9 / elapsedNanos;
+        }
+    }
+
+    public TransactionExporter(TransactionService service) {
+        this.service = service;
+    }
+
+    public ExportReport export(Path file, String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        Format format = Format.forFile(file);
+        boolean compressed = isCompressed(file);
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             WritableByteChannel out = compressed
+                     ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES))
+                     : channel) {
+            Writer writer = new Writer(out, format == Format.CSV ? new CsvTransactionEncoder() : new BinaryTransactionFormat());
+            try {
+                service.forEachTransactionByFilter(type, category, startDate, endDate, writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+
+            ExportReport report = new ExportReport(file, format, compressed, writer.rows, writer.bytes,
+                    System.nanoTime() - start);
+            logger.info("Exported {} rows to {}: {} rows/s, {} MB/s", report.rowsExported(), file,
+                    Math.round(report.rowsPerSecond()), String.format("%.1f", report.megabytesPerSecond()));
+            return report;
+        } catch (IOException e) {
+            logger.error("Failed to export transactions to {}", file, e);
+            throw new RuntimeException("Failed to export transactions to " + file, e);
+        }
+    }
+
+    static boolean isCompressed(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+
+    private static final class Writer {
+        private final WritableByteChannel out;
+        private final TransactionEncoder encoder;
+        // Direct so FileChannel writes skip the copy into a temporary native buffer
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private long rows;
+        private long bytes;
+
+        private Writer(WritableByteChannel out, TransactionEncoder encoder) {
+            this.out = out;
+            this.encoder = encoder;
+            encoder.writeHeader(buffer);
+        }
+
+        private void write(Transaction transaction) {
+            try {
+                if (buffer.remaining() < encoder.maxEncodedSize(transaction)) {
+                    drain();
+                }
+                encoder.encode(transaction, buffer);
+                rows++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            bytes += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+}
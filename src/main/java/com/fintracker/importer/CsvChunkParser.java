@@ -0,0 +1,272 @@
+package com.fintracker.importer;
+
+import com.fintracker.model.Money;
+import com.fintracker.model.Transaction;
+import com.fintracker.validator.TransactionValidator;
+import com.fintracker.validator.ValidationRule;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Parses one line-aligned chunk of "date,type,amount,category" rows straight from the mapped bytes.
+// Rows dated up to readOnlyThroughYear are archived and reported as errors like invalid rows.
+// Not thread-safe; each parser task creates its own instance.
+final class CsvChunkParser {
+    static final int FIELD_COUNT = 4;
+    private static final String INCOME = "income";
+    private static final String EXPENSE = "expense";
+
+    private final ByteBuffer buffer;
+    private final long baseOffset;
+    private final int readOnlyThroughYear;
+    private final int[] fieldStarts = new int[FIELD_COUNT + 1];
+    private final int[] fieldEnds = new int[FIELD_COUNT + 1];
+    private final boolean[] fieldEscaped = new boolean[FIELD_COUNT + 1];
+    private final AsciiSlice slice = new AsciiSlice();
+    private final Map<String, String> categories = new HashMap<>();
+
+    record ChunkError(int line, String message) {
+    }
+
+    // rowLines and rowEndOffsets are parallel to rows: 1-based line within the chunk, and absolute file offset after the row
+    record ParsedChunk(long endOffset, int lineCount, List<Transaction> rows, int[] rowLines, long[] rowEndOffsets,
+                       List<ChunkError> errors) {
+    }
+
+    CsvChunkParser(ByteBuffer buffer, long baseOffset, int readOnlyThroughYear) {
+        this.buffer = buffer;
+        this.baseOffset = baseOffset;
+        this.readOnlyThroughYear = readOnlyThroughYear;
+    }
+
+    ParsedChunk parse(boolean mayStartWithHeader) {
+        int limit = buffer.limit();
+        List<Transaction> rows = new ArrayList<>();
+        List<ChunkError> errors = new ArrayList<>();
+        int[] rowLines = new int[64];
+        long[] rowEndOffsets = new long[64];
+        int line = 0;
+        int position = 0;
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd < limit ? lineEnd + 1 : lineEnd;
+            int contentEnd = lineEnd > position && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            line++;
+            if (contentEnd > position && !(line == 1 && mayStartWithHeader && isHeader(position, contentEnd))) {
+                try {
+                    Transaction transaction = parseRow(position, contentEnd);
+                    String violation = violation(transaction);
+                    if (violation != null) {
+                        errors.add(new ChunkError(line, violation));
+                    } else {
+                        if (rows.size() == rowLines.length) {
+                            rowLines = Arrays.copyOf(rowLines, rowLines.length * 2);
+                            rowEndOffsets = Arrays.copyOf(rowEndOffsets, rowEndOffsets.length * 2);
+                        }
+                        rowLines[rows.size()] = line;
+                        rowEndOffsets[rows.size()] = baseOffset + next;
+                        rows.add(transaction);
+                    }
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    errors.add(new ChunkError(line, e.getMessage()));
+                }
+            }
+            position = next;
+        }
+        return new ParsedChunk(baseOffset + limit, line, rows, rowLines, rowEndOffsets, errors);
+    }
+
+    // The first reason the row cannot be imported, or null when it can
+    private String violation(Transaction transaction) {
+        ValidationRule rule = TransactionValidator.check(transaction);
+        if (rule != null) {
+            return rule.message();
+        }
+        return TransactionValidator.checkArchived(transaction.getDate(), readOnlyThroughYear);
+    }
+
+    private boolean isHeader(int start, int end) {
+        return end - start >= 4 && (buffer.get(start) | 0x20) == 'd' && (buffer.get(start + 1) | 0x20) == 'a'
+                && (buffer.get(start + 2) | 0x20) == 't' && (buffer.get(start + 3) | 0x20) == 'e';
+    }
+
+    private Transaction parseRow(int start, int end) {
+        int fields = split(start, end);
+        if (fields != FIELD_COUNT) {
+            throw new IllegalArgumentException("Expected " + FIELD_COUNT + " fields (date,type,amount,category) but found "
+                    + (fields > FIELD_COUNT ? "more" : String.valueOf(fields)));
+        }
+        LocalDateTime date = parseDate(fieldStarts[0], fieldEnds[0]);
+        String type = parseType(fieldStarts[1], fieldEnds[1]);
+        long amount = Money.parse(slice.reset(fieldStarts[2], fieldEnds[2]));
+        String category = parseCategory(fieldStarts[3], fieldEnds[3], fieldEscaped[3]);
+        return new Transaction(0L, type, amount, category, date);
+    }
+
+    // Splits on commas outside double quotes; quoted fields exclude their quotes and may contain "" escapes
+    private int split(int start, int end) {
+        int count = 0;
+        int position = start;
+        while (true) {
+            if (count == fieldStarts.length) {
+                return count + 1;
+            }
+            while (position < end && buffer.get(position) == ' ') {
+                position++;
+            }
+            boolean escaped = false;
+            int fieldStart;
+            int fieldEnd;
+            if (position < end && buffer.get(position) == '"') {
+                fieldStart = ++position;
+                while (true) {
+                    if (position >= end) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (buffer.get(position) == '"') {
+                        if (position + 1 < end && buffer.get(position + 1) == '"') {
+                            escaped = true;
+                            position += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                fieldEnd = position++;
+                while (position < end && buffer.get(position) != ',') {
+                    position++;
+                }
+            } else {
+                fieldStart = position;
+                while (position < end && buffer.get(position) != ',') {
+                    position++;
+                }
+                fieldEnd = position;
+                while (fieldEnd > fieldStart && buffer.get(fieldEnd - 1) == ' ') {
+                    fieldEnd--;
+                }
+            }
+            fieldStarts[count] = fieldStart;
+            fieldEnds[count] = fieldEnd;
+            fieldEscaped[count] = escaped;
+            count++;
+            if (position >= end) {
+                return count;
+            }
+            position++;
+        }
+    }
+
+    // yyyy-MM-dd, optionally followed by ' ' or 'T' and HH:mm:ss
+    private LocalDateTime parseDate(int start, int end) {
+        int length = end - start;
+        if ((length != 10 && length != 19) || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+                || (length == 19 && (buffer.get(start + 13) != ':' || buffer.get(start + 16) != ':'
+                || (buffer.get(start + 10) != ' ' && buffer.get(start + 10) != 'T')))) {
+            throw new IllegalArgumentException("Invalid date '" + text(start, end) + "': expected yyyy-MM-dd HH:mm:ss");
+        }
+        int year = digits(start, 4, start, end);
+        int month = digits(start + 5, 2, start, end);
+        int day = digits(start + 8, 2, start, end);
+        if (length == 10) {
+            return LocalDateTime.of(year, month, day, 0, 0);
+        }
+        return LocalDateTime.of(year, month, day, digits(start + 11, 2, start, end),
+                digits(start + 14, 2, start, end), digits(start + 17, 2, start, end));
+    }
+
+    private int digits(int position, int count, int fieldStart, int fieldEnd) {
+        int value = 0;
+        for (int i = position; i < position + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid date '" + text(fieldStart, fieldEnd) + "': expected yyyy-MM-dd HH:mm:ss");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // The two valid types map to shared constants; anything else is kept so the validator reports it
+    private String parseType(int start, int end) {
+        if (equalsIgnoreCase(start, end, INCOME)) {
+            return INCOME;
+        }
+        if (equalsIgnoreCase(start, end, EXPENSE)) {
+            return EXPENSE;
+        }
+        return text(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private boolean equalsIgnoreCase(int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if ((buffer.get(start + i) | 0x20) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Upper-cased like console input; repeated names share one String per chunk
+    private String parseCategory(int start, int end, boolean escaped) {
+        String raw = text(start, end);
+        if (escaped) {
+            raw = raw.replace("\"\"", "\"");
+        }
+        return categories.computeIfAbsent(raw, name -> name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Reusable view of an ASCII field, so amounts parse without creating a String per row
+    private final class AsciiSlice implements CharSequence {
+        private int start;
+        private int end;
+
+        private AsciiSlice reset(int start, int end) {
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return text(start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return text(start, end);
+        }
+    }
+
+}
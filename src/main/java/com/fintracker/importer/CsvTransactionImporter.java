@@ -0,0 +1,241 @@
+package com.fintracker.importer;
+
+import com.fintracker.model.ImportCheckpoint;
+import com.fintracker.model.Transaction;
+import com.fintracker.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Imports "date,type,amount,category" CSV files. A reader thread maps the file in line-aligned chunks,
+// a parser pool turns chunks into validated rows, and the calling thread writes them in batches.
+// The bounded queue between reader and writer keeps at most queueDepth chunks in flight.
+// Invalid rows and rows dated in archived years are skipped and reported as RowErrors.
+// Each batch commits together with the file position after it, so an interrupted import resumes exactly there.
+public class CsvTransactionImporter {
+    private static final Logger logger = LoggerFactory.getLogger(CsvTransactionImporter.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Future<CsvChunkParser.ParsedChunk> END_OF_FILE = CompletableFuture.completedFuture(null);
+
+    private final TransactionService service;
+    private final Settings settings;
+
+    public record Settings(int chunkBytes, int parserThreads, int queueDepth, int batchSize) {
+        public Settings {
+            if (chunkBytes <= 0 || parserThreads <= 0 || queueDepth <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Import settings must all be positive");
+            }
+        }
+
+        // One core is left for the writer, which also drives the database. Each batch is one transaction.
+        public static Settings defaults() {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            return new Settings(8 * 1024 * 1024, threads, threads * 2, 5000);
+        }
+    }
+
+    public record RowError(long line, String message) {
+    }
+
+    // errors holds at most the first MAX_REPORTED_ERRORS; errorCount counts them all
+    public record ImportReport(Path file, long resumedFromLine, long bytesRead, long rowsImported, long errorCount,
+                               List<RowError> errors, long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rowsImported * 1e9 / elapsedNanos;
+        }
+
+        public double megabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytesRead / (1024.0 * 1024.0) * 1e9 / elapsedNanos;
+        }
+    }
+
+    public CsvTransactionImporter(TransactionService service, Settings settings) {
+        this.service = service;
+        this.settings = settings;
+    }
+
+    public ImportReport importFile(Path file) {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            String source = file.toAbsolutePath().normalize().toString();
+            ImportCheckpoint checkpoint = service.findImportCheckpoint(source);
+            if (checkpoint != null && (checkpoint.fileSize() != size || checkpoint.fileModifiedMillis() != modified)) {
+                logger.warn("Ignoring import checkpoint for {}: the file changed since it was written", file);
+                checkpoint = null;
+            }
+            if (checkpoint != null) {
+                logger.info("Resuming import of {} after line {} ({} rows already imported)",
+                        file, checkpoint.line(), checkpoint.imported());
+            }
+            Run run = new Run(file, source, size, modified, checkpoint);
+            run.execute(channel);
+            service.clearImportCheckpoint(source);
+
+            ImportReport report = new ImportReport(file, checkpoint == null ? 0 : checkpoint.line(),
+                    size - run.startOffset, run.imported, run.errorCount, run.errors, System.nanoTime() - start);
+            logger.info("Imported {} rows from {} with {} errors: {} rows/s, {} MB/s", report.rowsImported(), file,
+                    report.errorCount(), Math.round(report.rowsPerSecond()), String.format("%.1f", report.megabytesPerSecond()));
+            return report;
+        } catch (IOException e) {
+            logger.error("Failed to import transactions from {}", file, e);
+            throw new RuntimeException("Failed to import transactions from " + file, e);
+        }
+    }
+
+    // State for a single import; the writer side runs on the calling thread only
+    private final class Run {
+        private final Path file;
+        private final String source;
+        private final long size;
+        private final long modified;
+        private final long startOffset;
+        private final long importedBefore;
+        private final List<Transaction> batch = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long lineBase;
+        private long imported;
+        private long errorCount;
+        private long batchEndOffset;
+        private long batchEndLine;
+
+        private Run(Path file, String source, long size, long modified, ImportCheckpoint checkpoint) {
+            this.file = file;
+            this.source = source;
+            this.size = size;
+            this.modified = modified;
+            this.startOffset = checkpoint == null ? 0 : checkpoint.offset();
+            this.importedBefore = checkpoint == null ? 0 : checkpoint.imported();
+            this.lineBase = checkpoint == null ? 0 : checkpoint.line();
+        }
+
+        private void execute(FileChannel channel) throws IOException {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService parsers = Executors.newFixedThreadPool(settings.parserThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "fintracker-import-parser-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            BlockingQueue<Future<CsvChunkParser.ParsedChunk>> pending = new ArrayBlockingQueue<>(settings.queueDepth());
+            Thread reader = new Thread(() -> readChunks(channel, parsers, pending), "fintracker-import-reader");
+            reader.setDaemon(true);
+            reader.start();
+            try {
+                while (true) {
+                    CsvChunkParser.ParsedChunk chunk = pending.take().get();
+                    if (chunk == null) {
+                        break;
+                    }
+                    write(chunk);
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while importing " + file, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException io) {
+                    throw io;
+                }
+                throw new IOException("Failed to parse " + file, cause);
+            } finally {
+                reader.interrupt();
+                parsers.shutdownNow();
+            }
+        }
+
+        // Chunks are queued in file order, so the writer sees rows and line numbers in order
+        private void readChunks(FileChannel channel, ExecutorService parsers,
+                                BlockingQueue<Future<CsvChunkParser.ParsedChunk>> pending) {
+            try {
+                long position = startOffset;
+                while (position < size) {
+                    long length = Math.min(settings.chunkBytes(), size - position);
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    int chunkLength = (int) length;
+                    if (position + length < size) {
+                        chunkLength = lastLineEnd(mapped, chunkLength);
+                        if (chunkLength == 0) {
+                            throw new IOException("Line at offset " + position + " is longer than the "
+                                    + settings.chunkBytes() + " byte chunk size");
+                        }
+                    }
+                    ByteBuffer chunk = mapped.slice(0, chunkLength);
+                    long baseOffset = position;
+                    // Read per chunk so a year archived mid-import is skipped from then on; the store rejects the rest
+                    int readOnlyThroughYear = service.getReadOnlyThroughYear();
+                    pending.put(parsers.submit(() -> new CsvChunkParser(chunk, baseOffset, readOnlyThroughYear)
+                            .parse(baseOffset == 0)));
+                    position += chunkLength;
+                }
+                pending.put(END_OF_FILE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                try {
+                    pending.put(CompletableFuture.failedFuture(e));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private int lastLineEnd(ByteBuffer buffer, int length) {
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            return 0;
+        }
+
+        private void write(CsvChunkParser.ParsedChunk chunk) {
+            for (CsvChunkParser.ChunkError error : chunk.errors()) {
+                errorCount++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new RowError(lineBase + error.line(), error.message()));
+                }
+                logger.debug("Skipping line {} of {}: {}", lineBase + error.line(), file, error.message());
+            }
+            List<Transaction> rows = chunk.rows();
+            for (int i = 0; i < rows.size(); i++) {
+                batch.add(rows.get(i));
+                batchEndOffset = chunk.rowEndOffsets()[i];
+                batchEndLine = lineBase + chunk.rowLines()[i];
+                if (batch.size() == settings.batchSize()) {
+                    flush();
+                }
+            }
+            lineBase += chunk.lineCount();
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            service.importBatch(batch, new ImportCheckpoint(source, size, modified, batchEndOffset,
+                    batchEndLine, importedBefore + imported + batch.size()));
+            imported += batch.size();
+            batch.clear();
+        }
+    }
+
+}
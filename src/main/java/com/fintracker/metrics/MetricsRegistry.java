@@ -0,0 +1,157 @@
+package com.fintracker.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Owns the OperationMetrics of one DatabaseConfig, registers each as a platform MXBean and, when a dump file is
+// configured, appends a snapshot of every operation that has been called to it at a fixed interval and on close.
+public final class MetricsRegistry implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final String DOMAIN = "com.fintracker";
+
+    private final Settings settings;
+    private final OperationMetrics disabled;
+    private final ConcurrentSkipListMap<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+    private final List<ObjectName> registeredNames = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reporter;
+    private volatile boolean closed;
+
+    // dumpFile may be null; instance distinguishes the MBeans of several databases in one JVM
+    public record Settings(boolean enabled, String instance, Path dumpFile, long dumpIntervalSeconds) {
+        public Settings {
+            if (instance == null || instance.isBlank()) {
+                throw new IllegalArgumentException("Metrics instance name cannot be empty");
+            }
+            if (dumpFile != null && dumpIntervalSeconds <= 0) {
+                throw new IllegalArgumentException("Metrics dump interval must be positive");
+            }
+        }
+    }
+
+    public MetricsRegistry(Settings settings) {
+        this.settings = settings;
+        this.disabled = new OperationMetrics("disabled", "disabled", false);
+        if (settings.enabled() && settings.dumpFile() != null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fintracker-metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(this::dumpQuietly, settings.dumpIntervalSeconds(),
+                    settings.dumpIntervalSeconds(), TimeUnit.SECONDS);
+        } else {
+            reporter = null;
+        }
+    }
+
+    // Repositories created against the same config share the returned instance
+    public OperationMetrics operation(String layer, String name) {
+        if (!settings.enabled()) {
+            return disabled;
+        }
+        return operations.computeIfAbsent(layer + "." + name, key -> {
+            OperationMetrics metrics = new OperationMetrics(layer, name, true);
+            register(metrics);
+            return metrics;
+        });
+    }
+
+    public List<OperationMetrics.Snapshot> snapshot() {
+        List<OperationMetrics.Snapshot> snapshots = new ArrayList<>(operations.size());
+        operations.values().forEach(metrics -> snapshots.add(metrics.snapshot()));
+        return snapshots;
+    }
+
+    public void dump(Path file) throws IOException {
+        StringBuilder report = new StringBuilder();
+        String timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).toString();
+        for (OperationMetrics.Snapshot snapshot : snapshot()) {
+            if (snapshot.calls() == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT,
+                    "%s %s.%s calls=%d errors=%d rows=%d mean_us=%.1f p50_us=%.1f p90_us=%.1f p99_us=%.1f"
+                            + " p999_us=%.1f max_us=%.1f%n",
+                    timestamp, snapshot.layer(), snapshot.name(), snapshot.calls(), snapshot.errors(), snapshot.rows(),
+                    snapshot.meanMicros(), snapshot.p50Micros(), snapshot.p90Micros(), snapshot.p99Micros(),
+                    snapshot.p999Micros(), snapshot.maxMicros()));
+        }
+        if (report.length() > 0) {
+            Files.writeString(file, report, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump(settings.dumpFile());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write metrics to {}", settings.dumpFile(), e);
+        }
+    }
+
+    private void register(OperationMetrics metrics) {
+        if (closed) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=Operation,instance=" + instanceKey()
+                    + ",layer=" + metrics.getLayer() + ",name=" + metrics.getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+            registeredNames.add(objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            logger.warn("Metrics MBean {}.{} already registered for instance {}; set fintracker.metrics.instance "
+                    + "to publish this database separately", metrics.getLayer(), metrics.getName(), settings.instance());
+        } catch (JMException e) {
+            logger.warn("Failed to register metrics MBean {}.{}", metrics.getLayer(), metrics.getName(), e);
+        }
+    }
+
+    // Plain names stay readable in JMX consoles; anything with ObjectName syntax characters gets quoted
+    private String instanceKey() {
+        String instance = settings.instance();
+        return instance.chars().anyMatch(c -> ",=:\"*?\n".indexOf(c) >= 0) ? ObjectName.quote(instance) : instance;
+    }
+
+    // Writes a final dump and unregisters the MBeans
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (reporter != null) {
+            reporter.shutdownNow();
+            dumpQuietly();
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registeredNames) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.warn("Failed to unregister metrics MBean {}", objectName, e);
+            }
+        }
+        registeredNames.clear();
+    }
+
+}
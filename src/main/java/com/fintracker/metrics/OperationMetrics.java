@@ -0,0 +1,155 @@
+package com.fintracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Call count, error count, rows and latency histogram for one repository or service operation.
+// A disabled instance runs the operation without touching the clock or any counter.
+public final class OperationMetrics implements OperationMetricsMXBean {
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final String layer;
+    private final String name;
+    private final boolean enabled;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    public record Snapshot(String layer, String name, long calls, long errors, long rows, double meanMicros,
+                           double p50Micros, double p90Micros, double p99Micros, double p999Micros,
+                           double maxMicros) {
+    }
+
+    OperationMetrics(String layer, String name, boolean enabled) {
+        this.layer = layer;
+        this.name = name;
+        this.enabled = enabled;
+    }
+
+    // rows maps the result to the number of rows it returned or wrote
+    public <T> T call(Supplier<T> operation, ToLongFunction<? super T> rows) {
+        if (!enabled) {
+            return operation.get();
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException | Error e) {
+            failure(start);
+            throw e;
+        }
+        success(start, rows.applyAsLong(result));
+        return result;
+    }
+
+    public void run(Runnable operation, long rows) {
+        if (!enabled) {
+            operation.run();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            operation.run();
+        } catch (RuntimeException | Error e) {
+            failure(start);
+            throw e;
+        }
+        success(start, rows);
+    }
+
+    // For operations that finish on another thread: take start() on the caller, report from the completion
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void success(long startNanos, long rowCount) {
+        if (enabled) {
+            latency.record(System.nanoTime() - startNanos);
+            rows.add(rowCount);
+        }
+    }
+
+    public void failure(long startNanos) {
+        if (enabled) {
+            latency.record(System.nanoTime() - startNanos);
+            errors.increment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Snapshot snapshot() {
+        LatencyHistogram.Snapshot histogram = latency.snapshot();
+        return new Snapshot(layer, name, histogram.count(), errors.sum(), rows.sum(),
+                histogram.meanNanos() / NANOS_PER_MICRO, histogram.p50Nanos() / NANOS_PER_MICRO,
+                histogram.p90Nanos() / NANOS_PER_MICRO, histogram.p99Nanos() / NANOS_PER_MICRO,
+                histogram.p999Nanos() / NANOS_PER_MICRO, histogram.maxNanos() / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public String getLayer() {
+        return layer;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.snapshot().count();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.snapshot().meanNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.snapshot().p50Nanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return latency.snapshot().p90Nanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.snapshot().p99Nanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.snapshot().p999Nanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.snapshot().maxNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public void resetStatistics() {
+        latency.reset();
+        errors.reset();
+        rows.reset();
+    }
+
+}
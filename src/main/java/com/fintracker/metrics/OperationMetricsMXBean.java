@@ -0,0 +1,31 @@
+package com.fintracker.metrics;
+
+// Attributes of one instrumented operation, published as com.fintracker:type=Operation,instance=..,layer=..,name=..
+// Latencies are cumulative since start or the last resetStatistics() call.
+public interface OperationMetricsMXBean {
+
+    String getLayer();
+
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void resetStatistics();
+
+}
@@ -0,0 +1,13 @@
+package com.fintracker.model;
+
+// Read-through cache counters of a store; stores without a cache report it disabled with every count at zero
+public record CacheStats(boolean enabled, long hits, long misses, long evictions, int size, int maxSize) {
+
+    public static final CacheStats DISABLED = new CacheStats(false, 0, 0, 0, 0, 0);
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+}
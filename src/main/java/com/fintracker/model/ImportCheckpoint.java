@@ -0,0 +1,7 @@
+package com.fintracker.model;
+
+// How far an import of one source file has committed. offset is the byte position just after line, the last line
+// whose row is committed; fileSize and fileModifiedMillis identify the file the offset belongs to.
+public record ImportCheckpoint(String source, long fileSize, long fileModifiedMillis, long offset, long line,
+                               long imported) {
+}
@@ -0,0 +1,104 @@
+package com.fintracker.model;
+
+// Amounts are carried as long minor units (cents) so sums are exact. Parsing and formatting work
+// on caller-supplied buffers and never create intermediate objects, for use on ingestion paths.
+public final class Money {
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS = 100;
+
+    private static final long MAX_MAJOR = Long.MAX_VALUE / MINOR_UNITS;
+    private static final String MIN_VALUE_TEXT = "-92233720368547758.08";
+
+    private Money() {
+    }
+
+    public static long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    // Accepts an optional sign, digits and up to SCALE fractional digits, e.g. "12", "-3.5", "0.07"
+    public static long parse(CharSequence text, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Amount is empty");
+        }
+        int i = start;
+        boolean negative = false;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long major = 0;
+        int digits = 0;
+        while (i < end && text.charAt(i) != '.') {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(text, start, end);
+            }
+            if (major > (MAX_MAJOR - digit) / 10) {
+                throw outOfRange(text, start, end);
+            }
+            major = major * 10 + digit;
+            digits++;
+            i++;
+        }
+        long minor = 0;
+        if (i < end) {
+            i++;
+            int scale = 0;
+            while (i < end) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9 || scale == SCALE) {
+                    throw invalid(text, start, end);
+                }
+                minor = minor * 10 + digit;
+                scale++;
+                digits++;
+                i++;
+            }
+            for (; scale < SCALE; scale++) {
+                minor *= 10;
+            }
+        }
+        if (digits == 0) {
+            throw invalid(text, start, end);
+        }
+        if (major == MAX_MAJOR && minor > Long.MAX_VALUE % MINOR_UNITS) {
+            throw outOfRange(text, start, end);
+        }
+        long value = major * MINOR_UNITS + minor;
+        return negative ? -value : value;
+    }
+
+    public static String format(long minorUnits) {
+        StringBuilder out = new StringBuilder(24);
+        format(minorUnits, out);
+        return out.toString();
+    }
+
+    // Always prints SCALE fractional digits, e.g. 1250 -> "12.50"
+    public static void format(long minorUnits, StringBuilder out) {
+        if (minorUnits == Long.MIN_VALUE) {
+            out.append(MIN_VALUE_TEXT);
+            return;
+        }
+        if (minorUnits < 0) {
+            out.append('-');
+            minorUnits = -minorUnits;
+        }
+        long fraction = minorUnits % MINOR_UNITS;
+        out.append(minorUnits / MINOR_UNITS).append('.')
+                .append((char) ('0' + fraction / 10))
+                .append((char) ('0' + fraction % 10));
+    }
+
+    private static NumberFormatException outOfRange(CharSequence text, int start, int end) {
+        return new NumberFormatException("Amount is out of range: " + text.subSequence(start, end));
+    }
+
+    private static NumberFormatException invalid(CharSequence text, int start, int end) {
+        return new NumberFormatException("Invalid amount '" + text.subSequence(start, end)
+                + "': expected digits with at most " + SCALE + " decimal places");
+    }
+
+}
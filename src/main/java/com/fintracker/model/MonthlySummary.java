@@ -0,0 +1,17 @@
+package com.fintracker.model;
+
+import java.time.YearMonth;
+
+public record MonthlySummary(YearMonth month, long income, long expense, long count) {
+
+    public long net() {
+        return income - expense;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | income %s | expense %s | net %s | %d transactions",
+                month, Money.format(income), Money.format(expense), Money.format(net()), count);
+    }
+
+}
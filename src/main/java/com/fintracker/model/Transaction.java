@@ -5,11 +5,11 @@ import java.time.LocalDateTime;
 public class Transaction {
     private long id;
     private String type;
-    private double amount;
+    private long amount; // minor units, see Money
     private String category;
     private LocalDateTime date;
 
-    public Transaction(long id, String type, double amount, String category, LocalDateTime date) {
+    public Transaction(long id, String type, long amount, String category, LocalDateTime date) {
         this.id = id;
         this.type = type;
         this.amount = amount;
@@ -33,11 +33,11 @@ public class Transaction {
         this.type = type;
     }
 
-    public double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
@@ -59,8 +59,8 @@ public class Transaction {
 
     @Override
     public String toString() {
-        return String.format("[%d] %s | %.2f | %s | %s",
-                id, type, amount, category, date);
+        return String.format("[%d] %s | %s | %s | %s",
+                id, type, Money.format(amount), category, date);
     }
 
 }
\ No newline at end of file
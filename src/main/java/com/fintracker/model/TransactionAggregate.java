@@ -0,0 +1,16 @@
+package com.fintracker.model;
+
+// Amounts are minor units; the average is rounded half-up to the nearest minor unit
+public record TransactionAggregate(String group, long count, long sum, long min, long max) {
+
+    public long average() {
+        return count == 0 ? 0 : Math.floorDiv(2 * sum + count, 2 * count);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | count %d | sum %s | min %s | max %s | avg %s",
+                group, count, Money.format(sum), Money.format(min), Money.format(max), Money.format(average()));
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.fintracker.model;
+
+public enum TransactionGrouping {
+    CATEGORY,
+    TYPE,
+    DAY,
+    MONTH,
+    YEAR
+}
@@ -0,0 +1,16 @@
+package com.fintracker.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TransactionPage(List<Transaction> transactions, Cursor nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // Position of the last row of a page in (date, id) order; the next page starts strictly after it
+    public record Cursor(LocalDateTime date, long id) {
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.fintracker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Two-way name <-> id cache over the categories table, plus a search index over the names.
+// Categories are never deleted, so entries never go stale.
+public class CategoryDictionary {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryDictionary.class);
+    private static final String DUPLICATE_KEY_STATE = "23505";
+
+    private final DatabaseConfig databaseConfig;
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private final CategorySearchIndex searchIndex = new CategorySearchIndex();
+
+    public CategoryDictionary(DatabaseConfig databaseConfig) {
+        this.databaseConfig = databaseConfig;
+        try (Connection connection = databaseConfig.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM categories")) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                String name = rs.getString("name");
+                idsByName.put(name, id);
+                namesById.put(id, name);
+            }
+            searchIndex.addAll(idsByName.keySet());
+            logger.info("Loaded {} categories", idsByName.size());
+        } catch (SQLException e) {
+            logger.error("Failed to load categories", e);
+            throw new RuntimeException("Failed to load categories", e);
+        }
+    }
+
+    // Creates the category on first use. Runs on its own connection, so resolve names before opening a write transaction.
+    public int resolve(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        try (Connection connection = databaseConfig.getConnection()) {
+            id = selectId(connection, name);
+            if (id == null) {
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "INSERT INTO categories (name) VALUES (?)", PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    stmt.setString(1, name);
+                    stmt.executeUpdate();
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        generatedKeys.next();
+                        id = generatedKeys.getInt(1);
+                    }
+                    logger.info("Created category {} with ID {}", name, id);
+                } catch (SQLException e) {
+                    // Another writer created it first
+                    if (!DUPLICATE_KEY_STATE.equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    id = selectId(connection, name);
+                }
+            }
+            remember(id, name);
+            return id;
+        } catch (SQLException e) {
+            logger.error("Failed to resolve category: {}", name, e);
+            throw new RuntimeException("Failed to resolve category: " + name, e);
+        }
+    }
+
+    // Returns null for unknown names without creating them
+    public Integer findId(String name) {
+        return idsByName.get(name);
+    }
+
+    public String nameOf(int id) {
+        String name = namesById.get(id);
+        if (name == null) {
+            throw new IllegalStateException("Unknown category ID: " + id);
+        }
+        return name;
+    }
+
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>(idsByName.keySet());
+        names.sort(null);
+        return names;
+    }
+
+    // Prefix and typo-tolerant, best match first
+    public List<String> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    private Integer selectId(Connection connection, String name) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT id FROM categories WHERE name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    private void remember(int id, String name) {
+        idsByName.put(name, id);
+        namesById.put(id, name);
+        searchIndex.add(name);
+    }
+
+}
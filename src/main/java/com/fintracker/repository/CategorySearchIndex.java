@@ -0,0 +1,182 @@
+package com.fintracker.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Prefix and typo-tolerant lookup over the distinct category names, case-insensitive. A query matches a name when
+// it is within a few edits of the start of the name, so "GROC", "GORC" and "GROCERY" all find "GROCERIES".
+// Trigrams of the query pick the candidates and an edit distance confirms them; only queries too short for trigrams
+// to narrow anything compare against every name. New categories are rare compared with lookups, so adding
+// publishes a new immutable snapshot and lookups take no lock.
+public final class CategorySearchIndex {
+    // Marks the start of a name, so trigrams also encode where in the name they occur
+    private static final char ANCHOR = '\u0001';
+    private static final int[] NO_NAMES = new int[0];
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new String[0], Map.of());
+
+    private record Snapshot(String[] names, String[] keys, Map<String, int[]> trigrams) {
+    }
+
+    private record Match(String name, int distance, boolean exact) {
+    }
+
+    public void add(String name) {
+        addAll(List.of(name));
+    }
+
+    // Publishes one snapshot for all of them, so loading many names is not quadratic
+    public synchronized void addAll(Collection<String> names) {
+        Snapshot current = snapshot;
+        Set<String> known = new HashSet<>(Arrays.asList(current.names()));
+        List<String> added = new ArrayList<>();
+        for (String name : names) {
+            if (known.add(name)) {
+                added.add(name);
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        int first = current.names().length;
+        String[] allNames = Arrays.copyOf(current.names(), first + added.size());
+        String[] keys = Arrays.copyOf(current.keys(), allNames.length);
+        Map<String, int[]> trigrams = new HashMap<>(current.trigrams());
+        for (int id = first; id < allNames.length; id++) {
+            allNames[id] = added.get(id - first);
+            keys[id] = normalize(allNames[id]);
+            String anchored = ANCHOR + "" + ANCHOR + keys[id];
+            for (int i = 0; i + 3 <= anchored.length(); i++) {
+                String trigram = anchored.substring(i, i + 3);
+                int[] ids = trigrams.getOrDefault(trigram, NO_NAMES);
+                if (ids.length == 0 || ids[ids.length - 1] != id) {
+                    int[] grown = Arrays.copyOf(ids, ids.length + 1);
+                    grown[ids.length] = id;
+                    trigrams.put(trigram, grown);
+                }
+            }
+        }
+        snapshot = new Snapshot(allNames, keys, trigrams);
+    }
+
+    public int size() {
+        return snapshot.names().length;
+    }
+
+    // Best first: an exact name, then the fewest edits, then the shortest name. Empty for a blank query.
+    public List<String> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String key = query == null ? "" : normalize(query);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        int maxEdits = maxEdits(key.length());
+        List<Match> matches = new ArrayList<>();
+        for (int id : candidates(current, key, maxEdits)) {
+            int distance = prefixDistance(key, current.keys()[id], maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(current.names()[id], distance, current.keys()[id].equals(key)));
+            }
+        }
+        matches.sort(Comparator.comparing((Match match) -> !match.exact())
+                .thenComparingInt(Match::distance)
+                .thenComparingInt(match -> match.name().length())
+                .thenComparing(Match::name));
+        List<String> names = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            names.add(matches.get(i).name());
+        }
+        return names;
+    }
+
+    // Short queries tolerate no typos, or every two-letter query would match most names
+    static int maxEdits(int queryLength) {
+        if (queryLength <= 2) {
+            return 0;
+        }
+        return queryLength <= 5 ? 1 : 2;
+    }
+
+    // One edit changes at most four trigrams (an adjacent swap), so a name within maxEdits shares at least the rest
+    // of the query's. When that bound is zero every name is a candidate.
+    private static int[] candidates(Snapshot snapshot, String key, int maxEdits) {
+        String anchored = ANCHOR + "" + ANCHOR + key;
+        int gramCount = anchored.length() - 2;
+        int required = gramCount - 4 * maxEdits;
+        int nameCount = snapshot.names().length;
+        if (required <= 0) {
+            int[] all = new int[nameCount];
+            Arrays.setAll(all, id -> id);
+            return all;
+        }
+        int[] shared = new int[nameCount];
+        for (int i = 0; i < gramCount; i++) {
+            for (int id : snapshot.trigrams().getOrDefault(anchored.substring(i, i + 3), NO_NAMES)) {
+                shared[id]++;
+            }
+        }
+        int count = 0;
+        int[] ids = new int[nameCount];
+        for (int id = 0; id < nameCount; id++) {
+            if (shared[id] >= required) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    // Fewest insertions, deletions, substitutions or adjacent swaps that turn the query into some prefix of the
+    // name; anything above maxEdits is reported as maxEdits + 1
+    static int prefixDistance(String query, String name, int maxEdits) {
+        int m = query.length();
+        int n = Math.min(name.length(), m + maxEdits);
+        int[] previous2 = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= n; j++) {
+                int cost = query.charAt(i - 1) == name.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == name.charAt(j - 2)
+                        && query.charAt(i - 2) == name.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = maxEdits + 1;
+        for (int j = 0; j <= n; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+
+}
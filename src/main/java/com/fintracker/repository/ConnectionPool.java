@@ -0,0 +1,300 @@
+package com.fintracker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Settings settings;
+
+    // Idle connections are reused LIFO, so the oldest ones sit at the tail and are evicted first
+    private final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalAcquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder statementCount = new LongAdder();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    public record Settings(int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis,
+                           long evictionIntervalMillis, int validationTimeoutSeconds) {
+        public Settings {
+            if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("fintracker.db.pool.minSize and maxSize must satisfy "
+                        + "0 <= minSize <= maxSize and maxSize > 0");
+            }
+            if (acquireTimeoutMillis < 0) {
+                throw new IllegalArgumentException("fintracker.db.pool.acquireTimeoutMs cannot be negative");
+            }
+            if (idleTimeoutMillis < 0) {
+                throw new IllegalArgumentException("fintracker.db.pool.idleTimeoutMs cannot be negative");
+            }
+            if (evictionIntervalMillis <= 0) {
+                throw new IllegalArgumentException("fintracker.db.pool.evictionIntervalMs must be positive");
+            }
+            // 0 means no timeout to Connection.isValid
+            if (validationTimeoutSeconds < 0) {
+                throw new IllegalArgumentException("fintracker.db.pool.validationTimeoutSec cannot be negative");
+            }
+        }
+    }
+
+    public record Metrics(int active, int idle, int total, int maxSize, long acquireCount, long waitCount,
+                          long timeoutCount, long totalWaitMillis, double averageAcquireMicros, long maxAcquireMicros,
+                          long statementCount) {
+    }
+
+    private record IdleConnection(Connection connection, long idleSinceNanos) {
+    }
+
+    public ConnectionPool(String url, String user, String password, Settings settings) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            closeIdleConnections();
+            logger.error("Failed to open initial pool connections", e);
+            throw new RuntimeException("Failed to open initial pool connections", e);
+        }
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fintracker-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections,
+                settings.evictionIntervalMillis(), settings.evictionIntervalMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Connection pool started: minSize={}, maxSize={}", settings.minSize(), settings.maxSize());
+    }
+
+    public Connection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        if (!permits.tryAcquire()) {
+            waitCount.increment();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(settings.acquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            } finally {
+                totalWaitNanos.add(System.nanoTime() - start);
+            }
+            if (!acquired) {
+                timeoutCount.increment();
+                logger.warn("Timed out after {} ms waiting for a database connection ({} active)",
+                        settings.acquireTimeoutMillis(), active.get());
+                throw new SQLTransientConnectionException("Timed out waiting for a database connection after "
+                        + settings.acquireTimeoutMillis() + " ms");
+            }
+        }
+
+        try {
+            Connection physical = pollValidIdleConnection();
+            if (physical == null) {
+                physical = openPhysicalConnection();
+            }
+            active.incrementAndGet();
+            long elapsed = System.nanoTime() - start;
+            acquireCount.increment();
+            totalAcquireNanos.add(elapsed);
+            maxAcquireNanos.accumulateAndGet(elapsed, Math::max);
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Metrics getMetrics() {
+        long acquires = acquireCount.sum();
+        double averageAcquireMicros = acquires == 0 ? 0 : totalAcquireNanos.sum() / 1_000.0 / acquires;
+        return new Metrics(active.get(), idle.size(), total.get(), settings.maxSize(), acquires, waitCount.sum(),
+                timeoutCount.sum(), TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()), averageAcquireMicros,
+                TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()), statementCount.sum());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        evictor.shutdownNow();
+        closeIdleConnections();
+        logger.info("Connection pool closed ({} connections still in use will be closed on release)", active.get());
+    }
+
+    private Connection pollValidIdleConnection() {
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            Connection connection = candidate.connection();
+            try {
+                if (connection.isValid(settings.validationTimeoutSeconds())) {
+                    return connection;
+                }
+                logger.warn("Discarding pooled connection that failed validation");
+            } catch (SQLException e) {
+                logger.warn("Discarding pooled connection after validation error", e);
+            }
+            closePhysicalConnection(connection);
+        }
+        return null;
+    }
+
+    private Connection openPhysicalConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        logger.debug("Opened pooled database connection ({} total)", total.get());
+        return connection;
+    }
+
+    private void closePhysicalConnection(Connection connection) {
+        total.decrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close pooled database connection", e);
+        }
+    }
+
+    private void release(Connection physical) {
+        active.decrementAndGet();
+        try {
+            if (closed || physical.isClosed()) {
+                closePhysicalConnection(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            idle.offerFirst(new IdleConnection(physical, System.nanoTime()));
+        } catch (SQLException e) {
+            logger.warn("Discarding pooled connection that could not be reset", e);
+            closePhysicalConnection(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdleConnections() {
+        try {
+            long now = System.nanoTime();
+            long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMillis());
+            for (IdleConnection candidate : idle) {
+                if (total.get() <= settings.minSize()) {
+                    break;
+                }
+                if (now - candidate.idleSinceNanos() > idleTimeoutNanos && idle.remove(candidate)) {
+                    closePhysicalConnection(candidate.connection());
+                    logger.debug("Evicted idle database connection ({} total)", total.get());
+                }
+            }
+            fillToMinimum();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Connection pool maintenance failed", e);
+        }
+    }
+
+    private void fillToMinimum() throws SQLException {
+        while (!closed && total.get() < settings.minSize()) {
+            idle.offerLast(new IdleConnection(openPhysicalConnection(), System.nanoTime()));
+        }
+    }
+
+    private void closeIdleConnections() {
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            closePhysicalConnection(candidate.connection());
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnectionHandler(physical));
+    }
+
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (released.compareAndSet(false, true)) {
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return released.get() || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    // Counted so round trips per operation can be measured from the outside
+                    statementCount.increment();
+                    return invokePhysical(method, args);
+                default:
+                    return invokePhysical(method, args);
+            }
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            if (released.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+}
@@ -1,12 +1,13 @@
 package com.fintracker.repository;
 
+import com.fintracker.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
@@ -16,21 +17,92 @@ public class DatabaseConfig {
     private static final String DEFAULT_DB_PATH = "fintracker.db.path";
     private static final String DEFAULT_USER = "fintracker.db.user";
     private static final String DEFAULT_PASSWORD = "fintracker.db.password";
+    private static final int DEFAULT_POOL_MIN_SIZE = 1;
+    private static final int DEFAULT_POOL_MAX_SIZE = 10;
+    private static final long DEFAULT_POOL_ACQUIRE_TIMEOUT_MS = 30_000;
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT_MS = 600_000;
+    private static final long DEFAULT_POOL_EVICTION_INTERVAL_MS = 30_000;
+    private static final int DEFAULT_POOL_VALIDATION_TIMEOUT_SEC = 5;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final boolean DEFAULT_CACHE_ENABLED = true;
+    private static final boolean DEFAULT_EXISTENCE_PRECHECK = false;
+    private static final int DEFAULT_CACHE_MAX_SIZE = 10_000;
+    private static final boolean DEFAULT_WRITE_BEHIND_ENABLED = false;
+    private static final int DEFAULT_WRITE_BEHIND_CAPACITY = 10_000;
+    private static final long DEFAULT_WRITE_BEHIND_MAX_DELAY_MS = 0;
+    private static final long DEFAULT_WRITE_BEHIND_OFFER_TIMEOUT_MS = 30_000;
+    private static final boolean DEFAULT_METRICS_ENABLED = true;
+    private static final String DEFAULT_METRICS_INSTANCE = "default";
+    private static final long DEFAULT_METRICS_DUMP_INTERVAL_SEC = 60;
+    private static final String DEFAULT_STORE = "h2";
+    private static final String DEFAULT_LOG_STORE_FILE = "fintracker-transactions.log";
+    private static final boolean DEFAULT_LOG_STORE_FORCE_ON_WRITE = false;
+    private static final long DEFAULT_LOG_STORE_COMPACT_INTERVAL_SEC = 60;
+    private static final int DEFAULT_LOG_STORE_COMPACT_GARBAGE_PERCENT = 50;
 
-    private static String dbUrl;
-    private static String dbUser;
-    private static String dbPassword;
-    private Connection connection;
+    private final String dbUrl;
+    private final String dbUser;
+    private final String dbPassword;
+    private final int batchSize;
+    private final int fetchSize;
+    private final boolean cacheEnabled;
+    private final int cacheMaxSize;
+    private final boolean existencePrecheck;
+    private final WriteBehindQueue.Settings writeBehindSettings;
+    private final TransactionLogStore.Settings logStoreSettings;
+    private final int asyncMaxConcurrency;
+    private final ConnectionPool connectionPool;
+    private final MetricsRegistry metricsRegistry;
+    private volatile TransactionPartitions partitions;
 
-    static {
-        loadConfiguration();
+    public DatabaseConfig() {
+        this(loadConfiguration());
     }
 
-    public DatabaseConfig() {
-        getConnection();
+    public DatabaseConfig(Properties properties) {
+        dbUrl = properties.getProperty("fintracker.db.path", DEFAULT_DB_PATH);
+        dbUser = properties.getProperty("fintracker.db.user", DEFAULT_USER);
+        dbPassword = properties.getProperty("fintracker.db.password", DEFAULT_PASSWORD);
+        batchSize = Math.max(1, intProperty(properties, "fintracker.db.batchSize", DEFAULT_BATCH_SIZE));
+        fetchSize = Math.max(1, intProperty(properties, "fintracker.db.fetchSize", DEFAULT_FETCH_SIZE));
+        cacheEnabled = booleanProperty(properties, "fintracker.cache.enabled", DEFAULT_CACHE_ENABLED);
+        cacheMaxSize = Math.max(0, intProperty(properties, "fintracker.cache.maxSize", DEFAULT_CACHE_MAX_SIZE));
+        existencePrecheck = booleanProperty(properties, "fintracker.db.existencePrecheck", DEFAULT_EXISTENCE_PRECHECK);
+        writeBehindSettings = new WriteBehindQueue.Settings(
+                booleanProperty(properties, "fintracker.writeBehind.enabled", DEFAULT_WRITE_BEHIND_ENABLED),
+                intProperty(properties, "fintracker.writeBehind.capacity", DEFAULT_WRITE_BEHIND_CAPACITY),
+                intProperty(properties, "fintracker.writeBehind.batchSize", batchSize),
+                longProperty(properties, "fintracker.writeBehind.maxDelayMs", DEFAULT_WRITE_BEHIND_MAX_DELAY_MS),
+                longProperty(properties, "fintracker.writeBehind.offerTimeoutMs", DEFAULT_WRITE_BEHIND_OFFER_TIMEOUT_MS));
+        logStoreSettings = new TransactionLogStore.Settings(
+                storeIsLog(properties.getProperty("fintracker.store", DEFAULT_STORE)),
+                Path.of(properties.getProperty("fintracker.store.log.file", DEFAULT_LOG_STORE_FILE).trim()),
+                booleanProperty(properties, "fintracker.store.log.forceOnWrite", DEFAULT_LOG_STORE_FORCE_ON_WRITE),
+                Math.max(1, longProperty(properties, "fintracker.store.log.compactIntervalSec",
+                        DEFAULT_LOG_STORE_COMPACT_INTERVAL_SEC)),
+                Math.min(100, Math.max(1, intProperty(properties, "fintracker.store.log.compactGarbagePercent",
+                        DEFAULT_LOG_STORE_COMPACT_GARBAGE_PERCENT))));
+        ConnectionPool.Settings poolSettings = new ConnectionPool.Settings(
+                intProperty(properties, "fintracker.db.pool.minSize", DEFAULT_POOL_MIN_SIZE),
+                intProperty(properties, "fintracker.db.pool.maxSize", DEFAULT_POOL_MAX_SIZE),
+                longProperty(properties, "fintracker.db.pool.acquireTimeoutMs", DEFAULT_POOL_ACQUIRE_TIMEOUT_MS),
+                longProperty(properties, "fintracker.db.pool.idleTimeoutMs", DEFAULT_POOL_IDLE_TIMEOUT_MS),
+                longProperty(properties, "fintracker.db.pool.evictionIntervalMs", DEFAULT_POOL_EVICTION_INTERVAL_MS),
+                intProperty(properties, "fintracker.db.pool.validationTimeoutSec", DEFAULT_POOL_VALIDATION_TIMEOUT_SEC));
+        // More concurrent async calls than pooled connections would only queue up inside the pool
+        asyncMaxConcurrency = Math.max(1, intProperty(properties, "fintracker.async.maxConcurrency", poolSettings.maxSize()));
+        connectionPool = new ConnectionPool(dbUrl, dbUser, dbPassword, poolSettings);
+        logger.info("Database connection pool established successfully");
+        String dumpFile = properties.getProperty("fintracker.metrics.dumpFile");
+        metricsRegistry = new MetricsRegistry(new MetricsRegistry.Settings(
+                booleanProperty(properties, "fintracker.metrics.enabled", DEFAULT_METRICS_ENABLED),
+                properties.getProperty("fintracker.metrics.instance", DEFAULT_METRICS_INSTANCE),
+                dumpFile == null || dumpFile.isBlank() ? null : Path.of(dumpFile.trim()),
+                Math.max(1, longProperty(properties, "fintracker.metrics.dumpIntervalSec", DEFAULT_METRICS_DUMP_INTERVAL_SEC))));
     }
 
-    private static void loadConfiguration() {
+    private static Properties loadConfiguration() {
         Properties properties = new Properties();
         try (InputStream inputStream = DatabaseConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
             if (inputStream != null) {
@@ -42,35 +114,124 @@ public class DatabaseConfig {
         } catch (IOException e) {
             logger.warn("Failed to load {}. Using default values.", CONFIG_FILE, e);
         }
+        return properties;
+    }
 
-        dbUrl = properties.getProperty("fintracker.db.path", DEFAULT_DB_PATH);
-        dbUser = properties.getProperty("fintracker.db.user", DEFAULT_USER);
-        dbPassword = properties.getProperty("fintracker.db.password", DEFAULT_PASSWORD);
+    static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {}. Using default {}.", value, key, defaultValue);
+            return defaultValue;
+        }
     }
 
+    static long longProperty(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {}. Using default {}.", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static boolean storeIsLog(String value) {
+        String store = value.trim();
+        if (!store.equalsIgnoreCase("h2") && !store.equalsIgnoreCase("log")) {
+            logger.warn("Invalid value '{}' for fintracker.store. Using default {}.", value, DEFAULT_STORE);
+            return false;
+        }
+        return store.equalsIgnoreCase("log");
+    }
+
+    static boolean booleanProperty(Properties properties, String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    // Callers must close the returned connection to hand it back to the pool
     public Connection getConnection() {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
-                logger.info("Database connection established successfully");
-            }
-            return connection;
+            return connectionPool.acquire();
         } catch (SQLException e) {
-            logger.error("Failed to establish database connection", e);
+            logger.error("Failed to obtain database connection from pool", e);
             throw new RuntimeException("Failed to connect to database: ", e);
         }
     }
 
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                logger.info("Database connection closed");
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    // When true, update/delete/findById issue a separate SELECT 1 before the real statement
+    public boolean isExistencePrecheck() {
+        return existencePrecheck;
+    }
+
+    public WriteBehindQueue.Settings getWriteBehindSettings() {
+        return writeBehindSettings;
+    }
+
+    // fintracker.store=log keeps transactions in an append-only log file instead of H2
+    public TransactionLogStore.Settings getLogStoreSettings() {
+        return logStoreSettings;
+    }
+
+    public int getAsyncMaxConcurrency() {
+        return asyncMaxConcurrency;
+    }
+
+    public ConnectionPool.Metrics getPoolMetrics() {
+        return connectionPool.getMetrics();
+    }
+
+    // Per-operation latency histograms for the repository and service layers, also published over JMX
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    // Shared by every repository on this database so they all see an archive move at the same moment.
+    // Created on first use rather than in the constructor, which must not hand out a half-built config.
+    public TransactionPartitions getPartitions() {
+        TransactionPartitions current = partitions;
+        if (current == null) {
+            synchronized (this) {
+                if (partitions == null) {
+                    partitions = new TransactionPartitions(this);
+                }
+                current = partitions;
             }
-        } catch (SQLException e) {
-            logger.error("Failed to close database connection", e);
-            throw new RuntimeException("Failed to close database connection", e);
         }
+        return current;
+    }
+
+    public void closeConnection() {
+        metricsRegistry.close();
+        connectionPool.close();
+        logger.info("Database connection pool closed");
     }
 
-}
\ No newline at end of file
+}
@@ -1,20 +1,22 @@
 package com.fintracker.repository;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.List;
 
 public class DatabaseSchemaInitializer {
-    private static final Logger logger = LoggerFactory.getLogger(DatabaseSchemaInitializer.class);
+    // Append new migrations here; applied scripts must never be edited, their checksums are verified on startup
+    static final List<MigrationRunner.Migration> MIGRATIONS = List.of(
+            new MigrationRunner.Migration(1, "Create transactions table", "V1__create_transactions_table.sql"),
+            new MigrationRunner.Migration(2, "Add transaction filter indexes", "V2__add_transaction_filter_indexes.sql"),
+            new MigrationRunner.Migration(3, "Create transaction rollups", "V3__create_transaction_rollups.sql"),
+            new MigrationRunner.Migration(4, "Lowercase legacy transaction types", "V4__lowercase_transaction_types.sql"),
+            new MigrationRunner.Migration(5, "Dictionary-encode categories", "V5__dictionary_encode_categories.sql"),
+            new MigrationRunner.Migration(6, "Store amounts as minor units", "V6__store_amounts_as_minor_units.sql"),
+            new MigrationRunner.Migration(7, "Create import checkpoints", "V7__create_import_checkpoints.sql"),
+            new MigrationRunner.Migration(8, "Create transaction partitions", "V8__create_transaction_partitions.sql")
+    );
+
     private final Connection connection;
 
     public DatabaseSchemaInitializer(Connection connection) {
@@ -22,50 +24,7 @@ public class DatabaseSchemaInitializer {
     }
 
     public void initialize() throws SQLException {
-        initializeTransactionsTable();
-        // Aici poți adăuga inițializarea altor tabele în viitor
-        // Ex: initializeTable("users", "sql/create_users_table.sql");
-    }
-
-    private void initializeTransactionsTable() throws SQLException {
-        initializeTable("TRANSACTIONS", "sql/create_transactions_table.sql");
-    }
-
-    protected void initializeTable(String tableName, String sqlFilePath) throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = '" + tableName.toUpperCase() + "'");
-            if (rs.next() && rs.getInt(1) == 0) {
-                String createTableSql = readSqlFile(sqlFilePath);
-                stmt.execute(createTableSql);
-                logger.info("Table {} initialized with SQL from {}", tableName, sqlFilePath);
-            } else {
-                logger.debug("Table {} already exists, skipping initialization", tableName);
-            }
-        } catch (SQLException e) {
-            logger.error("Failed to initialize table {}", tableName, e);
-            throw e;
-        }
-    }
-
-    private String readSqlFile(String sqlFilePath) {
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(sqlFilePath)) {
-            if (inputStream == null) {
-                logger.error("SQL file not found in resources: {}", sqlFilePath);
-                throw new RuntimeException("SQL file not found: " + sqlFilePath);
-            }
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-                StringBuilder sql = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    sql.append(line).append("\n");
-                }
-                logger.debug("Successfully read SQL file: {}", sqlFilePath);
-                return sql.toString();
-            }
-        } catch (IOException e) {
-            logger.error("Failed to read SQL file: {}", sqlFilePath, e);
-            throw new RuntimeException("Failed to read SQL file: " + sqlFilePath, e);
-        }
+        new MigrationRunner(connection).migrate(MIGRATIONS);
     }
 
-}
\ No newline at end of file
+}
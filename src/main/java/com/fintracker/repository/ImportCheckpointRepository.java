@@ -0,0 +1,67 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.ImportCheckpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class ImportCheckpointRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ImportCheckpointRepository.class);
+    private static final String SAVE_SQL = """
+            MERGE INTO import_checkpoints (source, file_size, file_modified, byte_offset, line_number, imported)
+            KEY (source) VALUES (?, ?, ?, ?, ?, ?)""";
+
+    private final DatabaseConfig databaseConfig;
+
+    public ImportCheckpointRepository(DatabaseConfig databaseConfig) {
+        this.databaseConfig = databaseConfig;
+    }
+
+    public ImportCheckpoint find(String source) {
+        String sql = "SELECT source, file_size, file_modified, byte_offset, line_number, imported FROM import_checkpoints WHERE source = ?";
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, source);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new ImportCheckpoint(rs.getString("source"), rs.getLong("file_size"),
+                        rs.getLong("file_modified"), rs.getLong("byte_offset"), rs.getLong("line_number"),
+                        rs.getLong("imported"));
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to read import checkpoint for {}", source, e);
+            throw new RuntimeException("Failed to read import checkpoint", e);
+        }
+    }
+
+    // Runs on the caller's connection so the checkpoint commits together with the rows it covers
+    public void save(Connection connection, ImportCheckpoint checkpoint) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SAVE_SQL)) {
+            stmt.setString(1, checkpoint.source());
+            stmt.setLong(2, checkpoint.fileSize());
+            stmt.setLong(3, checkpoint.fileModifiedMillis());
+            stmt.setLong(4, checkpoint.offset());
+            stmt.setLong(5, checkpoint.line());
+            stmt.setLong(6, checkpoint.imported());
+            stmt.executeUpdate();
+        }
+    }
+
+    public void delete(String source) {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("DELETE FROM import_checkpoints WHERE source = ?")) {
+            stmt.setString(1, source);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Failed to delete import checkpoint for {}", source, e);
+            throw new RuntimeException("Failed to delete import checkpoint", e);
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.fintracker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class MigrationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+    private static final String MIGRATION_PATH = "db/migration/";
+    private static final String CREATE_SCHEMA_VERSION_SQL = """
+            CREATE TABLE IF NOT EXISTS schema_version
+            (
+                version           INT PRIMARY KEY,
+                description       VARCHAR(255) NOT NULL,
+                script            VARCHAR(255) NOT NULL,
+                checksum          BIGINT       NOT NULL,
+                installed_on      TIMESTAMP    NOT NULL,
+                execution_time_ms BIGINT       NOT NULL
+            )""";
+
+    private final Connection connection;
+
+    public record Migration(int version, String description, String script) {
+    }
+
+    public MigrationRunner(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void migrate(List<Migration> migrations) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(CREATE_SCHEMA_VERSION_SQL);
+        }
+        Map<Integer, Long> applied = loadAppliedChecksums();
+
+        List<Migration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(Migration::version));
+        int pending = 0;
+        for (Migration migration : ordered) {
+            String sql = readScript(migration.script());
+            long checksum = checksum(sql);
+            Long appliedChecksum = applied.remove(migration.version());
+            if (appliedChecksum == null) {
+                apply(migration, sql, checksum);
+                pending++;
+            } else if (appliedChecksum != checksum) {
+                logger.error("Checksum mismatch for migration V{} ({}): applied {}, found {}",
+                        migration.version(), migration.script(), appliedChecksum, checksum);
+                throw new IllegalStateException("Migration V" + migration.version()
+                        + " was modified after it was applied: " + migration.script());
+            }
+        }
+        if (!applied.isEmpty()) {
+            logger.warn("Database contains migrations unknown to this build: {}", applied.keySet());
+        }
+        logger.info("Schema is up to date ({} migrations applied now, {} known)", pending, ordered.size());
+    }
+
+    private Map<Integer, Long> loadAppliedChecksums() throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    // H2 commits DDL implicitly, so only the data statements and the version row share one transaction. A script
+    // that fails part-way is rerun from its first statement, so every statement must be safe to run again:
+    // IF [NOT] EXISTS guards on DDL, and data steps that skip rows an earlier attempt already converted.
+    private void apply(Migration migration, String sql, long checksum) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String statement : splitStatements(sql)) {
+                stmt.execute(statement);
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, script, checksum, installed_on, execution_time_ms) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setString(3, migration.script());
+                insert.setLong(4, checksum);
+                insert.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                insert.setLong(6, elapsedMillis);
+                insert.executeUpdate();
+            }
+            connection.commit();
+            logger.info("Applied migration V{} ({}) in {} ms", migration.version(), migration.description(), elapsedMillis);
+        } catch (SQLException e) {
+            connection.rollback();
+            logger.error("Failed to apply migration V{} ({})", migration.version(), migration.script(), e);
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private String readScript(String script) {
+        String path = MIGRATION_PATH + script;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(path)) {
+            if (inputStream == null) {
+                logger.error("Migration script not found in resources: {}", path);
+                throw new RuntimeException("Migration script not found: " + path);
+            }
+            // Line endings are normalized so checksums do not depend on how the file was checked out
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                StringBuilder sql = new StringBuilder();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    sql.append(line).append("\n");
+                }
+                return sql.toString();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read migration script: {}", path, e);
+            throw new RuntimeException("Failed to read migration script: " + path, e);
+        }
+    }
+
+}
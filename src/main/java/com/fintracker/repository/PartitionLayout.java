@@ -0,0 +1,69 @@
+package com.fintracker.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Where transactions live by year. Rows dated up to archivedThroughYear sit in per-year archive tables, everything
+// later in the hot transactions table. Writes dated up to readOnlyThroughYear are rejected; it runs one year ahead
+// of archivedThroughYear while a year is being moved, so queries keep reading both tables until the move is done.
+public record PartitionLayout(int archivedThroughYear, int readOnlyThroughYear, List<Partition> archives) {
+    public static final String HOT_TABLE = "transactions";
+    public static final int NO_YEAR = Integer.MIN_VALUE;
+    public static final PartitionLayout UNPARTITIONED = new PartitionLayout(NO_YEAR, NO_YEAR, List.of());
+    private static final List<String> HOT_ONLY = List.of(HOT_TABLE);
+
+    // Archive tables are keyed by date, so ids are only bounded by the range seen when the year was moved
+    public record Partition(int year, String table, long rowCount, long minId, long maxId) {
+        public boolean mayContain(long id) {
+            return id >= minId && id <= maxId;
+        }
+    }
+
+    public PartitionLayout {
+        archives = archives.stream().sorted(Comparator.comparingInt(Partition::year)).toList();
+    }
+
+    public static String archiveTable(int year) {
+        return "transactions_y" + year;
+    }
+
+    public boolean isReadOnly(LocalDateTime date) {
+        return date.getYear() <= readOnlyThroughYear;
+    }
+
+    // Tables that can hold rows dated within [startDate, endDate] (null is open-ended), oldest first.
+    // Never empty: a range that only covers archived years without rows still reads the (empty) hot range.
+    public List<String> tablesFor(LocalDateTime startDate, LocalDateTime endDate) {
+        if (archives.isEmpty()) {
+            return HOT_ONLY;
+        }
+        List<String> tables = new ArrayList<>(archives.size() + 1);
+        for (Partition partition : archives) {
+            if ((startDate == null || startDate.getYear() <= partition.year())
+                    && (endDate == null || endDate.getYear() >= partition.year())) {
+                tables.add(partition.table());
+            }
+        }
+        if (tables.isEmpty() || endDate == null || endDate.getYear() > archivedThroughYear) {
+            tables.add(HOT_TABLE);
+        }
+        return tables;
+    }
+
+    public List<String> allTables() {
+        return tablesFor(null, null);
+    }
+
+    public List<Partition> partitionsFor(long id) {
+        List<Partition> candidates = new ArrayList<>(1);
+        for (Partition partition : archives) {
+            if (partition.mayContain(id)) {
+                candidates.add(partition);
+            }
+        }
+        return candidates;
+    }
+
+}
@@ -1,5 +1,8 @@
 package com.fintracker.repository;
 
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
+
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,17 +13,83 @@ public class QueryBuilder {
     public record QueryParams(String sql, List<Object> params) {
     }
 
-    public static QueryParams buildTransactionFilterQuery(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
-        StringBuilder sql = new StringBuilder("SELECT id, type, amount, category, date FROM transactions WHERE 1=1");
+    private static final String COLUMNS = "id, type, amount, category_id, date";
+
+    public static QueryParams buildTransactionFilterQuery(String type, Integer categoryId, LocalDateTime startDate, LocalDateTime endDate) {
+        return buildTransactionFilterQuery(PartitionLayout.UNPARTITIONED, type, categoryId, startDate, endDate);
+    }
+
+    // One UNION ALL branch per table the date range can touch; a range within open years stays a single-table query
+    public static QueryParams buildTransactionFilterQuery(PartitionLayout layout, String type, Integer categoryId,
+                                                          LocalDateTime startDate, LocalDateTime endDate) {
+        return buildTransactionFilterQuery(layout, type, categoryId == null ? null : List.of(categoryId),
+                startDate, endDate);
+    }
+
+    // Matches any of categoryIds with category_id IN (...); null means any category, and the list must not be empty
+    public static QueryParams buildTransactionFilterQuery(PartitionLayout layout, String type, List<Integer> categoryIds,
+                                                          LocalDateTime startDate, LocalDateTime endDate) {
+        StringBuilder sql = new StringBuilder();
         List<Object> params = new ArrayList<>();
+        for (String table : layout.tablesFor(startDate, endDate)) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT ").append(COLUMNS).append(" FROM ").append(table).append(" WHERE 1=1");
+            appendFilterConditions(sql, params, type, categoryIds, startDate, endDate);
+        }
+        return new QueryParams(sql.toString(), params);
+    }
+
+    public static QueryParams buildTransactionAggregateQuery(TransactionGrouping grouping, String type, Integer categoryId,
+                                                            LocalDateTime startDate, LocalDateTime endDate) {
+        return buildTransactionAggregateQuery(PartitionLayout.UNPARTITIONED, grouping, type, categoryId, startDate, endDate);
+    }
+
+    // CATEGORY groups by category_id; the caller maps the IDs back to names
+    public static QueryParams buildTransactionAggregateQuery(PartitionLayout layout, TransactionGrouping grouping,
+                                                            String type, Integer categoryId,
+                                                            LocalDateTime startDate, LocalDateTime endDate) {
+        String groupExpression = switch (grouping) {
+            case CATEGORY -> "category_id";
+            case TYPE -> "type";
+            case DAY -> "CAST(date AS DATE)";
+            case MONTH -> "FORMATDATETIME(date, 'yyyy-MM')";
+            case YEAR -> "EXTRACT(YEAR FROM date)";
+        };
+        StringBuilder sql = new StringBuilder("SELECT ").append(groupExpression).append(" AS group_key,"
+                + " COUNT(*) AS tx_count, SUM(amount) AS total, MIN(amount) AS min_amount,"
+                + " MAX(amount) AS max_amount FROM ");
+        List<Object> params = new ArrayList<>();
+        List<String> tables = layout.tablesFor(startDate, endDate);
+        if (tables.size() == 1) {
+            sql.append(tables.get(0)).append(" WHERE 1=1");
+            appendFilterConditions(sql, params, type, categoryId == null ? null : List.of(categoryId), startDate, endDate);
+        } else {
+            QueryParams filter = buildTransactionFilterQuery(layout, type, categoryId, startDate, endDate);
+            sql.append('(').append(filter.sql()).append(") t");
+            params.addAll(filter.params());
+        }
+        sql.append(" GROUP BY ").append(groupExpression).append(" ORDER BY group_key");
+        return new QueryParams(sql.toString(), params);
+    }
 
+    private static void appendFilterConditions(StringBuilder sql, List<Object> params, String type, List<Integer> categoryIds,
+                                               LocalDateTime startDate, LocalDateTime endDate) {
         if (type != null) {
             sql.append(" AND type = ?");
             params.add(type);
         }
-        if (category != null) {
-            sql.append(" AND category = ?");
-            params.add(category);
+        if (categoryIds != null && categoryIds.size() == 1) {
+            sql.append(" AND category_id = ?");
+            params.add(categoryIds.get(0));
+        } else if (categoryIds != null) {
+            if (categoryIds.isEmpty()) {
+                throw new IllegalArgumentException("Category list cannot be empty");
+            }
+            sql.append(" AND category_id IN (?");
+            sql.append(", ?".repeat(categoryIds.size() - 1)).append(')');
+            params.addAll(categoryIds);
         }
         if (startDate != null) {
             sql.append(" AND date >= ?");
@@ -30,6 +99,63 @@ public class QueryBuilder {
             sql.append(" AND date <= ?");
             params.add(Timestamp.valueOf(endDate));
         }
+    }
+
+    public static QueryParams buildTransactionPageQuery(String type, Integer categoryId, LocalDateTime startDate,
+                                                       LocalDateTime endDate, TransactionPage.Cursor after, int limit) {
+        return buildTransactionPageQuery(PartitionLayout.UNPARTITIONED, type, categoryId, startDate, endDate, after, limit);
+    }
+
+    // Across several tables each branch seeks and stops on its own index, and only the merged rows are sorted again
+    public static QueryParams buildTransactionPageQuery(PartitionLayout layout, String type, Integer categoryId,
+                                                       LocalDateTime startDate, LocalDateTime endDate,
+                                                       TransactionPage.Cursor after, int limit) {
+        // The cursor's date is a lower bound too, so pages past the archived years skip those tables entirely
+        LocalDateTime from = after != null && (startDate == null || after.date().isAfter(startDate)) ? after.date() : startDate;
+        List<String> tables = layout.tablesFor(from, endDate);
+        if (tables.size() == 1) {
+            return buildTablePageQuery(tables.get(0), type, categoryId, startDate, endDate, after, limit);
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM (");
+        List<Object> params = new ArrayList<>();
+        for (String table : tables) {
+            if (!params.isEmpty()) {
+                sql.append(" UNION ALL ");
+            }
+            QueryParams branch = buildTablePageQuery(table, type, categoryId, startDate, endDate, after, limit);
+            sql.append('(').append(branch.sql()).append(')');
+            params.addAll(branch.params());
+        }
+        sql.append(") t ORDER BY date, id LIMIT ?");
+        params.add(limit);
+        return new QueryParams(sql.toString(), params);
+    }
+
+    private static QueryParams buildTablePageQuery(String table, String type, Integer categoryId, LocalDateTime startDate,
+                                                   LocalDateTime endDate, TransactionPage.Cursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM ").append(table).append(" WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendFilterConditions(sql, params, type, categoryId == null ? null : List.of(categoryId), startDate, endDate);
+
+        if (after != null) {
+            // Same as (date, id) > (?, ?), but the leading date >= ? gives H2 a range it can seek on
+            sql.append(" AND date >= ? AND (date > ? OR id > ?)");
+            Timestamp afterDate = Timestamp.valueOf(after.date());
+            params.add(afterDate);
+            params.add(afterDate);
+            params.add(after.id());
+        }
+        // H2 only reads an index in order when ORDER BY starts with its leading column, so the
+        // equality-filtered column is repeated in front; it is constant and does not change the order
+        if (categoryId != null) {
+            sql.append(" ORDER BY category_id, date, id");
+        } else if (type != null) {
+            sql.append(" ORDER BY type, date, id");
+        } else {
+            sql.append(" ORDER BY date, id");
+        }
+        sql.append(" LIMIT ?");
+        params.add(limit);
 
         return new QueryParams(sql.toString(), params);
     }
@@ -0,0 +1,248 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.MonthlySummary;
+import com.fintracker.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RollupRepository {
+    private static final Logger logger = LoggerFactory.getLogger(RollupRepository.class);
+    private static final String APPLY_DELTA_SQL = """
+            MERGE INTO transaction_rollups r
+            USING (VALUES (CAST(? AS DATE), CAST(? AS INT), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+                AS d(bucket_month, category_id, type, total, tx_count)
+            ON r.bucket_month = d.bucket_month AND r.category_id = d.category_id AND r.type = d.type
+            WHEN MATCHED THEN UPDATE SET total = r.total + d.total, tx_count = r.tx_count + d.tx_count
+            WHEN NOT MATCHED THEN INSERT (bucket_month, category_id, type, total, tx_count)
+                VALUES (d.bucket_month, d.category_id, d.type, d.total, d.tx_count)""";
+    private static final String RECOMPUTE_SQL = """
+            SELECT CAST(DATE_TRUNC('MONTH', date) AS DATE) AS bucket_month, category_id, type, SUM(amount) AS total, COUNT(*) AS tx_count
+            FROM %s
+            WHERE category_id IS NOT NULL AND type IS NOT NULL AND date IS NOT NULL
+            GROUP BY CAST(DATE_TRUNC('MONTH', date) AS DATE), category_id, type""";
+    private static final String DUPLICATE_KEY_STATE = "23505";
+
+    private final DatabaseConfig databaseConfig;
+    private final CategoryDictionary categories;
+
+    public record Bucket(LocalDate month, String category, String type) {
+    }
+
+    public record Drift(Bucket bucket, long expectedTotal, long actualTotal, long expectedCount, long actualCount) {
+    }
+
+    public record Verification(int bucketsChecked, List<Drift> drifts) {
+        public boolean isConsistent() {
+            return drifts.isEmpty();
+        }
+    }
+
+    // Net change per bucket for one unit of work, so a batch touching many rows issues one MERGE per bucket
+    public static class Deltas {
+        private final Map<Bucket, long[]> changes = new LinkedHashMap<>();
+
+        public void add(Transaction transaction) {
+            record(transaction, 1);
+        }
+
+        public void remove(Transaction transaction) {
+            record(transaction, -1);
+        }
+
+        private void record(Transaction transaction, int sign) {
+            Bucket bucket = new Bucket(transaction.getDate().toLocalDate().withDayOfMonth(1),
+                    transaction.getCategory(), transaction.getType());
+            long[] change = changes.computeIfAbsent(bucket, key -> new long[2]);
+            change[0] += sign * transaction.getAmount();
+            change[1] += sign;
+        }
+    }
+
+    public RollupRepository(DatabaseConfig databaseConfig, CategoryDictionary categories) {
+        this.databaseConfig = databaseConfig;
+        this.categories = categories;
+    }
+
+    // Runs on the caller's connection so the rollup change commits or rolls back with the row change.
+    // Bucket categories must already be resolved, which TransactionRepository does before opening the transaction.
+    public void apply(Connection connection, Deltas deltas) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(APPLY_DELTA_SQL)) {
+            for (Map.Entry<Bucket, long[]> entry : deltas.changes.entrySet()) {
+                Bucket bucket = entry.getKey();
+                long[] change = entry.getValue();
+                if (change[0] == 0 && change[1] == 0) {
+                    continue;
+                }
+                stmt.setDate(1, Date.valueOf(bucket.month()));
+                stmt.setInt(2, categories.resolve(bucket.category()));
+                stmt.setString(3, bucket.type());
+                stmt.setLong(4, change[0]);
+                stmt.setLong(5, change[1]);
+                try {
+                    stmt.executeUpdate();
+                } catch (SQLException e) {
+                    // Two writers creating the same new bucket race on the insert branch; the loser retries as an update
+                    if (!DUPLICATE_KEY_STATE.equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    stmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    public long getBalance() {
+        String sql = "SELECT COALESCE(SUM(CASE WHEN type = 'income' THEN total ELSE -total END), 0) FROM transaction_rollups";
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            long balance = rs.getLong(1);
+            logger.info("Computed balance from rollups: {}", balance);
+            return balance;
+        } catch (SQLException e) {
+            logger.error("Failed to compute balance from rollups", e);
+            throw new RuntimeException("Failed to compute balance", e);
+        }
+    }
+
+    public List<MonthlySummary> findMonthlySummaries(YearMonth startMonth, YearMonth endMonth) {
+        StringBuilder sql = new StringBuilder("SELECT bucket_month,"
+                + " SUM(CASE WHEN type = 'income' THEN total ELSE 0 END) AS income,"
+                + " SUM(CASE WHEN type = 'expense' THEN total ELSE 0 END) AS expense,"
+                + " SUM(tx_count) AS tx_count FROM transaction_rollups WHERE tx_count > 0");
+        List<Object> params = new ArrayList<>();
+        if (startMonth != null) {
+            sql.append(" AND bucket_month >= ?");
+            params.add(Date.valueOf(startMonth.atDay(1)));
+        }
+        if (endMonth != null) {
+            sql.append(" AND bucket_month <= ?");
+            params.add(Date.valueOf(endMonth.atDay(1)));
+        }
+        sql.append(" GROUP BY bucket_month ORDER BY bucket_month");
+
+        List<MonthlySummary> summaries = new ArrayList<>();
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new MonthlySummary(
+                            YearMonth.from(rs.getDate("bucket_month").toLocalDate()),
+                            rs.getLong("income"),
+                            rs.getLong("expense"),
+                            rs.getLong("tx_count")
+                    ));
+                }
+            }
+            logger.info("Found {} monthly summaries between {} and {}", summaries.size(), startMonth, endMonth);
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve monthly summaries between {} and {}", startMonth, endMonth, e);
+            throw new RuntimeException("Failed to retrieve monthly summaries", e);
+        }
+        return summaries;
+    }
+
+    public Verification verify() {
+        try (Connection connection = databaseConfig.getConnection()) {
+            return verify(connection);
+        } catch (SQLException e) {
+            logger.error("Failed to verify transaction rollups", e);
+            throw new RuntimeException("Failed to verify transaction rollups", e);
+        }
+    }
+
+    // Reports the drift found before rebuilding, so operators can see what was repaired
+    public Verification rebuild() {
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                Verification before = verify(connection);
+                stmt.executeUpdate("DELETE FROM transaction_rollups");
+                stmt.executeUpdate("INSERT INTO transaction_rollups (bucket_month, category_id, type, total, tx_count) " + recomputeSql());
+                connection.commit();
+                logger.info("Rebuilt transaction rollups: {} buckets, {} drifted", before.bucketsChecked(), before.drifts().size());
+                return before;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to rebuild transaction rollups", e);
+            throw new RuntimeException("Failed to rebuild transaction rollups", e);
+        }
+    }
+
+    // Archived years keep their buckets, so the recount has to read them as well as the hot table
+    private String recomputeSql() {
+        List<String> tables = databaseConfig.getPartitions().layout().allTables();
+        if (tables.size() == 1) {
+            return RECOMPUTE_SQL.formatted(tables.get(0));
+        }
+        StringBuilder union = new StringBuilder("(");
+        for (String table : tables) {
+            if (union.length() > 1) {
+                union.append(" UNION ALL ");
+            }
+            union.append("SELECT amount, category_id, type, date FROM ").append(table);
+        }
+        return RECOMPUTE_SQL.formatted(union.append(") t"));
+    }
+
+    private Verification verify(Connection connection) throws SQLException {
+        Map<Bucket, long[]> expected = loadBuckets(connection, recomputeSql());
+        Map<Bucket, long[]> actual = loadBuckets(connection,
+                "SELECT bucket_month, category_id, type, total, tx_count FROM transaction_rollups WHERE tx_count <> 0 OR total <> 0");
+
+        Set<Bucket> buckets = new HashSet<>(expected.keySet());
+        buckets.addAll(actual.keySet());
+        List<Drift> drifts = new ArrayList<>();
+        for (Bucket bucket : buckets) {
+            long[] want = expected.getOrDefault(bucket, new long[2]);
+            long[] have = actual.getOrDefault(bucket, new long[2]);
+            // Amounts are exact minor units, so any difference at all is drift
+            if (want[0] != have[0] || want[1] != have[1]) {
+                drifts.add(new Drift(bucket, want[0], have[0], want[1], have[1]));
+            }
+        }
+        if (drifts.isEmpty()) {
+            logger.info("Transaction rollups verified: {} buckets consistent", buckets.size());
+        } else {
+            logger.warn("Transaction rollups drifted in {} of {} buckets", drifts.size(), buckets.size());
+        }
+        return new Verification(buckets.size(), drifts);
+    }
+
+    private Map<Bucket, long[]> loadBuckets(Connection connection, String sql) throws SQLException {
+        Map<Bucket, long[]> buckets = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Bucket bucket = new Bucket(rs.getDate("bucket_month").toLocalDate(),
+                        categories.nameOf(rs.getInt("category_id")), rs.getString("type"));
+                buckets.put(bucket, new long[]{rs.getLong("total"), rs.getLong("tx_count")});
+            }
+        }
+        return buckets;
+    }
+
+}
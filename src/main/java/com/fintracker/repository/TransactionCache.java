@@ -0,0 +1,138 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.CacheStats;
+import com.fintracker.model.Transaction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded LRU cache of transactions by ID, split into independently locked segments to limit contention.
+// Loads are stamped so that a row read before a concurrent write is never cached after it: readers take stamp(id)
+// before querying and publish with putIfUnchanged, and every write calls invalidate once its transaction has ended.
+public class TransactionCache {
+    private static final int MAX_SEGMENTS = 16;
+    // Generations are kept per stripe of ids rather than per id, so they need no eviction; a write to another id
+    // in the same stripe only costs a reader one skipped put
+    private static final int STRIPES = 1024;
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final Segment[] segments;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Below 16 entries there is one segment per entry, so the cache never holds more than maxSize
+    public TransactionCache(boolean enabled, int maxSize) {
+        this.enabled = enabled && maxSize > 0;
+        this.maxSize = Math.max(0, maxSize);
+        this.segments = new Segment[Math.max(1, Math.min(MAX_SEGMENTS, this.maxSize))];
+        int segmentCapacity = Math.max(1, this.maxSize / segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    // Entries are copied in and out because Transaction is mutable and callers edit what they get back
+    public Transaction get(long id) {
+        if (!enabled) {
+            return null;
+        }
+        Segment segment = segmentFor(id);
+        Transaction cached;
+        synchronized (segment) {
+            cached = segment.get(id);
+        }
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copyOf(cached);
+    }
+
+    // Take before reading the row from the database
+    public long stamp(long id) {
+        return generations.get(stripeOf(id));
+    }
+
+    // Caches a row read after stamp(id) returned stamp, unless a write to its stripe has ended since
+    public void putIfUnchanged(Transaction transaction, long stamp) {
+        if (!enabled) {
+            return;
+        }
+        Transaction copy = copyOf(transaction);
+        Segment segment = segmentFor(copy.getId());
+        synchronized (segment) {
+            if (generations.get(stripeOf(copy.getId())) == stamp) {
+                segment.put(copy.getId(), copy);
+            }
+        }
+    }
+
+    // Call after every write to the row, committed or not, so that no load that overlapped it gets cached
+    public void invalidate(long id) {
+        if (!enabled) {
+            return;
+        }
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            generations.incrementAndGet(stripeOf(id));
+            segment.remove(id);
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public CacheStats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStats(enabled, hits.sum(), misses.sum(), evictions.sum(), size, maxSize);
+    }
+
+    private Segment segmentFor(long id) {
+        return segments[(Long.hashCode(id) & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static int stripeOf(long id) {
+        return (Long.hashCode(id) & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    private static Transaction copyOf(Transaction transaction) {
+        return new Transaction(transaction.getId(), transaction.getType(), transaction.getAmount(),
+                transaction.getCategory(), transaction.getDate());
+    }
+
+    private final class Segment extends LinkedHashMap<Long, Transaction> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Transaction> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
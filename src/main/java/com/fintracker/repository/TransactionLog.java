@@ -0,0 +1,269 @@
+package com.fintracker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// The file behind TransactionLogStore: fixed-width records, memory-mapped one segment at a time as it grows.
+// Record 0 is a header. Every record ends with a CRC32C of its other bytes, so a torn write at the tail fails
+// the check and replay stops there; space that was never written has kind 0.
+// Appends must be serialised by the caller. Written records never change, so reads need no lock, and a mapping
+// stays readable after the log is closed or compacted away until its last reader lets go of it.
+final class TransactionLog implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionLog.class);
+    static final int RECORD_BYTES = 64;
+    // 64 MiB per mapping, so a segment boundary never splits a record
+    private static final int SEGMENT_RECORDS = 1 << 20;
+    private static final int SEGMENT_SHIFT = 20;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_RECORDS * RECORD_BYTES;
+    private static final int CHECKSUM = RECORD_BYTES - Integer.BYTES;
+    private static final long MAGIC = 0x4654_584C_4F47_0000L; // "FTXLOG"
+    private static final int VERSION = 1;
+
+    // Record kinds
+    static final byte HEADER = 1;
+    static final byte PUT = 2;
+    static final byte DELETE = 3;
+    static final byte NAME = 4;
+    static final byte CHECKPOINT = 5;
+    static final byte CLEAR_CHECKPOINT = 6;
+    static final byte COMMIT = 7;
+
+    private static final int KIND = 0;
+    private static final int HEADER_MAGIC = 8;
+    private static final int HEADER_VERSION = 16;
+
+    private final Path file;
+    private final FileChannel channel;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private final ByteBuffer pending = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private long end;
+    private long forcedThrough;
+
+    private TransactionLog(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    // Opens the log without replaying it; the owner replays and then calls recover
+    static TransactionLog open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        TransactionLog log = new TransactionLog(file, channel);
+        if (log.kind(0) == 0) {
+            log.begin(HEADER).putLong(HEADER_MAGIC, MAGIC).putInt(HEADER_VERSION, VERSION);
+            log.append();
+        } else if (!log.isIntact(0) || log.readLong(0, HEADER_MAGIC) != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a transaction log");
+        } else if (log.readInt(0, HEADER_VERSION) != VERSION) {
+            channel.close();
+            throw new IOException(file + " has unsupported transaction log version " + log.readInt(0, HEADER_VERSION));
+        } else {
+            log.end = 1;
+        }
+        return log;
+    }
+
+    // A fresh log, replacing any leftover file of the same name
+    static TransactionLog create(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        return open(file);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    // Number of records, including the header
+    long end() {
+        return end;
+    }
+
+    // Clears the scratch record and sets its kind; fill in the fields with absolute puts, then call append
+    ByteBuffer begin(byte kind) {
+        Arrays.fill(pending.array(), (byte) 0);
+        return pending.put(KIND, kind);
+    }
+
+    // Starts the scratch record as a copy of another log's record
+    ByteBuffer beginCopy(TransactionLog source, long record) {
+        source.segment(record).get(offsetOf(record), pending.array(), 0, RECORD_BYTES);
+        return pending;
+    }
+
+    long append() throws IOException {
+        crc.reset();
+        crc.update(pending.array(), 0, CHECKSUM);
+        pending.putInt(CHECKSUM, (int) crc.getValue());
+        long record = end;
+        writableSegment(record).put(offsetOf(record), pending.array(), 0, RECORD_BYTES);
+        end = record + 1;
+        return record;
+    }
+
+    // Fields of records that exist; reading past end is the caller's bug
+    byte kind(long record) {
+        if (!isMapped(record)) {
+            return 0;
+        }
+        return segment(record).get(offsetOf(record) + KIND);
+    }
+
+    byte readByte(long record, int field) {
+        return segment(record).get(offsetOf(record) + field);
+    }
+
+    short readShort(long record, int field) {
+        return segment(record).getShort(offsetOf(record) + field);
+    }
+
+    int readInt(long record, int field) {
+        return segment(record).getInt(offsetOf(record) + field);
+    }
+
+    long readLong(long record, int field) {
+        return segment(record).getLong(offsetOf(record) + field);
+    }
+
+    void readBytes(long record, int field, byte[] into, int intoOffset, int length) {
+        segment(record).get(offsetOf(record) + field, into, intoOffset, length);
+    }
+
+    // Only replay checks records, before any appends, so it can share the scratch record with them
+    boolean isIntact(long record) {
+        if (kind(record) == 0) {
+            return false;
+        }
+        segment(record).get(offsetOf(record), pending.array(), 0, CHECKSUM);
+        crc.reset();
+        crc.update(pending.array(), 0, CHECKSUM);
+        return (int) crc.getValue() == readInt(record, CHECKSUM);
+    }
+
+    // Called once replay has found the last good record: appends continue from validEnd, and everything after it
+    // (a torn record, an uncommitted batch) is zeroed through the end of the file so a later replay cannot pick it
+    // up again. Pages reach the device in any order, so intact records can follow a never-written one.
+    void recover(long validEnd) throws IOException {
+        long fileRecords = channel.size() / RECORD_BYTES;
+        long discarded = 0;
+        long lastDiscarded = validEnd;
+        for (long record = validEnd; record < fileRecords && isMapped(record); record++) {
+            if (clear(record)) {
+                discarded++;
+                lastDiscarded = record;
+            }
+        }
+        end = validEnd;
+        forcedThrough = Math.min(forcedThrough, validEnd);
+        if (discarded > 0) {
+            // The zeros must be durable before appends reuse the space, or a power failure could revive the records
+            forceRange(validEnd, lastDiscarded + 1);
+            logger.warn("Discarded {} incomplete records at the end of {}", discarded, file);
+        }
+    }
+
+    // Zeroes a record unless it already is, so the untouched space of a sparse file stays unallocated
+    private boolean clear(long record) {
+        MappedByteBuffer segment = segment(record);
+        int offset = offsetOf(record);
+        boolean written = false;
+        for (int i = 0; i < RECORD_BYTES && !written; i += Long.BYTES) {
+            written = segment.getLong(offset + i) != 0;
+        }
+        if (written) {
+            for (int i = 0; i < RECORD_BYTES; i += Long.BYTES) {
+                segment.putLong(offset + i, 0);
+            }
+        }
+        return written;
+    }
+
+    // Flushes the records appended since the last force to the storage device
+    void force() {
+        forceRange(forcedThrough, end);
+        forcedThrough = end;
+    }
+
+    // Records [from, to) must be mapped
+    private void forceRange(long from, long to) {
+        MappedByteBuffer[] mapped = segments;
+        for (int index = (int) (from >>> SEGMENT_SHIFT); index < mapped.length; index++) {
+            long first = (long) index << SEGMENT_SHIFT;
+            if (first >= to) {
+                break;
+            }
+            int start = first < from ? offsetOf(from) : 0;
+            int stop = to - first >= SEGMENT_RECORDS ? (int) SEGMENT_BYTES : offsetOf(to);
+            mapped[index].force(start, stop - start);
+        }
+    }
+
+    private boolean isMapped(long record) {
+        int index = (int) (record >>> SEGMENT_SHIFT);
+        if (index < segments.length) {
+            return true;
+        }
+        try {
+            // Replay maps segments the file already has; appends map new ones
+            if ((long) index * SEGMENT_BYTES >= channel.size()) {
+                return false;
+            }
+            mapThrough(index);
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map " + file, e);
+        }
+    }
+
+    private MappedByteBuffer segment(long record) {
+        return segments[(int) (record >>> SEGMENT_SHIFT)];
+    }
+
+    private MappedByteBuffer writableSegment(long record) throws IOException {
+        int index = (int) (record >>> SEGMENT_SHIFT);
+        if (index >= segments.length) {
+            mapThrough(index);
+        }
+        return segments[index];
+    }
+
+    // Mapping past the end of the file grows it; the new space reads as zeros
+    private synchronized void mapThrough(int index) throws IOException {
+        MappedByteBuffer[] mapped = segments;
+        if (index < mapped.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(mapped, index + 1);
+        for (int i = mapped.length; i <= index; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * SEGMENT_BYTES, SEGMENT_BYTES);
+        }
+        segments = grown;
+    }
+
+    private static int offsetOf(long record) {
+        return (int) (record & (SEGMENT_RECORDS - 1)) * RECORD_BYTES;
+    }
+
+    // Mappings stay valid after the channel is closed, so open streams can finish reading
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+}
@@ -0,0 +1,1088 @@
+package com.fintracker.repository;
+
+import com.fintracker.analytics.ColumnarLedger;
+import com.fintracker.metrics.MetricsRegistry;
+import com.fintracker.metrics.OperationMetrics;
+import com.fintracker.model.CacheStats;
+import com.fintracker.model.ImportCheckpoint;
+import com.fintracker.model.MonthlySummary;
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
+import com.fintracker.validator.TransactionValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Append-only TransactionStore for write-heavy deployments (fintracker.store=log). Every change appends one
+// fixed-width record to a memory-mapped TransactionLog: a save or update writes the row, a delete writes a
+// tombstone, and a batch ends with a COMMIT record so that replay applies it whole or not at all. An array
+// indexed by id holds the position of each row's latest record; it is rebuilt by replaying the log on open.
+// A background task rewrites the log without dead records once enough of it is garbage.
+// Lookups by id read one record, but filters, pages and aggregates scan every live row: there are no
+// secondary indexes, so query-heavy deployments are better served by H2.
+public class TransactionLogStore implements TransactionStore {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionLogStore.class);
+    private static final String INCOME = "income";
+    private static final String EXPENSE = "expense";
+    // Rewriting the log is not worth it for less garbage than this
+    private static final long MIN_COMPACTION_GARBAGE = 10_000;
+
+    // Record fields. PUT: type, flags, category, id, amount, date, batch. DELETE: id. NAME: namespace, length,
+    // name id, chunk start, chunk. CHECKPOINT: flags, source, the checkpoint's longs, batch. COMMIT: count, batch.
+    private static final int TYPE = 1;
+    private static final int FLAGS = 2;
+    private static final int CATEGORY = 4;
+    private static final int ID = 8;
+    private static final int AMOUNT = 16;
+    private static final int DATE = 24;
+    private static final int BATCH = 48;
+    private static final int NAMESPACE = 1;
+    private static final int NAME_LENGTH = 2;
+    private static final int NAME_ID = 4;
+    private static final int CHUNK_START = 8;
+    private static final int CHUNK = 12;
+    private static final int CHUNK_BYTES = 48;
+    private static final int SOURCE = 4;
+    private static final int FILE_SIZE = 8;
+    private static final int FILE_MODIFIED = 16;
+    private static final int OFFSET = 24;
+    private static final int LINE = 32;
+    private static final int IMPORTED = 40;
+    private static final int RECORD_COUNT = 8;
+    private static final byte BATCHED = 1;
+    private static final byte CATEGORIES = 0;
+    private static final byte SOURCES = 1;
+    private static final int ANY = -1;
+
+    private final Settings settings;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object compactionLock = new Object();
+    private final ScheduledExecutorService compactor;
+    private final CategorySearchIndex categorySearch = new CategorySearchIndex();
+    private final Names categories = new Names(categorySearch);
+    private final Names sources = new Names(null);
+    private final Map<Integer, ImportCheckpoint> checkpoints = new HashMap<>();
+    private TransactionLog log;
+    // Which file holds the log; changes only under the compaction lock
+    private long generation;
+    // Record of each id's current row, 0 when it has none
+    private long[] positions = new long[1024];
+    private long maxId;
+    private int liveRows;
+    private long nameRecords;
+    private long nextBatch = 1;
+
+    private final OperationMetrics saveMetrics;
+    private final OperationMetrics saveAllMetrics;
+    private final OperationMetrics saveImportBatchMetrics;
+    private final OperationMetrics saveBatchMetrics;
+    private final OperationMetrics deleteMetrics;
+    private final OperationMetrics updateMetrics;
+    private final OperationMetrics findByFilterMetrics;
+    private final OperationMetrics findByCategoriesMetrics;
+    private final OperationMetrics findPageMetrics;
+    private final OperationMetrics aggregateMetrics;
+    private final OperationMetrics streamMetrics;
+    private final OperationMetrics forEachMetrics;
+    private final OperationMetrics getAllMetrics;
+    private final OperationMetrics findByIdMetrics;
+    private final OperationMetrics compactMetrics;
+
+    // forceOnWrite flushes each change to the device before returning. Without it a change survives a process
+    // crash but not a power failure, like H2 with its default write delay.
+    public record Settings(boolean enabled, Path file, boolean forceOnWrite, long compactIntervalSeconds,
+                           int compactGarbagePercent) {
+        public Settings {
+            if (enabled && file == null) {
+                throw new IllegalArgumentException("Transaction log file must be set");
+            }
+            if (compactIntervalSeconds <= 0 || compactGarbagePercent <= 0 || compactGarbagePercent > 100) {
+                throw new IllegalArgumentException("Invalid transaction log settings: compaction interval must be "
+                        + "positive and garbage percent between 1 and 100");
+            }
+        }
+    }
+
+    public record CompactionReport(long recordsBefore, long recordsAfter, long elapsedNanos) {
+    }
+
+    public TransactionLogStore(Settings settings, MetricsRegistry metrics) {
+        this.settings = settings;
+        this.saveMetrics = metrics.operation("logstore", "save");
+        this.saveAllMetrics = metrics.operation("logstore", "saveAll");
+        this.saveImportBatchMetrics = metrics.operation("logstore", "saveImportBatch");
+        this.saveBatchMetrics = metrics.operation("logstore", "saveBatch");
+        this.deleteMetrics = metrics.operation("logstore", "delete");
+        this.updateMetrics = metrics.operation("logstore", "update");
+        this.findByFilterMetrics = metrics.operation("logstore", "findByFilter");
+        this.findByCategoriesMetrics = metrics.operation("logstore", "findByCategories");
+        this.findPageMetrics = metrics.operation("logstore", "findPage");
+        this.aggregateMetrics = metrics.operation("logstore", "aggregateByFilter");
+        this.streamMetrics = metrics.operation("logstore", "streamByFilter");
+        this.forEachMetrics = metrics.operation("logstore", "forEachByFilter");
+        this.getAllMetrics = metrics.operation("logstore", "getAll");
+        this.findByIdMetrics = metrics.operation("logstore", "findById");
+        this.compactMetrics = metrics.operation("logstore", "compact");
+        try {
+            generation = readManifest();
+            deleteStaleGenerations();
+            log = TransactionLog.open(generationFile(generation));
+            replay();
+        } catch (IOException e) {
+            logger.error("Failed to open transaction log {}", settings.file(), e);
+            throw new RuntimeException("Failed to open transaction log", e);
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fintracker-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfWorthwhile, settings.compactIntervalSeconds(),
+                settings.compactIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    private void replay() throws IOException {
+        long start = System.nanoTime();
+        long batchStart = -1;
+        long record = 1;
+        for (; log.isIntact(record); record++) {
+            byte kind = log.kind(record);
+            if (kind == TransactionLog.COMMIT) {
+                long batch = log.readLong(record, BATCH);
+                if (batchStart >= 0 && log.readLong(batchStart, BATCH) == batch) {
+                    for (long member = batchStart; member < record; member++) {
+                        apply(member);
+                    }
+                }
+                nextBatch = Math.max(nextBatch, batch + 1);
+                batchStart = -1;
+            } else if (isBatched(record)) {
+                if (batchStart < 0) {
+                    batchStart = record;
+                }
+            } else {
+                if (batchStart >= 0) {
+                    // Batches are appended without interruption, so this one can never be committed
+                    logger.warn("Ignoring uncommitted batch at record {} of {}", batchStart, log.file());
+                    batchStart = -1;
+                }
+                apply(record);
+            }
+        }
+        // An uncommitted batch at the end was cut short by a crash
+        log.recover(batchStart >= 0 ? batchStart : record);
+        categories.indexAll();
+        logger.info("Replayed {} records of {} in {} ms: {} transactions, {} categories", log.end(), log.file(),
+                (System.nanoTime() - start) / 1_000_000, liveRows, categories.size());
+    }
+
+    private boolean isBatched(long record) {
+        byte kind = log.kind(record);
+        return (kind == TransactionLog.PUT || kind == TransactionLog.CHECKPOINT)
+                && (log.readByte(record, FLAGS) & BATCHED) != 0;
+    }
+
+    private void apply(long record) {
+        switch (log.kind(record)) {
+            case TransactionLog.PUT -> index(log.readLong(record, ID), record);
+            case TransactionLog.DELETE -> unindex(log.readLong(record, ID));
+            case TransactionLog.NAME -> applyName(record);
+            case TransactionLog.CHECKPOINT -> checkpoints.put(log.readInt(record, SOURCE), readCheckpoint(record));
+            case TransactionLog.CLEAR_CHECKPOINT -> checkpoints.remove(log.readInt(record, SOURCE));
+            default -> {
+            }
+        }
+    }
+
+    // A name spans consecutive records; it is defined once its last chunk has been read
+    private void applyName(long record) {
+        nameRecords++;
+        int length = Short.toUnsignedInt(log.readShort(record, NAME_LENGTH));
+        int chunkStart = log.readInt(record, CHUNK_START);
+        if (chunkStart + CHUNK_BYTES < length) {
+            return;
+        }
+        byte[] bytes = new byte[length];
+        int chunks = chunkStart / CHUNK_BYTES + 1;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int from = chunk * CHUNK_BYTES;
+            log.readBytes(record - chunks + 1 + chunk, CHUNK, bytes, from, Math.min(CHUNK_BYTES, length - from));
+        }
+        Names names = log.readByte(record, NAMESPACE) == SOURCES ? sources : categories;
+        // Replay indexes the categories in one go once it is done
+        names.define(log.readInt(record, NAME_ID), new String(bytes, StandardCharsets.UTF_8), false);
+    }
+
+    private ImportCheckpoint readCheckpoint(long record) {
+        return new ImportCheckpoint(sources.name(log.readInt(record, SOURCE)),
+                log.readLong(record, FILE_SIZE), log.readLong(record, FILE_MODIFIED), log.readLong(record, OFFSET),
+                log.readLong(record, LINE), log.readLong(record, IMPORTED));
+    }
+
+    private void index(long id, long record) {
+        if (id >= positions.length) {
+            positions = Arrays.copyOf(positions, (int) Math.max(id + 1, positions.length * 2L));
+        }
+        if (positions[(int) id] == 0) {
+            liveRows++;
+        }
+        positions[(int) id] = record;
+        maxId = Math.max(maxId, id);
+    }
+
+    private void unindex(long id) {
+        if (id < positions.length && positions[(int) id] != 0) {
+            positions[(int) id] = 0;
+            liveRows--;
+        }
+        maxId = Math.max(maxId, id);
+    }
+
+    private long position(long id) {
+        return id < positions.length ? positions[(int) id] : 0;
+    }
+
+    @Override
+    public void save(Transaction transaction) {
+        saveMetrics.run(() -> append(transaction), 1);
+    }
+
+    private void append(Transaction transaction) {
+        TransactionValidator.validateTransaction(transaction);
+        write("save transaction", () -> {
+            int category = resolve(log, categories, CATEGORIES, transaction.getCategory());
+            long id = maxId + 1;
+            index(id, appendPut(log, id, transaction, category, 0));
+            transaction.setId(id);
+        });
+        logger.debug("Transaction with ID {} appended", transaction.getId());
+    }
+
+    @Override
+    public void saveAll(Collection<Transaction> transactions) {
+        saveAllMetrics.run(() -> {
+            if (transactions == null) {
+                throw new IllegalArgumentException("Transactions cannot be null");
+            }
+            if (!transactions.isEmpty()) {
+                appendBatch(transactions, null);
+            }
+        }, transactions == null ? 0 : transactions.size());
+    }
+
+    @Override
+    public void saveBatch(List<Transaction> transactions) {
+        saveBatchMetrics.run(() -> {
+            if (transactions == null || transactions.isEmpty()) {
+                throw new IllegalArgumentException("Batch cannot be empty");
+            }
+            appendBatch(transactions, null);
+        }, transactions == null ? 0 : transactions.size());
+    }
+
+    // The checkpoint is part of the batch, so a resumed import neither skips nor repeats rows
+    @Override
+    public void saveImportBatch(List<Transaction> transactions, ImportCheckpoint checkpoint) {
+        saveImportBatchMetrics.run(() -> {
+            if (checkpoint == null) {
+                throw new IllegalArgumentException("Import checkpoint cannot be null");
+            }
+            if (transactions == null || transactions.isEmpty()) {
+                throw new IllegalArgumentException("Batch cannot be empty");
+            }
+            appendBatch(transactions, checkpoint);
+        }, transactions == null ? 0 : transactions.size());
+    }
+
+    private void appendBatch(Collection<Transaction> transactions, ImportCheckpoint checkpoint) {
+        TransactionValidator.validateAll(transactions);
+        write("save batch of " + transactions.size() + " transactions", () -> {
+            // Names first: a batch's records must be contiguous for replay to recognise it
+            int[] categoryIds = new int[transactions.size()];
+            int row = 0;
+            for (Transaction transaction : transactions) {
+                categoryIds[row++] = resolve(log, categories, CATEGORIES, transaction.getCategory());
+            }
+            int source = checkpoint == null ? 0 : resolve(log, sources, SOURCES, checkpoint.source());
+            long batch = nextBatch++;
+            long firstId = maxId + 1;
+            long first = log.end();
+            row = 0;
+            for (Transaction transaction : transactions) {
+                appendPut(log, firstId + row, transaction, categoryIds[row], batch);
+                row++;
+            }
+            if (checkpoint != null) {
+                appendCheckpoint(log, source, checkpoint, batch);
+            }
+            log.begin(TransactionLog.COMMIT).putLong(RECORD_COUNT, log.end() - first).putLong(BATCH, batch);
+            log.append();
+            // Visible only now that the COMMIT record is written
+            row = 0;
+            for (Transaction transaction : transactions) {
+                index(firstId + row, first + row);
+                transaction.setId(firstId + row);
+                row++;
+            }
+            if (checkpoint != null) {
+                checkpoints.put(source, checkpoint);
+            }
+        });
+        logger.info("Appended batch of {} transactions", transactions.size());
+    }
+
+    @Override
+    public ImportCheckpoint findImportCheckpoint(String source) {
+        lock.readLock().lock();
+        try {
+            Integer id = sources.find(source);
+            return id == null ? null : checkpoints.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearImportCheckpoint(String source) {
+        write("delete import checkpoint", () -> {
+            Integer id = sources.find(source);
+            if (id != null && checkpoints.remove(id) != null) {
+                log.begin(TransactionLog.CLEAR_CHECKPOINT).putInt(SOURCE, id);
+                log.append();
+            }
+        });
+    }
+
+    @Override
+    public void delete(long id) {
+        deleteMetrics.run(() -> deleteRow(id), 1);
+    }
+
+    private void deleteRow(long id) {
+        TransactionValidator.validateTransactionId(id);
+        write("delete transaction", () -> {
+            TransactionValidator.checkTransactionExists(id, position(id) != 0);
+            log.begin(TransactionLog.DELETE).putLong(ID, id);
+            log.append();
+            unindex(id);
+        });
+        logger.info("Transaction with ID {} deleted successfully", id);
+    }
+
+    @Override
+    public void update(Transaction transaction) {
+        updateMetrics.run(() -> updateRow(transaction), 1);
+    }
+
+    private void updateRow(Transaction transaction) {
+        TransactionValidator.validateTransaction(transaction);
+        write("update transaction", () -> {
+            TransactionValidator.checkTransactionExists(transaction.getId(), position(transaction.getId()) != 0);
+            int category = resolve(log, categories, CATEGORIES, transaction.getCategory());
+            index(transaction.getId(), appendPut(log, transaction.getId(), transaction, category, 0));
+        });
+        logger.info("Transaction with ID {} updated: {} | {} | {} | {}", transaction.getId(), transaction.getType(),
+                transaction.getAmount(), transaction.getCategory(), transaction.getDate());
+    }
+
+    @Override
+    public Transaction findById(long id) {
+        return findByIdMetrics.call(() -> loadById(id), transaction -> 1);
+    }
+
+    private Transaction loadById(long id) {
+        TransactionValidator.validateTransactionId(id);
+        lock.readLock().lock();
+        try {
+            long record = position(id);
+            TransactionValidator.checkTransactionExists(id, record != 0);
+            return read(log, categories.byId, record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> getAll() {
+        return getAllMetrics.call(() -> scan(null, null, null, null), List::size);
+    }
+
+    @Override
+    public List<Transaction> findByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        return findByFilterMetrics.call(() -> {
+            TransactionValidator.validateFilterParams(type, category, startDate, endDate);
+            List<Transaction> transactions = scan(type, category, startDate, endDate);
+            TransactionValidator.logIfTransactionsEmpty(transactions, type, category, startDate, endDate);
+            return transactions;
+        }, List::size);
+    }
+
+    @Override
+    public List<Transaction> findByCategories(String type, Collection<String> categoryNames, LocalDateTime startDate,
+                                              LocalDateTime endDate) {
+        return findByCategoriesMetrics.call(() -> {
+            TransactionValidator.validateCategoriesFilter(type, categoryNames, startDate, endDate);
+            List<Transaction> transactions = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                scan(filter(type, categoryNames, startDate, endDate), transactions);
+            } finally {
+                lock.readLock().unlock();
+            }
+            logger.info("Found {} transactions matching filter: type={}, categories={}, startDate={}, endDate={}",
+                    transactions.size(), type, categoryNames, startDate, endDate);
+            return transactions;
+        }, List::size);
+    }
+
+    // In id order, which is also insertion order
+    private List<Transaction> scan(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Transaction> transactions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            scan(filter(type, category, startDate, endDate), transactions);
+        } finally {
+            lock.readLock().unlock();
+        }
+        logger.info("Found {} transactions matching filter: type={}, category={}, startDate={}, endDate={}",
+                transactions.size(), type, category, startDate, endDate);
+        return transactions;
+    }
+
+    // Caller holds the read lock
+    private void scan(Filter filter, List<Transaction> into) {
+        for (long id = 1; id <= maxId; id++) {
+            long record = positions[(int) id];
+            if (record != 0 && filter.matches(log, record)) {
+                into.add(read(log, categories.byId, record));
+            }
+        }
+    }
+
+    @Override
+    public TransactionPage findPage(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                    TransactionPage.Cursor after, int limit) {
+        return findPageMetrics.call(() -> queryPage(type, category, startDate, endDate, after, limit),
+                page -> page.transactions().size());
+    }
+
+    // Keeps the limit + 1 smallest (date, id) keys in a max-heap, so a page costs one scan and no full sort
+    private TransactionPage queryPage(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                      TransactionPage.Cursor after, int limit) {
+        TransactionValidator.validateFilterParams(type, category, startDate, endDate);
+        TransactionValidator.validatePageRequest(after, limit);
+        long afterSecond = after == null ? Long.MIN_VALUE : after.date().toEpochSecond(ZoneOffset.UTC);
+        boolean afterWholeSecond = after == null || after.date().getNano() == 0;
+        long afterId = after == null ? 0 : after.id();
+        PriorityQueue<long[]> smallest = new PriorityQueue<>(limit + 2,
+                (left, right) -> left[0] != right[0] ? Long.compare(right[0], left[0]) : Long.compare(right[1], left[1]));
+        List<Transaction> transactions = new ArrayList<>(limit);
+        TransactionPage.Cursor nextCursor = null;
+        lock.readLock().lock();
+        try {
+            Filter filter = filter(type, category, startDate, endDate);
+            for (long id = 1; id <= maxId; id++) {
+                long record = positions[(int) id];
+                if (record == 0 || !filter.matches(log, record)) {
+                    continue;
+                }
+                long date = log.readLong(record, DATE);
+                if (date < afterSecond || date == afterSecond && (!afterWholeSecond || id <= afterId)) {
+                    continue;
+                }
+                if (smallest.size() <= limit) {
+                    smallest.add(new long[]{date, id, record});
+                } else {
+                    long[] largest = smallest.peek();
+                    if (date < largest[0] || date == largest[0] && id < largest[1]) {
+                        smallest.poll();
+                        smallest.add(new long[]{date, id, record});
+                    }
+                }
+            }
+            boolean hasMore = smallest.size() > limit;
+            if (hasMore) {
+                smallest.poll();
+            }
+            long[][] page = smallest.toArray(new long[0][]);
+            Arrays.sort(page, smallest.comparator().reversed());
+            for (long[] row : page) {
+                transactions.add(read(log, categories.byId, row[2]));
+            }
+            if (hasMore) {
+                Transaction last = transactions.get(transactions.size() - 1);
+                nextCursor = new TransactionPage.Cursor(last.getDate(), last.getId());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        logger.info("Found page of {} transactions after {} matching filter: type={}, category={}, startDate={}, endDate={}",
+                transactions.size(), after, type, category, startDate, endDate);
+        return new TransactionPage(transactions, nextCursor);
+    }
+
+    // Grouped in memory by ColumnarLedger, which produces the same groups, keys and order as the H2 query
+    @Override
+    public List<TransactionAggregate> aggregateByFilter(TransactionGrouping grouping, String type, String category,
+                                                        LocalDateTime startDate, LocalDateTime endDate) {
+        return aggregateMetrics.call(() -> {
+            TransactionValidator.validateGrouping(grouping);
+            return ColumnarLedger.load(this, type, category, startDate, endDate)
+                    .aggregate(grouping, null, null, null, null);
+        }, List::size);
+    }
+
+    // Iterates a copy of the index taken when the stream is opened; written records never change, so the
+    // stream needs no lock and sees none of the changes made while it is open
+    @Override
+    public Stream<Transaction> streamByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        return streamMetrics.call(() -> openStream(type, category, startDate, endDate), stream -> 0);
+    }
+
+    private Stream<Transaction> openStream(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        TransactionValidator.validateFilterParams(type, category, startDate, endDate);
+        TransactionLog snapshotLog;
+        long[] snapshot;
+        List<String> categoryNames;
+        Filter filter;
+        lock.readLock().lock();
+        try {
+            snapshotLog = log;
+            snapshot = Arrays.copyOf(positions, (int) maxId + 1);
+            categoryNames = List.copyOf(categories.byId);
+            filter = filter(type, category, startDate, endDate);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Spliterator<Transaction> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int next = 1;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Transaction> action) {
+                while (next < snapshot.length) {
+                    long record = snapshot[next++];
+                    if (record != 0 && filter.matches(snapshotLog, record)) {
+                        action.accept(read(snapshotLog, categoryNames, record));
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    @Override
+    public void forEachByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                Consumer<? super Transaction> action) {
+        forEachMetrics.call(() -> {
+            long[] visited = new long[1];
+            try (Stream<Transaction> transactions = openStream(type, category, startDate, endDate)) {
+                transactions.forEach(transaction -> {
+                    action.accept(transaction);
+                    visited[0]++;
+                });
+            }
+            return visited[0];
+        }, Long::longValue);
+    }
+
+    @Override
+    public long getBalance() {
+        long balance = 0;
+        lock.readLock().lock();
+        try {
+            for (long id = 1; id <= maxId; id++) {
+                long record = positions[(int) id];
+                if (record != 0) {
+                    long amount = log.readLong(record, AMOUNT);
+                    balance += log.readByte(record, TYPE) == 1 ? amount : -amount;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        logger.info("Computed balance from transaction log: {}", balance);
+        return balance;
+    }
+
+    @Override
+    public List<MonthlySummary> findMonthlySummaries(YearMonth startMonth, YearMonth endMonth) {
+        LocalDateTime start = startMonth == null ? null : startMonth.atDay(1).atStartOfDay();
+        LocalDateTime end = endMonth == null ? null : endMonth.plusMonths(1).atDay(1).atStartOfDay().minusSeconds(1);
+        // income, expense, count per month
+        TreeMap<YearMonth, long[]> months = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            Filter filter = filter(null, (String) null, start, end);
+            for (long id = 1; id <= maxId; id++) {
+                long record = positions[(int) id];
+                if (record == 0 || !filter.matches(log, record)) {
+                    continue;
+                }
+                YearMonth month = YearMonth.from(LocalDateTime.ofEpochSecond(log.readLong(record, DATE), 0, ZoneOffset.UTC));
+                long[] totals = months.computeIfAbsent(month, key -> new long[3]);
+                totals[log.readByte(record, TYPE) == 1 ? 0 : 1] += log.readLong(record, AMOUNT);
+                totals[2]++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<MonthlySummary> summaries = new ArrayList<>(months.size());
+        months.forEach((month, totals) -> summaries.add(new MonthlySummary(month, totals[0], totals[1], totals[2])));
+        logger.info("Found {} monthly summaries between {} and {}", summaries.size(), startMonth, endMonth);
+        return summaries;
+    }
+
+    @Override
+    public List<String> searchCategories(String query, int limit) {
+        return categorySearch.search(query, limit);
+    }
+
+    @Override
+    public List<String> getCategoryNames() {
+        lock.readLock().lock();
+        try {
+            List<String> names = new ArrayList<>(categories.byId);
+            names.sort(null);
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rows are read straight from the mapped log, so there is no object cache
+    @Override
+    public CacheStats getCacheStats() {
+        return CacheStats.DISABLED;
+    }
+
+    // Archiving is an H2 feature; the log keeps every year writable
+    @Override
+    public int readOnlyThroughYear() {
+        return PartitionLayout.NO_YEAR;
+    }
+
+    // Rewrites the live records into the next generation's file and points the manifest at it. Writers only wait
+    // while the records they appended during the copy are carried over; open streams keep reading the old mapping.
+    public CompactionReport compact() {
+        return compactMetrics.call(this::rewrite, report -> report.recordsAfter());
+    }
+
+    private CompactionReport rewrite() {
+        synchronized (compactionLock) {
+            long start = System.nanoTime();
+            TransactionLog source;
+            long copiedThrough;
+            long[] live;
+            long highestId;
+            List<String> categoryNames;
+            List<String> sourceNames;
+            Map<Integer, ImportCheckpoint> liveCheckpoints;
+            lock.readLock().lock();
+            try {
+                source = log;
+                copiedThrough = log.end();
+                live = Arrays.copyOf(positions, (int) maxId + 1);
+                highestId = maxId;
+                categoryNames = List.copyOf(categories.byId);
+                sourceNames = List.copyOf(sources.byId);
+                liveCheckpoints = new HashMap<>(checkpoints);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            TransactionLog compacted = null;
+            try {
+                compacted = TransactionLog.create(generationFile(generation + 1));
+                long names = appendNames(compacted, CATEGORIES, categoryNames) + appendNames(compacted, SOURCES, sourceNames);
+                for (Map.Entry<Integer, ImportCheckpoint> entry : liveCheckpoints.entrySet()) {
+                    appendCheckpoint(compacted, entry.getKey(), entry.getValue(), 0);
+                }
+                long[] moved = new long[live.length];
+                for (int id = 1; id < live.length; id++) {
+                    if (live[id] != 0) {
+                        compacted.beginCopy(source, live[id]).put(FLAGS, (byte) 0).putLong(BATCH, 0);
+                        moved[id] = compacted.append();
+                    }
+                }
+                if (highestId > 0 && live[(int) highestId] == 0) {
+                    // Keeps the ids of deleted rows from being handed out again
+                    compacted.begin(TransactionLog.DELETE).putLong(ID, highestId);
+                    compacted.append();
+                }
+
+                lock.writeLock().lock();
+                try {
+                    // Only complete batches can be here, since a batch is appended under the write lock
+                    for (long record = copiedThrough; record < log.end(); record++) {
+                        compacted.beginCopy(log, record);
+                        long copy = compacted.append();
+                        byte kind = compacted.kind(copy);
+                        long id = compacted.readLong(copy, ID);
+                        if (kind == TransactionLog.PUT) {
+                            if (id >= moved.length) {
+                                moved = Arrays.copyOf(moved, (int) Math.max(id + 1, moved.length * 2L));
+                            }
+                            moved[(int) id] = copy;
+                        } else if (kind == TransactionLog.DELETE && id < moved.length) {
+                            moved[(int) id] = 0;
+                        } else if (kind == TransactionLog.NAME) {
+                            names++;
+                        }
+                    }
+                    long recordsBefore = log.end();
+                    compacted.force();
+                    writeManifest(generation + 1);
+                    TransactionLog replaced = log;
+                    log = compacted;
+                    generation++;
+                    positions = moved.length >= positions.length ? moved : Arrays.copyOf(moved, positions.length);
+                    nameRecords = names;
+                    replaced.close();
+                    deleteGeneration(replaced.file());
+                    CompactionReport report = new CompactionReport(recordsBefore, log.end(), System.nanoTime() - start);
+                    logger.info("Compacted {} from {} to {} records in {} ms", settings.file(), report.recordsBefore(),
+                            report.recordsAfter(), report.elapsedNanos() / 1_000_000);
+                    return report;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (IOException e) {
+                if (compacted != null && compacted != log) {
+                    try {
+                        compacted.close();
+                        Files.deleteIfExists(compacted.file());
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+                logger.error("Failed to compact transaction log {}", settings.file(), e);
+                throw new RuntimeException("Failed to compact transaction log", e);
+            }
+        }
+    }
+
+    private void compactIfWorthwhile() {
+        try {
+            long records;
+            long garbage;
+            lock.readLock().lock();
+            try {
+                records = log.end();
+                garbage = records - 1 - liveRows - nameRecords - checkpoints.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (garbage >= MIN_COMPACTION_GARBAGE && garbage * 100 >= records * settings.compactGarbagePercent()) {
+                compact();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Background compaction of {} failed", settings.file(), e);
+        }
+    }
+
+    // Generation 0 is the configured file itself, so logs written before compaction switched files still open.
+    // Later generations are "<file>.<n>", and "<file>.current" names the live one. Compaction never renames a
+    // log: Windows refuses to replace or delete a file while any mapping of it is open, and open streams keep
+    // theirs. Only the manifest, which is never mapped, is replaced by rename.
+    private Path generationFile(long generation) {
+        Path file = settings.file();
+        return generation == 0 ? file : file.resolveSibling(file.getFileName() + "." + generation);
+    }
+
+    private Path manifestFile() {
+        return settings.file().resolveSibling(settings.file().getFileName() + ".current");
+    }
+
+    private long readManifest() throws IOException {
+        Path manifest = manifestFile();
+        if (!Files.exists(manifest)) {
+            return 0;
+        }
+        String content = Files.readString(manifest, StandardCharsets.US_ASCII).trim();
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            throw new IOException(manifest + " does not name a log generation: " + content, e);
+        }
+    }
+
+    // Written beside the manifest and renamed over it, so a crash leaves either the old generation or the new one
+    private void writeManifest(long generation) throws IOException {
+        Path manifest = manifestFile();
+        Path written = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(generation).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(written, manifest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(manifest.toAbsolutePath().getParent());
+    }
+
+    // Makes the rename, and the new generation's directory entry with it, survive a power failure. Some platforms
+    // (Windows) cannot open a directory; there the rename is as durable as the file system makes it.
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not flush directory {}: {}", directory, e.toString());
+        }
+    }
+
+    // Removes a compaction that crashed before switching, and replaced generations that could not be deleted
+    // at the time because they were still mapped
+    private void deleteStaleGenerations() throws IOException {
+        Path file = settings.file().toAbsolutePath();
+        String prefix = file.getFileName() + ".";
+        List<Path> stale = new ArrayList<>();
+        if (!Files.isDirectory(file.getParent())) {
+            return;
+        }
+        if (generation != 0 && Files.exists(file)) {
+            stale.add(file);
+        }
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            siblings.filter(sibling -> {
+                String name = sibling.getFileName().toString();
+                return name.startsWith(prefix) && name.length() > prefix.length()
+                        && name.substring(prefix.length()).chars().allMatch(Character::isDigit)
+                        && !name.equals(prefix + generation);
+            }).forEach(stale::add);
+        }
+        for (Path old : stale) {
+            deleteGeneration(old);
+        }
+    }
+
+    private void deleteGeneration(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.info("Could not delete replaced transaction log {} yet ({}); it is removed on the next open",
+                    file, e.toString());
+        }
+    }
+
+    // Waits for a running compaction, then flushes and closes the log
+    @Override
+    public void close() {
+        compactor.shutdown();
+        synchronized (compactionLock) {
+            lock.writeLock().lock();
+            try {
+                log.close();
+                logger.info("Transaction log {} closed", settings.file());
+            } catch (IOException e) {
+                logger.error("Failed to close transaction log {}", settings.file(), e);
+                throw new RuntimeException("Failed to close transaction log", e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void write(String operation, LogWrite write) {
+        lock.writeLock().lock();
+        try {
+            write.run();
+            if (settings.forceOnWrite()) {
+                log.force();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to {} in transaction log {}", operation, settings.file(), e);
+            throw new RuntimeException("Failed to " + operation, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private interface LogWrite {
+        void run() throws IOException;
+    }
+
+    private static long appendPut(TransactionLog log, long id, Transaction transaction, int category, long batch)
+            throws IOException {
+        log.begin(TransactionLog.PUT)
+                .put(TYPE, INCOME.equals(transaction.getType()) ? (byte) 1 : (byte) 0)
+                .put(FLAGS, batch == 0 ? 0 : BATCHED)
+                .putInt(CATEGORY, category)
+                .putLong(ID, id)
+                .putLong(AMOUNT, transaction.getAmount())
+                .putLong(DATE, transaction.getDate().toEpochSecond(ZoneOffset.UTC))
+                .putLong(BATCH, batch);
+        return log.append();
+    }
+
+    private static void appendCheckpoint(TransactionLog log, int source, ImportCheckpoint checkpoint,
+                                         long batch) throws IOException {
+        log.begin(TransactionLog.CHECKPOINT)
+                .put(FLAGS, batch == 0 ? 0 : BATCHED)
+                .putInt(SOURCE, source)
+                .putLong(FILE_SIZE, checkpoint.fileSize())
+                .putLong(FILE_MODIFIED, checkpoint.fileModifiedMillis())
+                .putLong(OFFSET, checkpoint.offset())
+                .putLong(LINE, checkpoint.line())
+                .putLong(IMPORTED, checkpoint.imported())
+                .putLong(BATCH, batch);
+        log.append();
+    }
+
+    // Returns the name's id, appending it to the log first if it is new
+    private int resolve(TransactionLog log, Names names, byte namespace, String name) throws IOException {
+        Integer id = names.find(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = names.size();
+        nameRecords += appendName(log, namespace, newId, name);
+        names.define(newId, name, true);
+        return newId;
+    }
+
+    private static long appendNames(TransactionLog log, byte namespace, List<String> names) throws IOException {
+        long records = 0;
+        for (int id = 0; id < names.size(); id++) {
+            records += appendName(log, namespace, id, names.get(id));
+        }
+        return records;
+    }
+
+    private static int appendName(TransactionLog log, byte namespace, int id, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Name is longer than 65535 bytes: " + name.substring(0, 32) + "...");
+        }
+        int records = 0;
+        int chunkStart = 0;
+        do {
+            ByteBuffer record = log.begin(TransactionLog.NAME)
+                    .put(NAMESPACE, namespace)
+                    .putShort(NAME_LENGTH, (short) bytes.length)
+                    .putInt(NAME_ID, id)
+                    .putInt(CHUNK_START, chunkStart);
+            record.put(CHUNK, bytes, chunkStart, Math.min(CHUNK_BYTES, bytes.length - chunkStart));
+            log.append();
+            records++;
+            chunkStart += CHUNK_BYTES;
+        } while (chunkStart < bytes.length);
+        return records;
+    }
+
+    private static Transaction read(TransactionLog log, List<String> categoryNames, long record) {
+        return new Transaction(
+                log.readLong(record, ID),
+                log.readByte(record, TYPE) == 1 ? INCOME : EXPENSE,
+                log.readLong(record, AMOUNT),
+                categoryNames.get(log.readInt(record, CATEGORY)),
+                LocalDateTime.ofEpochSecond(log.readLong(record, DATE), 0, ZoneOffset.UTC)
+        );
+    }
+
+    private Filter filter(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        return filter(type, category == null ? null : List.of(category), startDate, endDate);
+    }
+
+    // Dates are stored in whole seconds, so a start with a fraction only matches from the next second on.
+    // A null category list matches every category; names with no category match nothing.
+    private Filter filter(String type, Collection<String> categoryNames, LocalDateTime startDate, LocalDateTime endDate) {
+        int typeCode = type == null ? ANY : INCOME.equals(type) ? 1 : 0;
+        boolean[] categoryMask = null;
+        if (categoryNames != null) {
+            categoryMask = new boolean[categories.size()];
+            for (String name : categoryNames) {
+                Integer id = categories.find(name);
+                if (id != null) {
+                    categoryMask[id] = true;
+                }
+            }
+        }
+        long from = startDate == null ? Long.MIN_VALUE
+                : startDate.toEpochSecond(ZoneOffset.UTC) + (startDate.getNano() > 0 ? 1 : 0);
+        long to = endDate == null ? Long.MAX_VALUE : endDate.toEpochSecond(ZoneOffset.UTC);
+        return new Filter(typeCode, categoryMask, from, to);
+    }
+
+    private record Filter(int type, boolean[] categories, long from, long to) {
+        boolean matches(TransactionLog log, long record) {
+            long date = log.readLong(record, DATE);
+            return date >= from && date <= to
+                    && (type == ANY || log.readByte(record, TYPE) == type)
+                    && (categories == null || categories[log.readInt(record, CATEGORY)]);
+        }
+    }
+
+    // Dense ids in order of first use; names are never removed
+    private static final class Names {
+        private final List<String> byId = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+        // Null for names that are not searched
+        private final CategorySearchIndex search;
+
+        Names(CategorySearchIndex search) {
+            this.search = search;
+        }
+
+        void define(int id, String name, boolean index) {
+            while (byId.size() <= id) {
+                byId.add(null);
+            }
+            byId.set(id, name);
+            ids.put(name, id);
+            if (index && search != null) {
+                search.add(name);
+            }
+        }
+
+        void indexAll() {
+            if (search != null) {
+                search.addAll(byId);
+            }
+        }
+
+        Integer find(String name) {
+            return ids.get(name);
+        }
+
+        String name(int id) {
+            return byId.get(id);
+        }
+
+        int size() {
+            return byId.size();
+        }
+    }
+
+}
@@ -0,0 +1,283 @@
+package com.fintracker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Yearly partitioning of the transactions table. archiveThrough moves every row of each closed year into its own
+// read-only table, transactions_y<year>, so the hot table only holds open years and stays small no matter how
+// much history accumulates. Queries prune to the tables their date range touches (see PartitionLayout).
+public class TransactionPartitions {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitions.class);
+    private static final String CATALOG_SQL =
+            "SELECT partition_year, table_name, row_count, min_id, max_id FROM transaction_partitions ORDER BY partition_year";
+    private static final String CATALOG_INSERT_SQL = "INSERT INTO transaction_partitions "
+            + "(partition_year, table_name, row_count, min_id, max_id, archived_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String COLUMNS = "id, type, amount, category_id, date";
+
+    private final DatabaseConfig databaseConfig;
+    // Writers share the read side; the final pass of an archive move takes the write side (see guardWrite)
+    private final ReentrantReadWriteLock writeBarrier = new ReentrantReadWriteLock();
+    private volatile PartitionLayout layout;
+
+    public record ArchiveReport(int year, String table, long rowsMoved, long elapsedNanos) {
+    }
+
+    public TransactionPartitions(DatabaseConfig databaseConfig) {
+        this.databaseConfig = databaseConfig;
+    }
+
+    // Loaded from the catalog on first use, after TransactionRepository has applied the migrations
+    public PartitionLayout layout() {
+        PartitionLayout current = layout;
+        if (current == null) {
+            synchronized (this) {
+                if (layout == null) {
+                    layout = load();
+                }
+                current = layout;
+            }
+        }
+        return current;
+    }
+
+    // Runs a write that checks the layout and commits, so an archive move cannot finish between the two.
+    // Every TransactionRepository write goes through here; they all share this instance via DatabaseConfig.
+    void guardWrite(Runnable write) {
+        Lock lock = writeBarrier.readLock();
+        lock.lock();
+        try {
+            write.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Closes every year up to and including throughYear, oldest first. Each month is moved in its own transaction
+    // as a single INSERT ... SELECT FROM OLD TABLE (DELETE ...), so every row is in exactly one table at all times.
+    // An interrupted run leaves the year open and resumes where it stopped when called again.
+    public synchronized List<ArchiveReport> archiveThrough(int throughYear) {
+        int currentYear = LocalDateTime.now().getYear();
+        if (throughYear >= currentYear) {
+            throw new IllegalArgumentException("Only closed years can be archived; " + throughYear + " is still open");
+        }
+        PartitionLayout current = layout();
+        if (throughYear <= current.archivedThroughYear()) {
+            return List.of();
+        }
+        List<ArchiveReport> reports = new ArrayList<>();
+        try (Connection connection = databaseConfig.getConnection()) {
+            Integer oldestYear = oldestHotYear(connection);
+            int firstYear = oldestYear == null ? throughYear : Math.min(throughYear, oldestYear);
+            if (current.archivedThroughYear() != PartitionLayout.NO_YEAR) {
+                firstYear = Math.max(firstYear, current.archivedThroughYear() + 1);
+            }
+            for (int year = firstYear; year <= throughYear; year++) {
+                reports.add(archiveYear(connection, year));
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to archive transactions through {}", throughYear, e);
+            throw new RuntimeException("Failed to archive transactions", e);
+        }
+        return reports;
+    }
+
+    private ArchiveReport archiveYear(Connection connection, int year) throws SQLException {
+        long start = System.nanoTime();
+        Timestamp from = Timestamp.valueOf(LocalDateTime.of(year, 1, 1, 0, 0));
+        Timestamp to = Timestamp.valueOf(LocalDateTime.of(year + 1, 1, 1, 0, 0));
+        String table = PartitionLayout.archiveTable(year);
+        PartitionLayout before = layout;
+        // Without the placeholder load() adds for an interrupted move of this year
+        List<PartitionLayout.Partition> settled = new ArrayList<>(before.archives());
+        settled.removeIf(partition -> partition.year() == year);
+        int readOnlyThrough = Math.max(year, before.readOnlyThroughYear());
+        boolean resumed = tableExists(connection, table);
+        if (!resumed && countHotRows(connection, from, to) == 0) {
+            recordPartition(connection, year, null, 0, null, null);
+            layout = new PartitionLayout(year, readOnlyThrough, settled);
+            logger.info("Closed {} with no transactions to archive", year);
+            return new ArchiveReport(year, null, 0, System.nanoTime() - start);
+        }
+
+        createArchiveTable(connection, table);
+        // Writers see the year as read-only from here on, while readers still include the hot table for it
+        List<PartitionLayout.Partition> moving = new ArrayList<>(settled);
+        moving.add(new PartitionLayout.Partition(year, table, 0, Long.MIN_VALUE, Long.MAX_VALUE));
+        layout = new PartitionLayout(before.archivedThroughYear(), readOnlyThrough, moving);
+
+        String moveSql = "INSERT INTO " + table + " (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM OLD TABLE (DELETE FROM " + PartitionLayout.HOT_TABLE + " WHERE date >= ? AND date < ?)";
+        long moved = 0;
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(moveSql)) {
+            for (int month = 1; month <= 12; month++) {
+                LocalDateTime monthStart = LocalDateTime.of(year, month, 1, 0, 0);
+                moved += moveRange(connection, stmt, Timestamp.valueOf(monthStart),
+                        Timestamp.valueOf(monthStart.plusMonths(1)));
+            }
+            // Waits for writers that checked the layout before the year became read-only, then moves their rows.
+            // Writers that start after this see the year as read-only, so nothing can land in the hot table later.
+            Lock barrier = writeBarrier.writeLock();
+            barrier.lock();
+            try {
+                moved += moveRange(connection, stmt, from, to);
+            } finally {
+                barrier.unlock();
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        long rowCount;
+        Long minId;
+        Long maxId;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MIN(id), MAX(id) FROM " + table)) {
+            rs.next();
+            rowCount = rs.getLong(1);
+            minId = rs.getObject(2, Long.class);
+            maxId = rs.getObject(3, Long.class);
+        }
+        recordPartition(connection, year, table, rowCount, minId, maxId);
+        if (rowCount > 0) {
+            settled.add(new PartitionLayout.Partition(year, table, rowCount, minId, maxId));
+        }
+        layout = new PartitionLayout(year, readOnlyThrough, settled);
+        long elapsed = System.nanoTime() - start;
+        logger.info("Archived {} transactions from {} into {} in {} ms{}", rowCount, year, table,
+                elapsed / 1_000_000, resumed ? " (resumed)" : "");
+        return new ArchiveReport(year, table, moved, elapsed);
+    }
+
+    private long moveRange(Connection connection, PreparedStatement stmt, Timestamp from, Timestamp to)
+            throws SQLException {
+        try {
+            stmt.setTimestamp(1, from);
+            stmt.setTimestamp(2, to);
+            int moved = stmt.executeUpdate();
+            connection.commit();
+            return moved;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    // Same columns and indexes as the hot table, except that ids are copied rather than generated
+    private void createArchiveTable(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + table + " (id BIGINT PRIMARY KEY, type VARCHAR(255),"
+                    + " amount BIGINT, category_id INT, date TIMESTAMP)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_date_id ON " + table + " (date, id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_type_date_id ON " + table + " (type, date, id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_category_date_id ON " + table
+                    + " (category_id, date, id)");
+        }
+    }
+
+    private void recordPartition(Connection connection, int year, String table, long rowCount, Long minId, Long maxId)
+            throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(CATALOG_INSERT_SQL)) {
+            stmt.setInt(1, year);
+            stmt.setString(2, table);
+            stmt.setLong(3, rowCount);
+            stmt.setObject(4, minId);
+            stmt.setObject(5, maxId);
+            stmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.executeUpdate();
+        }
+    }
+
+    private Integer oldestHotYear(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(date) FROM " + PartitionLayout.HOT_TABLE)) {
+            rs.next();
+            Timestamp oldest = rs.getTimestamp(1);
+            return oldest == null ? null : oldest.toLocalDateTime().getYear();
+        }
+    }
+
+    private long countHotRows(Connection connection, Timestamp from, Timestamp to) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT COUNT(*) FROM " + PartitionLayout.HOT_TABLE + " WHERE date >= ? AND date < ?")) {
+            stmt.setTimestamp(1, from);
+            stmt.setTimestamp(2, to);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getTables(null, null, table.toUpperCase(), new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private PartitionLayout load() {
+        List<PartitionLayout.Partition> archives = new ArrayList<>();
+        int archivedThrough = PartitionLayout.NO_YEAR;
+        int readOnlyThrough;
+        try (Connection connection = databaseConfig.getConnection()) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(CATALOG_SQL)) {
+                while (rs.next()) {
+                    int year = rs.getInt("partition_year");
+                    archivedThrough = Math.max(archivedThrough, year);
+                    String table = rs.getString("table_name");
+                    if (table != null) {
+                        archives.add(new PartitionLayout.Partition(year, table, rs.getLong("row_count"),
+                                rs.getLong("min_id"), rs.getLong("max_id")));
+                    }
+                }
+            }
+            readOnlyThrough = archivedThrough;
+            // A move interrupted before its catalog row was written: both tables hold part of that year
+            Integer interrupted = interruptedYear(connection, archivedThrough);
+            if (interrupted != null) {
+                archives.add(new PartitionLayout.Partition(interrupted, PartitionLayout.archiveTable(interrupted), 0,
+                        Long.MIN_VALUE, Long.MAX_VALUE));
+                readOnlyThrough = interrupted;
+                logger.warn("Archiving of {} was interrupted; run it again to finish", interrupted);
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to load transaction partitions", e);
+            throw new RuntimeException("Failed to load transaction partitions", e);
+        }
+        if (!archives.isEmpty() || archivedThrough != PartitionLayout.NO_YEAR) {
+            logger.info("Transactions archived through {} in {} yearly tables", archivedThrough, archives.size());
+        }
+        return new PartitionLayout(archivedThrough, readOnlyThrough, archives);
+    }
+
+    private Integer interruptedYear(Connection connection, int archivedThrough) throws SQLException {
+        Integer interrupted = null;
+        try (ResultSet rs = connection.getMetaData().getTables(null, null, "TRANSACTIONS_Y%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                String suffix = rs.getString("TABLE_NAME").substring("TRANSACTIONS_Y".length());
+                if (!suffix.chars().allMatch(Character::isDigit) || suffix.isEmpty()) {
+                    continue;
+                }
+                int year = Integer.parseInt(suffix);
+                if (year > archivedThrough) {
+                    interrupted = year;
+                }
+            }
+        }
+        return interrupted;
+    }
+
+}
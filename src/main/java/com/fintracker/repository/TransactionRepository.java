@@ -1,70 +1,147 @@
 package com.fintracker.repository;
 
+import com.fintracker.metrics.MetricsRegistry;
+import com.fintracker.metrics.OperationMetrics;
+import com.fintracker.model.CacheStats;
+import com.fintracker.model.ImportCheckpoint;
+import com.fintracker.model.MonthlySummary;
 import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
 import com.fintracker.validator.TransactionValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class TransactionRepository {
+public class TransactionRepository implements TransactionStore {
     private static final Logger logger = LoggerFactory.getLogger(TransactionRepository.class);
+    private static final String INSERT_SQL = "INSERT INTO transactions (type, amount, category_id, date) VALUES (?, ?, ?, ?)";
+    // Never assigned by AUTO_INCREMENT, so filtering on it matches no rows
+    private static final int UNKNOWN_CATEGORY_ID = -1;
     private final DatabaseConfig databaseConfig;
-    private final DatabaseSchemaInitializer schemaInitializer;
+    private final CategoryDictionary categories;
+    private final RollupRepository rollups;
+    private final ImportCheckpointRepository importCheckpoints;
+    private final TransactionCache cache;
+    private final TransactionPartitions partitions;
+    private final boolean existencePrecheck;
+    private final OperationMetrics saveMetrics;
+    private final OperationMetrics saveAllMetrics;
+    private final OperationMetrics saveImportBatchMetrics;
+    private final OperationMetrics saveBatchMetrics;
+    private final OperationMetrics deleteMetrics;
+    private final OperationMetrics updateMetrics;
+    private final OperationMetrics findByFilterMetrics;
+    private final OperationMetrics findByCategoriesMetrics;
+    private final OperationMetrics findPageMetrics;
+    private final OperationMetrics aggregateMetrics;
+    private final OperationMetrics streamMetrics;
+    private final OperationMetrics forEachMetrics;
+    private final OperationMetrics getAllMetrics;
+    private final OperationMetrics findByIdMetrics;
 
     public TransactionRepository(DatabaseConfig databaseConfig) {
         this.databaseConfig = databaseConfig;
-        this.schemaInitializer = new DatabaseSchemaInitializer(databaseConfig.getConnection());
-        try {
-            schemaInitializer.initialize();
+        this.existencePrecheck = databaseConfig.isExistencePrecheck();
+        this.partitions = databaseConfig.getPartitions();
+        MetricsRegistry metrics = databaseConfig.getMetricsRegistry();
+        this.saveMetrics = metrics.operation("repository", "save");
+        this.saveAllMetrics = metrics.operation("repository", "saveAll");
+        this.saveImportBatchMetrics = metrics.operation("repository", "saveImportBatch");
+        this.saveBatchMetrics = metrics.operation("repository", "saveBatch");
+        this.deleteMetrics = metrics.operation("repository", "delete");
+        this.updateMetrics = metrics.operation("repository", "update");
+        this.findByFilterMetrics = metrics.operation("repository", "findByFilter");
+        this.findByCategoriesMetrics = metrics.operation("repository", "findByCategories");
+        this.findPageMetrics = metrics.operation("repository", "findPage");
+        this.aggregateMetrics = metrics.operation("repository", "aggregateByFilter");
+        this.streamMetrics = metrics.operation("repository", "streamByFilter");
+        this.forEachMetrics = metrics.operation("repository", "forEachByFilter");
+        this.getAllMetrics = metrics.operation("repository", "getAll");
+        this.findByIdMetrics = metrics.operation("repository", "findById");
+        this.cache = new TransactionCache(databaseConfig.isCacheEnabled(), databaseConfig.getCacheMaxSize());
+        try (Connection connection = databaseConfig.getConnection()) {
+            new DatabaseSchemaInitializer(connection).initialize();
             logger.info("Database schema initialized successfully");
         } catch (SQLException e) {
             logger.error("Failed to initialize database schema", e);
             throw new RuntimeException("Failed to initialize database schema", e);
         }
+        this.categories = new CategoryDictionary(databaseConfig);
+        this.rollups = new RollupRepository(databaseConfig, categories);
+        this.importCheckpoints = new ImportCheckpointRepository(databaseConfig);
     }
 
     private boolean doesTransactionExist(long id) {
         String sql = "SELECT 1 FROM transactions WHERE id = ? LIMIT 1";
-        try (PreparedStatement stmt = databaseConfig.getConnection().prepareStatement(sql)) {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setLong(1, id);
+            boolean exists;
             try (ResultSet rs = stmt.executeQuery()) {
-                boolean exists = rs.next();
-                logger.debug("Checked existence of transaction with ID {}: {}", id, exists);
-                return exists;
+                exists = rs.next();
+            }
+            if (!exists) {
+                exists = loadArchived(connection, id) != null;
             }
+            logger.debug("Checked existence of transaction with ID {}: {}", id, exists);
+            return exists;
         } catch (SQLException e) {
             logger.error("Failed to check transaction existence for ID: {}", id, e);
             throw new RuntimeException("Failed to check transaction existence for ID: " + id, e);
         }
     }
 
+    @Override
     public void save(Transaction transaction) {
+        saveMetrics.run(() -> partitions.guardWrite(() -> insert(transaction)), 1);
+    }
+
+    private void insert(Transaction transaction) {
         TransactionValidator.validateTransaction(transaction);
-        String sql = "INSERT INTO transactions (type, amount, category, date) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement stmt = databaseConfig.getConnection().prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, transaction.getType());
-            stmt.setDouble(2, transaction.getAmount());
-            stmt.setString(3, transaction.getCategory());
-            stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
+        TransactionValidator.checkNotArchived(transaction.getDate(), partitions.layout().readOnlyThroughYear());
+        categories.resolve(transaction.getCategory());
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                bindInsert(stmt, transaction);
+                stmt.executeUpdate();
+                long id;
                 try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        long id = generatedKeys.getLong(1);
-                        transaction.setId(id); // Устанавливаем сгенерированный ID в объект
-                        logger.info("Transaction with ID {} saved: {} | {} | {} | {}",
-                                id, transaction.getType(), transaction.getAmount(), transaction.getCategory(), transaction.getDate());
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("No generated key returned for inserted transaction");
                     }
+                    id = generatedKeys.getLong(1);
                 }
+                RollupRepository.Deltas deltas = new RollupRepository.Deltas();
+                deltas.add(transaction);
+                rollups.apply(connection, deltas);
+                connection.commit();
+                transaction.setId(id); // Устанавливаем сгенерированный ID в объект
+                logger.info("Transaction with ID {} saved: {} | {} | {} | {}",
+                        id, transaction.getType(), transaction.getAmount(), transaction.getCategory(), transaction.getDate());
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             logger.error("Failed to save transaction: {} | {} | {} | {}",
@@ -73,17 +150,162 @@ public class TransactionRepository {
         }
     }
 
+    // Every row is validated up front; chunks are committed one by one, so a failure leaves earlier chunks saved
+    @Override
+    public void saveAll(Collection<Transaction> transactions) {
+        saveAllMetrics.run(() -> partitions.guardWrite(() -> insertAll(transactions)),
+                transactions == null ? 0 : transactions.size());
+    }
+
+    private void insertAll(Collection<Transaction> transactions) {
+        if (transactions == null) {
+            throw new IllegalArgumentException("Transactions cannot be null");
+        }
+        TransactionValidator.validateAll(transactions);
+        TransactionValidator.checkNoneArchived(transactions, partitions.layout().readOnlyThroughYear());
+        if (transactions.isEmpty()) {
+            return;
+        }
+        transactions.forEach(transaction -> categories.resolve(transaction.getCategory()));
+        int batchSize = databaseConfig.getBatchSize();
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            connection.setAutoCommit(false);
+            List<Transaction> chunk = new ArrayList<>(Math.min(batchSize, transactions.size()));
+            for (Transaction transaction : transactions) {
+                chunk.add(transaction);
+                if (chunk.size() == batchSize) {
+                    insertChunk(connection, stmt, chunk, null);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(connection, stmt, chunk, null);
+            }
+            logger.info("Saved {} transactions in batches of {}", transactions.size(), batchSize);
+        } catch (SQLException e) {
+            logger.error("Failed to save batch of {} transactions", transactions.size(), e);
+            throw new RuntimeException("Failed to save transactions", e);
+        }
+    }
+
+    // One transaction for the rows and the import position, so a resumed import neither skips nor repeats rows
+    @Override
+    public void saveImportBatch(List<Transaction> transactions, ImportCheckpoint checkpoint) {
+        saveImportBatchMetrics.run(() -> {
+            if (checkpoint == null) {
+                throw new IllegalArgumentException("Import checkpoint cannot be null");
+            }
+            partitions.guardWrite(() -> saveInOneTransaction(transactions, checkpoint));
+        }, transactions == null ? 0 : transactions.size());
+    }
+
+    // Unlike saveAll, commits the whole list at once regardless of the configured batch size
+    @Override
+    public void saveBatch(List<Transaction> transactions) {
+        saveBatchMetrics.run(() -> partitions.guardWrite(() -> saveInOneTransaction(transactions, null)),
+                transactions == null ? 0 : transactions.size());
+    }
+
+    private void saveInOneTransaction(List<Transaction> transactions, ImportCheckpoint checkpoint) {
+        if (transactions == null || transactions.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        TransactionValidator.validateAll(transactions);
+        // The importer and write-behind queue already skip archived rows; this only catches a year archived since
+        TransactionValidator.checkNoneArchived(transactions, partitions.layout().readOnlyThroughYear());
+        transactions.forEach(transaction -> categories.resolve(transaction.getCategory()));
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            connection.setAutoCommit(false);
+            insertChunk(connection, stmt, transactions, checkpoint);
+        } catch (SQLException e) {
+            if (checkpoint != null) {
+                logger.error("Failed to save import batch of {} transactions from {}", transactions.size(), checkpoint.source(), e);
+                throw new RuntimeException("Failed to save import batch", e);
+            }
+            logger.error("Failed to save batch of {} transactions", transactions.size(), e);
+            throw new RuntimeException("Failed to save transactions", e);
+        }
+    }
+
+    private void insertChunk(Connection connection, PreparedStatement stmt, List<Transaction> chunk,
+                             ImportCheckpoint checkpoint) throws SQLException {
+        long[] ids = new long[chunk.size()];
+        try {
+            for (Transaction transaction : chunk) {
+                bindInsert(stmt, transaction);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (generatedKeys.next() && i < ids.length) {
+                    ids[i++] = generatedKeys.getLong(1);
+                }
+                if (i != ids.length) {
+                    throw new SQLException("Expected " + ids.length + " generated keys but received " + i);
+                }
+            }
+            RollupRepository.Deltas deltas = new RollupRepository.Deltas();
+            chunk.forEach(deltas::add);
+            rollups.apply(connection, deltas);
+            if (checkpoint != null) {
+                importCheckpoints.save(connection, checkpoint);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            chunk.get(i).setId(ids[i]);
+        }
+        logger.debug("Committed batch of {} transactions (IDs {}..{})", ids.length, ids[0], ids[ids.length - 1]);
+    }
+
+    private void bindInsert(PreparedStatement stmt, Transaction transaction) throws SQLException {
+        stmt.setString(1, transaction.getType());
+        stmt.setLong(2, transaction.getAmount());
+        stmt.setInt(3, categories.resolve(transaction.getCategory()));
+        stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
+    }
+
+    @Override
     public void delete(long id) {
+        deleteMetrics.run(() -> partitions.guardWrite(() -> deleteRow(id)), 1);
+    }
+
+    // Invalidates however it ends, so a load that overlapped the delete cannot cache the row afterwards
+    private void deleteRow(long id) {
+        try {
+            deleteUncached(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    private void deleteUncached(long id) {
         TransactionValidator.validateTransactionId(id);
-        TransactionValidator.checkTransactionExists(id, doesTransactionExist(id));
-        String sql = "DELETE FROM transactions WHERE id = ?";
-        try (PreparedStatement stmt = databaseConfig.getConnection().prepareStatement(sql)) {
-            stmt.setLong(1, id);
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
+        if (existencePrecheck) {
+            TransactionValidator.checkTransactionExists(id, doesTransactionExist(id));
+        }
+        // OLD TABLE returns the deleted row, which both detects "not found" and feeds the rollup delta
+        String sql = "SELECT id, type, amount, category_id, date FROM OLD TABLE (DELETE FROM transactions WHERE id = ?)";
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setLong(1, id);
+                Transaction existing = readSingleRow(stmt);
+                checkWritable(connection, id, existing);
+                RollupRepository.Deltas deltas = new RollupRepository.Deltas();
+                deltas.remove(existing);
+                rollups.apply(connection, deltas);
+                connection.commit();
                 logger.info("Transaction with ID {} deleted successfully", id);
-            } else {
-                logger.warn("No transaction with ID {} was deleted", id);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             logger.error("Failed to delete transaction with ID: {}", id, e);
@@ -91,22 +313,52 @@ public class TransactionRepository {
         }
     }
 
+    @Override
     public void update(Transaction transaction) {
+        updateMetrics.run(() -> partitions.guardWrite(() -> updateRow(transaction)), 1);
+    }
+
+    // Invalidates rather than caching the caller's object: that object may not match the committed row once
+    // concurrent updates interleave, and the next read caches whatever actually won
+    private void updateRow(Transaction transaction) {
+        try {
+            updateUncached(transaction);
+        } finally {
+            if (transaction != null) {
+                cache.invalidate(transaction.getId());
+            }
+        }
+    }
+
+    private void updateUncached(Transaction transaction) {
         TransactionValidator.validateTransaction(transaction);
-        TransactionValidator.checkTransactionExists(transaction.getId(), doesTransactionExist(transaction.getId()));
-        String sql = "UPDATE transactions SET type = ?, amount = ?, category = ?, date = ? WHERE id = ?";
-        try (PreparedStatement stmt = databaseConfig.getConnection().prepareStatement(sql)) {
-            stmt.setString(1, transaction.getType());
-            stmt.setDouble(2, transaction.getAmount());
-            stmt.setString(3, transaction.getCategory());
-            stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
-            stmt.setLong(5, transaction.getId());
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
+        TransactionValidator.checkNotArchived(transaction.getDate(), partitions.layout().readOnlyThroughYear());
+        if (existencePrecheck) {
+            TransactionValidator.checkTransactionExists(transaction.getId(), doesTransactionExist(transaction.getId()));
+        }
+        int categoryId = categories.resolve(transaction.getCategory());
+        String sql = "SELECT id, type, amount, category_id, date FROM OLD TABLE "
+                + "(UPDATE transactions SET type = ?, amount = ?, category_id = ?, date = ? WHERE id = ?)";
+        try (Connection connection = databaseConfig.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, transaction.getType());
+                stmt.setLong(2, transaction.getAmount());
+                stmt.setInt(3, categoryId);
+                stmt.setTimestamp(4, Timestamp.valueOf(transaction.getDate()));
+                stmt.setLong(5, transaction.getId());
+                Transaction existing = readSingleRow(stmt);
+                checkWritable(connection, transaction.getId(), existing);
+                RollupRepository.Deltas deltas = new RollupRepository.Deltas();
+                deltas.remove(existing);
+                deltas.add(transaction);
+                rollups.apply(connection, deltas);
+                connection.commit();
                 logger.info("Transaction with ID {} updated: {} | {} | {} | {}",
                         transaction.getId(), transaction.getType(), transaction.getAmount(), transaction.getCategory(), transaction.getDate());
-            } else {
-                logger.warn("No transaction with ID {} was updated", transaction.getId());
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             logger.error("Failed to update transaction with ID: {}", transaction.getId(), e);
@@ -114,74 +366,420 @@ public class TransactionRepository {
         }
     }
 
+    // Called inside the write's transaction, so throwing rolls back a change to a row of an archived year
+    private void checkWritable(Connection connection, long id, Transaction existing) throws SQLException {
+        int readOnlyThroughYear = partitions.layout().readOnlyThroughYear();
+        if (existing == null) {
+            Transaction archived = loadArchived(connection, id);
+            TransactionValidator.checkTransactionExists(id, archived != null);
+            TransactionValidator.checkNotArchived(archived.getDate(), readOnlyThroughYear);
+        } else {
+            TransactionValidator.checkNotArchived(existing.getDate(), readOnlyThroughYear);
+        }
+    }
+
+    // Archived rows keep their ids; each partition's id range narrows the lookup to the years that can hold one
+    private Transaction loadArchived(Connection connection, long id) throws SQLException {
+        for (PartitionLayout.Partition partition : partitions.layout().partitionsFor(id)) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT id, type, amount, category_id, date FROM " + partition.table() + " WHERE id = ?")) {
+                stmt.setLong(1, id);
+                Transaction transaction = readSingleRow(stmt);
+                if (transaction != null) {
+                    return transaction;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Transaction readSingleRow(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? mapRow(rs) : null;
+        }
+    }
+
+    @Override
     public List<Transaction> findByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        return findByFilterMetrics.call(() -> queryByFilter(type, category, startDate, endDate), List::size);
+    }
+
+    private List<Transaction> queryByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
         TransactionValidator.validateFilterParams(type, category, startDate, endDate);
-        QueryBuilder.QueryParams queryParams = QueryBuilder.buildTransactionFilterQuery(type, category, startDate, endDate);
+        QueryBuilder.QueryParams queryParams = QueryBuilder.buildTransactionFilterQuery(
+                partitions.layout(), type, categoryIdFilter(category), startDate, endDate);
 
+        List<Transaction> transactions;
+        try {
+            transactions = selectTransactions(queryParams);
+            logger.info("Found {} transactions matching filter: type={}, category={}, startDate={}, endDate={}",
+                    transactions.size(), type, category, startDate, endDate);
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve transactions with filter: type={}, category={}, startDate={}, endDate={}",
+                    type, category, startDate, endDate, e);
+            throw new RuntimeException("Failed to retrieve transactions", e);
+        }
+        TransactionValidator.logIfTransactionsEmpty(transactions, type, category, startDate, endDate);
+        return transactions;
+    }
+
+    // Any of the named categories, in one category_id IN (...) query; names with no category match nothing
+    @Override
+    public List<Transaction> findByCategories(String type, Collection<String> categoryNames, LocalDateTime startDate,
+                                              LocalDateTime endDate) {
+        return findByCategoriesMetrics.call(() -> queryByCategories(type, categoryNames, startDate, endDate),
+                List::size);
+    }
+
+    private List<Transaction> queryByCategories(String type, Collection<String> categoryNames, LocalDateTime startDate,
+                                                LocalDateTime endDate) {
+        TransactionValidator.validateCategoriesFilter(type, categoryNames, startDate, endDate);
+        List<Integer> categoryIds = new ArrayList<>(categoryNames.size());
+        for (String name : categoryNames) {
+            Integer id = categories.findId(name);
+            if (id != null && !categoryIds.contains(id)) {
+                categoryIds.add(id);
+            }
+        }
+        if (categoryIds.isEmpty()) {
+            logger.info("None of the categories {} exist", categoryNames);
+            return new ArrayList<>();
+        }
+        QueryBuilder.QueryParams queryParams = QueryBuilder.buildTransactionFilterQuery(
+                partitions.layout(), type, categoryIds, startDate, endDate);
+        try {
+            List<Transaction> transactions = selectTransactions(queryParams);
+            logger.info("Found {} transactions matching filter: type={}, categories={}, startDate={}, endDate={}",
+                    transactions.size(), type, categoryNames, startDate, endDate);
+            return transactions;
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve transactions with filter: type={}, categories={}, startDate={}, endDate={}",
+                    type, categoryNames, startDate, endDate, e);
+            throw new RuntimeException("Failed to retrieve transactions", e);
+        }
+    }
+
+    private List<Transaction> selectTransactions(QueryBuilder.QueryParams queryParams) throws SQLException {
         List<Transaction> transactions = new ArrayList<>();
-        try (PreparedStatement statement = databaseConfig.getConnection().prepareStatement(queryParams.sql())) {
-            IntStream.range(0, queryParams.params().size())
-                    .forEach(i -> {
-                        try {
-                            statement.setObject(i + 1, queryParams.params().get(i));
-                        } catch (SQLException e) {
-                            logger.error("Failed to set parameter at index {} for filter query", i + 1, e);
-                            throw new RuntimeException("Failed to set parameter at index " + (i + 1), e);
-                        }
-                    });
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(queryParams.sql())) {
+            bindParameters(statement, queryParams.params());
             try (ResultSet resultSet = statement.executeQuery()) {
                 while (resultSet.next()) {
-                    Transaction transaction = new Transaction(
-                            resultSet.getLong("id"),
-                            resultSet.getString("type"),
-                            resultSet.getDouble("amount"),
-                            resultSet.getString("category"),
-                            resultSet.getTimestamp("date").toLocalDateTime().truncatedTo(ChronoUnit.SECONDS)
-                    );
-                    transactions.add(transaction);
+                    transactions.add(mapRow(resultSet));
                 }
-                logger.info("Found {} transactions matching filter: type={}, category={}, startDate={}, endDate={}",
-                        transactions.size(), type, category, startDate, endDate);
             }
+        }
+        return transactions;
+    }
+
+    @Override
+    public TransactionPage findPage(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                    TransactionPage.Cursor after, int limit) {
+        return findPageMetrics.call(() -> queryPage(type, category, startDate, endDate, after, limit),
+                page -> page.transactions().size());
+    }
+
+    private TransactionPage queryPage(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                      TransactionPage.Cursor after, int limit) {
+        TransactionValidator.validateFilterParams(type, category, startDate, endDate);
+        TransactionValidator.validatePageRequest(after, limit);
+        // One extra row tells us whether another page exists without a COUNT query
+        QueryBuilder.QueryParams queryParams = QueryBuilder.buildTransactionPageQuery(
+                partitions.layout(), type, categoryIdFilter(category), startDate, endDate, after, limit + 1);
+
+        List<Transaction> transactions = new ArrayList<>(limit);
+        TransactionPage.Cursor nextCursor = null;
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(queryParams.sql())) {
+            bindParameters(statement, queryParams.params());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                Timestamp lastDate = null;
+                while (resultSet.next()) {
+                    if (transactions.size() == limit) {
+                        // Built from the stored timestamp, not the truncated one, so the seek predicate matches exactly
+                        Transaction last = transactions.get(limit - 1);
+                        nextCursor = new TransactionPage.Cursor(lastDate.toLocalDateTime(), last.getId());
+                        break;
+                    }
+                    lastDate = resultSet.getTimestamp("date");
+                    transactions.add(mapRow(resultSet));
+                }
+            }
+            logger.info("Found page of {} transactions after {} matching filter: type={}, category={}, startDate={}, endDate={}",
+                    transactions.size(), after, type, category, startDate, endDate);
         } catch (SQLException e) {
-            logger.error("Failed to retrieve transactions with filter: type={}, category={}, startDate={}, endDate={}",
+            logger.error("Failed to retrieve transaction page after {} with filter: type={}, category={}, startDate={}, endDate={}",
+                    after, type, category, startDate, endDate, e);
+            throw new RuntimeException("Failed to retrieve transaction page", e);
+        }
+        return new TransactionPage(transactions, nextCursor);
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByFilter(TransactionGrouping grouping, String type, String category,
+                                                        LocalDateTime startDate, LocalDateTime endDate) {
+        return aggregateMetrics.call(() -> queryAggregates(grouping, type, category, startDate, endDate), List::size);
+    }
+
+    private List<TransactionAggregate> queryAggregates(TransactionGrouping grouping, String type, String category,
+                                                       LocalDateTime startDate, LocalDateTime endDate) {
+        TransactionValidator.validateGrouping(grouping);
+        TransactionValidator.validateFilterParams(type, category, startDate, endDate);
+        QueryBuilder.QueryParams queryParams = QueryBuilder.buildTransactionAggregateQuery(
+                partitions.layout(), grouping, type, categoryIdFilter(category), startDate, endDate);
+
+        List<TransactionAggregate> aggregates = new ArrayList<>();
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = connection.prepareStatement(queryParams.sql())) {
+            bindParameters(statement, queryParams.params());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    aggregates.add(new TransactionAggregate(
+                            grouping == TransactionGrouping.CATEGORY
+                                    ? categoryOfGroup(resultSet)
+                                    : resultSet.getString("group_key"),
+                            resultSet.getLong("tx_count"),
+                            resultSet.getLong("total"),
+                            resultSet.getLong("min_amount"),
+                            resultSet.getLong("max_amount")
+                    ));
+                }
+            }
+            if (grouping == TransactionGrouping.CATEGORY) {
+                aggregates.sort(Comparator.comparing(TransactionAggregate::group,
+                        Comparator.nullsLast(Comparator.naturalOrder())));
+            }
+            logger.info("Computed {} aggregates by {} for filter: type={}, category={}, startDate={}, endDate={}",
+                    aggregates.size(), grouping, type, category, startDate, endDate);
+        } catch (SQLException e) {
+            logger.error("Failed to aggregate transactions by {} with filter: type={}, category={}, startDate={}, endDate={}",
+                    grouping, type, category, startDate, endDate, e);
+            throw new RuntimeException("Failed to aggregate transactions", e);
+        }
+        return aggregates;
+    }
+
+    // The returned stream holds a pooled connection and an open cursor until it is closed.
+    // Its metrics time opening the cursor only; rows are counted by forEachByFilter.
+    @Override
+    public Stream<Transaction> streamByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        return streamMetrics.call(() -> openStream(type, category, startDate, endDate), stream -> 0);
+    }
+
+    private Stream<Transaction> openStream(String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        TransactionValidator.validateFilterParams(type, category, startDate, endDate);
+        QueryBuilder.QueryParams queryParams = QueryBuilder.buildTransactionFilterQuery(
+                partitions.layout(), type, categoryIdFilter(category), startDate, endDate);
+
+        Connection connection = databaseConfig.getConnection();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            // Without lazy execution embedded H2 materializes the whole result before the first row is read
+            try (Statement session = connection.createStatement()) {
+                session.execute("SET LAZY_QUERY_EXECUTION TRUE");
+            }
+            statement = connection.prepareStatement(queryParams.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(databaseConfig.getFetchSize());
+            bindParameters(statement, queryParams.params());
+            resultSet = statement.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            closeCursor(connection, statement, resultSet);
+            logger.error("Failed to open transaction stream with filter: type={}, category={}, startDate={}, endDate={}",
                     type, category, startDate, endDate, e);
             throw new RuntimeException("Failed to retrieve transactions", e);
         }
-        TransactionValidator.logIfTransactionsEmpty(transactions, type, category, startDate, endDate);
-        return transactions;
+
+        ResultSet cursor = resultSet;
+        PreparedStatement cursorStatement = statement;
+        Spliterator<Transaction> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Transaction> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapRow(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    logger.error("Failed to read next row of transaction stream", e);
+                    throw new RuntimeException("Failed to retrieve transactions", e);
+                }
+            }
+        };
+        logger.debug("Opened transaction stream with filter: type={}, category={}, startDate={}, endDate={}",
+                type, category, startDate, endDate);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeCursor(connection, cursorStatement, cursor));
     }
 
+    @Override
+    public void forEachByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                                Consumer<? super Transaction> action) {
+        forEachMetrics.call(() -> visitByFilter(type, category, startDate, endDate, action), Long::longValue);
+    }
+
+    private long visitByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                               Consumer<? super Transaction> action) {
+        long[] visited = new long[1];
+        try (Stream<Transaction> transactions = openStream(type, category, startDate, endDate)) {
+            transactions.forEach(transaction -> {
+                action.accept(transaction);
+                visited[0]++;
+            });
+        }
+        return visited[0];
+    }
+
+    private void closeCursor(Connection connection, Statement statement, ResultSet resultSet) {
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            if (statement != null) {
+                statement.close();
+            }
+            try (Statement session = connection.createStatement()) {
+                session.execute("SET LAZY_QUERY_EXECUTION FALSE");
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to release transaction stream cursor", e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Failed to return transaction stream connection to the pool", e);
+            }
+        }
+    }
+
+    private void bindParameters(PreparedStatement statement, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private Integer categoryIdFilter(String category) {
+        if (category == null) {
+            return null;
+        }
+        Integer id = categories.findId(category);
+        return id != null ? id : UNKNOWN_CATEGORY_ID;
+    }
+
+    // Legacy rows without a category form a group of their own, keyed by null
+    private String categoryOfGroup(ResultSet resultSet) throws SQLException {
+        int categoryId = resultSet.getInt("group_key");
+        return resultSet.wasNull() ? null : categories.nameOf(categoryId);
+    }
+
+    private Transaction mapRow(ResultSet resultSet) throws SQLException {
+        int categoryId = resultSet.getInt("category_id");
+        String category = resultSet.wasNull() ? null : categories.nameOf(categoryId);
+        return new Transaction(
+                resultSet.getLong("id"),
+                resultSet.getString("type"),
+                resultSet.getLong("amount"),
+                category,
+                resultSet.getTimestamp("date").toLocalDateTime().truncatedTo(ChronoUnit.SECONDS)
+        );
+    }
+
+    @Override
     public List<Transaction> getAll() {
-        List<Transaction> transactions = findByFilter(null, null, null, null);
-        logger.info("Retrieved all transactions: {} records", transactions.size());
-        return transactions;
+        return getAllMetrics.call(() -> {
+            List<Transaction> transactions = queryByFilter(null, null, null, null);
+            logger.info("Retrieved all transactions: {} records", transactions.size());
+            return transactions;
+        }, List::size);
     }
 
+    @Override
     public Transaction findById(long id) {
+        return findByIdMetrics.call(() -> loadById(id), transaction -> 1);
+    }
+
+    private Transaction loadById(long id) {
         TransactionValidator.validateTransactionId(id);
-        TransactionValidator.checkTransactionExists(id, doesTransactionExist(id));
-        String sql = "SELECT id, type, amount, category, date FROM transactions WHERE id = ?";
-        try (PreparedStatement stmt = databaseConfig.getConnection().prepareStatement(sql)) {
+        Transaction cached = cache.get(id);
+        if (cached != null) {
+            logger.debug("Found transaction by ID {} in cache", id);
+            return cached;
+        }
+        // Taken before the read, so a write that ends while it is in flight keeps its result out of the cache
+        long stamp = cache.stamp(id);
+        if (existencePrecheck) {
+            TransactionValidator.checkTransactionExists(id, doesTransactionExist(id));
+        }
+        String sql = "SELECT id, type, amount, category_id, date FROM transactions WHERE id = ?";
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setLong(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                rs.next();
-                Transaction transaction = new Transaction(
-                        rs.getLong("id"),
-                        rs.getString("type"),
-                        rs.getDouble("amount"),
-                        rs.getString("category"),
-                        rs.getTimestamp("date").toLocalDateTime().truncatedTo(ChronoUnit.SECONDS)
-                );
-                TransactionValidator.validateTransaction(transaction);
-                logger.info("Found transaction by ID {}: {} | {} | {} | {}",
-                        id, transaction.getType(), transaction.getAmount(), transaction.getCategory(), transaction.getDate());
-                return transaction;
+            Transaction transaction = readSingleRow(stmt);
+            if (transaction == null) {
+                transaction = loadArchived(connection, id);
             }
+            TransactionValidator.checkTransactionExists(id, transaction != null);
+            TransactionValidator.validateTransaction(transaction);
+            cache.putIfUnchanged(transaction, stamp);
+            logger.info("Found transaction by ID {}: {} | {} | {} | {}",
+                    id, transaction.getType(), transaction.getAmount(), transaction.getCategory(), transaction.getDate());
+            return transaction;
         } catch (SQLException e) {
             logger.error("Failed to find transaction by ID: {}", id, e);
             throw new RuntimeException("Failed to find transaction by ID", e);
         }
     }
 
+    @Override
+    public CacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public int readOnlyThroughYear() {
+        return partitions.layout().readOnlyThroughYear();
+    }
+
+    @Override
+    public ImportCheckpoint findImportCheckpoint(String source) {
+        return importCheckpoints.find(source);
+    }
+
+    @Override
+    public void clearImportCheckpoint(String source) {
+        importCheckpoints.delete(source);
+    }
+
+    @Override
+    public long getBalance() {
+        return rollups.getBalance();
+    }
+
+    @Override
+    public List<MonthlySummary> findMonthlySummaries(YearMonth startMonth, YearMonth endMonth) {
+        return rollups.findMonthlySummaries(startMonth, endMonth);
+    }
+
+    @Override
+    public List<String> getCategoryNames() {
+        return categories.getNames();
+    }
+
+    @Override
+    public List<String> searchCategories(String query, int limit) {
+        return categories.search(query, limit);
+    }
+
+    // The connection pool belongs to DatabaseConfig and is closed with it
+    @Override
+    public void close() {
+    }
+
+    public CategoryDictionary getCategoryDictionary() {
+        return categories;
+    }
+
 }
\ No newline at end of file
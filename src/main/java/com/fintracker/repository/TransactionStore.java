@@ -0,0 +1,80 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.CacheStats;
+import com.fintracker.model.ImportCheckpoint;
+import com.fintracker.model.MonthlySummary;
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Where TransactionService keeps its transactions: TransactionRepository in H2, or TransactionLogStore in an
+// append-only record log, chosen with fintracker.store. Both validate through TransactionValidator and throw
+// IllegalArgumentException for invalid input and unknown IDs.
+public interface TransactionStore extends AutoCloseable {
+
+    void save(Transaction transaction);
+
+    void saveAll(Collection<Transaction> transactions);
+
+    // All rows become visible together, or none of them do
+    void saveBatch(List<Transaction> transactions);
+
+    // Like saveBatch, with the import position recorded atomically with the rows
+    void saveImportBatch(List<Transaction> transactions, ImportCheckpoint checkpoint);
+
+    ImportCheckpoint findImportCheckpoint(String source);
+
+    void clearImportCheckpoint(String source);
+
+    void delete(long id);
+
+    void update(Transaction transaction);
+
+    Transaction findById(long id);
+
+    List<Transaction> getAll();
+
+    List<Transaction> findByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Rows in any of the categories; unknown names match nothing
+    List<Transaction> findByCategories(String type, Collection<String> categories, LocalDateTime startDate,
+                                       LocalDateTime endDate);
+
+    TransactionPage findPage(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                             TransactionPage.Cursor after, int limit);
+
+    List<TransactionAggregate> aggregateByFilter(TransactionGrouping grouping, String type, String category,
+                                                 LocalDateTime startDate, LocalDateTime endDate);
+
+    // Close the returned stream to release what it holds
+    Stream<Transaction> streamByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate);
+
+    void forEachByFilter(String type, String category, LocalDateTime startDate, LocalDateTime endDate,
+                         Consumer<? super Transaction> action);
+
+    long getBalance();
+
+    List<MonthlySummary> findMonthlySummaries(YearMonth startMonth, YearMonth endMonth);
+
+    List<String> getCategoryNames();
+
+    // Category names matching the query by prefix or with a typo or two, best match first
+    List<String> searchCategories(String query, int limit);
+
+    CacheStats getCacheStats();
+
+    // Writes dated up to this year are rejected as archived (see PartitionLayout); NO_YEAR while every year is open
+    int readOnlyThroughYear();
+
+    @Override
+    void close();
+
+}
@@ -0,0 +1,243 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.validator.TransactionValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Asynchronous inserts with group commit. Callers enqueue and get a future for the generated id; one writer
+// thread drains the queue and commits everything it collected as a single transaction. Rows that arrive while
+// a commit runs form the next batch. A batch is cut at maxBatchSize rows, or once the queue is empty and
+// maxDelayMillis have passed since its first row; a non-zero delay trades latency for larger batches.
+// The queue is bounded: submit blocks while it is full, for at most offerTimeoutMillis.
+public class WriteBehindQueue implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final TransactionStore repository;
+    private final Settings settings;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private final Object submitLock = new Object();
+    private final Object closeLock = new Object();
+    private volatile boolean closed;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile int largestBatch;
+
+    public record Settings(boolean enabled, int capacity, int maxBatchSize, long maxDelayMillis, long offerTimeoutMillis) {
+        public Settings {
+            if (capacity <= 0 || maxBatchSize <= 0 || maxDelayMillis < 0 || offerTimeoutMillis < 0) {
+                throw new IllegalArgumentException("Invalid write-behind settings: capacity and maxBatchSize must be positive, "
+                        + "maxDelayMillis and offerTimeoutMillis non-negative");
+            }
+        }
+    }
+
+    // Commit time covers one group commit; latency runs from submit until the row's future completes
+    public record Metrics(int queueDepth, int capacity, long submitted, long committed, long failed, long rejected,
+                          long backpressureWaits, long batches, double averageBatchSize, int largestBatch,
+                          double averageCommitMicros, long maxCommitMicros, double averageLatencyMicros,
+                          long maxLatencyMicros) {
+    }
+
+    private record Pending(Transaction transaction, CompletableFuture<Long> future, long enqueuedNanos) {
+    }
+
+    public WriteBehindQueue(TransactionStore repository, Settings settings) {
+        this.repository = repository;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.capacity());
+        this.writer = new Thread(this::run, "fintracker-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        // Flushes on normal JVM exit and SIGTERM if the owner never called close()
+        this.shutdownHook = new Thread(this::close, "fintracker-write-behind-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        logger.info("Write-behind queue started: capacity {}, batches of up to {} rows or {} ms",
+                settings.capacity(), settings.maxBatchSize(), settings.maxDelayMillis());
+    }
+
+    // Invalid and archived rows are rejected here, synchronously, so one bad row never fails a whole group commit.
+    // The store checks the archive again on commit, for a year that is archived while its rows are queued.
+    public CompletableFuture<Long> submit(Transaction transaction) {
+        TransactionValidator.validateTransaction(transaction);
+        TransactionValidator.checkNotArchived(transaction.getDate(), repository.readOnlyThroughYear());
+        Pending pending = new Pending(transaction, new CompletableFuture<>(), System.nanoTime());
+        synchronized (submitLock) {
+            if (closed) {
+                rejected.incrementAndGet();
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Write-behind queue is closed"));
+            }
+            if (queue.offer(pending)) {
+                submitted.incrementAndGet();
+                return pending.future();
+            }
+        }
+        backpressureWaits.incrementAndGet();
+        try {
+            // Outside the lock so close() is not held up by a blocked producer; close() drains after the writer stops
+            if (queue.offer(pending, settings.offerTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                submitted.incrementAndGet();
+                if (closed && queue.remove(pending)) {
+                    submitted.decrementAndGet();
+                    rejected.incrementAndGet();
+                    return CompletableFuture.failedFuture(new RejectedExecutionException("Write-behind queue is closed"));
+                }
+                return pending.future();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.incrementAndGet();
+        return CompletableFuture.failedFuture(new RejectedExecutionException(
+                "Write-behind queue stayed full for " + settings.offerTimeoutMillis() + " ms"));
+    }
+
+    public Metrics getMetrics() {
+        long batchCount = batches.get();
+        long committedCount = committed.get();
+        long completed = committedCount + failed.get();
+        return new Metrics(queue.size(), settings.capacity(), submitted.get(), committedCount, failed.get(),
+                rejected.get(), backpressureWaits.get(), batchCount,
+                batchCount == 0 ? 0 : (double) completed / batchCount, largestBatch,
+                batchCount == 0 ? 0 : totalCommitNanos.get() / 1000.0 / batchCount, maxCommitNanos.get() / 1000,
+                completed == 0 ? 0 : totalLatencyNanos.get() / 1000.0 / completed, maxLatencyNanos.get() / 1000);
+    }
+
+    // Blocks until every row accepted before close has been committed or failed. A second caller, such as the
+    // shutdown hook racing an explicit close, waits for the first to finish instead of returning early.
+    @Override
+    public void close() {
+        synchronized (closeLock) {
+            closeOnce();
+        }
+    }
+
+    private void closeOnce() {
+        synchronized (submitLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for the write-behind queue to flush; {} rows still queued", queue.size());
+            return;
+        }
+        // A producer that was blocked on a full queue may have slipped a row in after the writer exited
+        List<Pending> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        if (!leftovers.isEmpty()) {
+            commit(leftovers);
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already running as the shutdown hook
+        }
+        Metrics metrics = getMetrics();
+        logger.info("Write-behind queue closed: {} committed, {} failed in {} batches", metrics.committed(),
+                metrics.failed(), metrics.batches());
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(settings.maxBatchSize());
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedNanos() + TimeUnit.MILLISECONDS.toNanos(settings.maxDelayMillis());
+                while (batch.size() < settings.maxBatchSize()) {
+                    if (queue.drainTo(batch, settings.maxBatchSize() - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || closed) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                // Only close() stops the writer; keep draining so no accepted row is lost
+            } catch (RuntimeException e) {
+                logger.error("Write-behind writer failed unexpectedly", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<Transaction> rows = new ArrayList<>(batch.size());
+        batch.forEach(pending -> rows.add(pending.transaction()));
+        long start = System.nanoTime();
+        try {
+            repository.saveBatch(rows);
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // Commit rows one at a time so only the rows that really fail are reported as failed
+                logger.warn("Group commit of {} rows failed; retrying them individually", batch.size(), e);
+                batch.forEach(pending -> commit(List.of(pending)));
+                return;
+            }
+            recordBatch(batch.size(), System.nanoTime() - start);
+            failed.incrementAndGet();
+            recordLatency(batch.get(0));
+            batch.get(0).future().completeExceptionally(e);
+            return;
+        }
+        recordBatch(batch.size(), System.nanoTime() - start);
+        committed.addAndGet(batch.size());
+        for (Pending pending : batch) {
+            recordLatency(pending);
+            pending.future().complete(pending.transaction().getId());
+        }
+    }
+
+    private void recordBatch(int size, long commitNanos) {
+        batches.incrementAndGet();
+        totalCommitNanos.addAndGet(commitNanos);
+        maxCommitNanos.accumulateAndGet(commitNanos, Math::max);
+        if (size > largestBatch) {
+            largestBatch = size;
+        }
+    }
+
+    private void recordLatency(Pending pending) {
+        long latency = System.nanoTime() - pending.enqueuedNanos();
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+}
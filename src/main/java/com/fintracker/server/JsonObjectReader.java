@@ -0,0 +1,153 @@
+package com.fintracker.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Parses the flat request bodies the API accepts: one object whose values are strings, numbers, booleans or null.
+// Numbers keep their source text so amounts reach Money.parse without a round trip through double.
+final class JsonObjectReader {
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][-+]?[0-9]+)?");
+
+    private final String json;
+    private int position;
+
+    private JsonObjectReader(String json) {
+        this.json = json;
+    }
+
+    static Map<String, String> parseFlatObject(String json) {
+        JsonObjectReader reader = new JsonObjectReader(json);
+        Map<String, String> members = reader.readObject();
+        reader.skipWhitespace();
+        if (reader.position != json.length()) {
+            throw reader.error("Unexpected content after the object");
+        }
+        return members;
+    }
+
+    private Map<String, String> readObject() {
+        Map<String, String> members = new HashMap<>();
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return members;
+        }
+        while (true) {
+            skipWhitespace();
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            if (members.containsKey(name)) {
+                throw error("Duplicate member \"" + name + "\"");
+            }
+            members.put(name, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return members;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private String readValue() {
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            throw error("Nested objects and arrays are not supported");
+        }
+        int start = position;
+        while (position < json.length() && "-+.0123456789eEtrufalsn".indexOf(json.charAt(position)) >= 0) {
+            position++;
+        }
+        String literal = json.substring(start, position);
+        return switch (literal) {
+            case "null" -> null;
+            case "true", "false" -> literal;
+            default -> {
+                if (literal.isEmpty() || !NUMBER.matcher(literal).matches()) {
+                    throw error("Invalid value");
+                }
+                yield literal;
+            }
+        };
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c < 0x20) {
+                throw error("Control character in string");
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escape = next();
+            switch (escape) {
+                case '"', '\\', '/' -> value.append(escape);
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    if (position + 4 > json.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                }
+                default -> throw error("Invalid escape \\" + escape);
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= json.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        return json.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            position--;
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at position " + position + ": " + message);
+    }
+
+}
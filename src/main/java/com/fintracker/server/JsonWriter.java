@@ -0,0 +1,174 @@
+package com.fintracker.server;
+
+import com.fintracker.model.Money;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Minimal streaming JSON writer: every call goes straight to the underlying writer, so response size is bounded
+// only by that writer's buffer. Commas are tracked per nesting level; misuse fails fast with IllegalStateException.
+final class JsonWriter {
+    private static final int MAX_DEPTH = 32;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    // hasElements[d] is true once the container at depth d has written its first member
+    private final boolean[] hasElements = new boolean[MAX_DEPTH + 1];
+    private final boolean[] inObject = new boolean[MAX_DEPTH + 1];
+    private final StringBuilder scratch = new StringBuilder(24);
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        return open('{', true);
+    }
+
+    JsonWriter endObject() throws IOException {
+        return close('}', true);
+    }
+
+    JsonWriter beginArray() throws IOException {
+        return open('[', false);
+    }
+
+    JsonWriter endArray() throws IOException {
+        return close(']', false);
+    }
+
+    JsonWriter name(String name) throws IOException {
+        if (depth == 0 || !inObject[depth] || afterName) {
+            throw new IllegalStateException("Member name outside of an object: " + name);
+        }
+        if (hasElements[depth]) {
+            out.write(',');
+        }
+        hasElements[depth] = true;
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        beforeValue();
+        scratch.setLength(0);
+        scratch.append(value);
+        out.append(scratch);
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    // Minor units written as an exact decimal number, e.g. 1234 -> 12.34
+    JsonWriter money(long amount) throws IOException {
+        beforeValue();
+        scratch.setLength(0);
+        Money.format(amount, scratch);
+        out.append(scratch);
+        return this;
+    }
+
+    JsonWriter value(LocalDateTime date) throws IOException {
+        if (date == null) {
+            return nullValue();
+        }
+        beforeValue();
+        out.write('"');
+        DATE_FORMAT.formatTo(date, out);
+        out.write('"');
+        return this;
+    }
+
+    JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    private JsonWriter open(char bracket, boolean object) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested deeper than " + MAX_DEPTH);
+        }
+        beforeValue();
+        out.write(bracket);
+        depth++;
+        hasElements[depth] = false;
+        inObject[depth] = object;
+        return this;
+    }
+
+    private JsonWriter close(char bracket, boolean object) throws IOException {
+        if (depth == 0 || inObject[depth] != object || afterName) {
+            throw new IllegalStateException("Unbalanced " + bracket);
+        }
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (depth > 0 && inObject[depth]) {
+            if (!afterName) {
+                throw new IllegalStateException("Object member written without a name");
+            }
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElements[depth]) {
+                out.write(',');
+            }
+            hasElements[depth] = true;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.write(value, start, i - start);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    out.write("\\u");
+                    out.write(HEX[(c >> 12) & 0xF]);
+                    out.write(HEX[(c >> 8) & 0xF]);
+                    out.write(HEX[(c >> 4) & 0xF]);
+                    out.write(HEX[c & 0xF]);
+                }
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+}
@@ -0,0 +1,424 @@
+package com.fintracker.server;
+
+import com.fintracker.model.Money;
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
+import com.fintracker.service.AsyncTransactionService;
+import com.fintracker.util.VirtualThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// JSON API on the JDK HttpServer. Requests run on virtual threads when the runtime has them and go through
+// AsyncTransactionService, so database concurrency stays bounded by the pool however many clients connect.
+// Responses are chunked and written through JsonWriter as they are produced.
+//
+//   GET    /transactions?type=&category=&from=&to=&limit=&after=   keyset-paged listing
+//   POST   /transactions                                           {"type","amount","category"}
+//   GET    /transactions/{id}
+//   PUT    /transactions/{id}                                      {"type","amount","category"[,"date"]}
+//   DELETE /transactions/{id}
+//   GET    /aggregates?grouping=MONTH&type=&category=&from=&to=
+//   GET    /health
+public class TransactionHttpServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionHttpServer.class);
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int RESPONSE_BUFFER_CHARS = 8 * 1024;
+    // Handler threads when virtual threads are unavailable; database calls are limited separately
+    private static final int PLATFORM_HANDLER_THREADS = 64;
+
+    private final AsyncTransactionService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        private HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    public TransactionHttpServer(AsyncTransactionService service, InetSocketAddress address) {
+        this.service = service;
+        ExecutorService virtual = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual
+                : VirtualThreads.newPlatformExecutor("fintracker-http-", PLATFORM_HANDLER_THREADS);
+        try {
+            this.server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            logger.error("Failed to bind HTTP server to {}", address, e);
+            throw new RuntimeException("Failed to bind HTTP server to " + address, e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/transactions", exchange -> dispatch(exchange, this::handleTransactions));
+        server.createContext("/aggregates", exchange -> dispatch(exchange, this::handleAggregates));
+        server.createContext("/health", exchange -> dispatch(exchange, this::handleHealth));
+    }
+
+    public void start() {
+        server.start();
+        logger.info("HTTP server listening on port {} with {} handler threads", getPort(),
+                virtualThreads ? "virtual" : "platform");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting connections and gives in-flight exchanges a second to finish
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("HTTP server stopped");
+    }
+
+    // Not try-with-resources: the exchange must stay open until a catch block has sent the error response
+    private void dispatch(HttpExchange exchange, Handler handler) {
+        try {
+            try {
+                handler.handle(exchange);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        } catch (HttpError e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IOException e) {
+            logger.debug("Client connection failed during {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+        } catch (RuntimeException e) {
+            logger.error("Request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleTransactions(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.substring("/transactions".length());
+        String method = exchange.getRequestMethod();
+        if (rest.isEmpty() || rest.equals("/")) {
+            switch (method) {
+                case "GET" -> listTransactions(exchange);
+                case "POST" -> createTransaction(exchange);
+                default -> throw methodNotAllowed(exchange, "GET, POST");
+            }
+            return;
+        }
+        long id = parseId(rest.substring(1));
+        switch (method) {
+            case "GET" -> {
+                Transaction transaction = requireExisting(id);
+                try (Writer body = openJson(exchange, 200)) {
+                    writeTransaction(new JsonWriter(body), transaction);
+                }
+            }
+            case "PUT" -> updateTransaction(exchange, id);
+            case "DELETE" -> {
+                orNotFound(service.deleteTransaction(id));
+                exchange.sendResponseHeaders(204, -1);
+            }
+            default -> throw methodNotAllowed(exchange, "GET, PUT, DELETE");
+        }
+    }
+
+    private void listTransactions(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange);
+        int limit = query.containsKey("limit") ? parseInt("limit", query.get("limit")) : DEFAULT_PAGE_SIZE;
+        TransactionPage page = service.getTransactionsPage(query.get("type"), category(query.get("category")),
+                parseStart(query.get("from")), parseEnd(query.get("to")), parseCursor(query.get("after")), limit).join();
+        try (Writer body = openJson(exchange, 200)) {
+            JsonWriter json = new JsonWriter(body);
+            json.beginObject().name("transactions").beginArray();
+            for (Transaction transaction : page.transactions()) {
+                writeTransaction(json, transaction);
+            }
+            json.endArray().name("next").value(page.hasNext() ? formatCursor(page.nextCursor()) : null).endObject();
+        }
+    }
+
+    private void createTransaction(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readBody(exchange);
+        long id = service.addTransaction(required(body, "type"), parseAmount(required(body, "amount")),
+                category(required(body, "category"))).join();
+        exchange.getResponseHeaders().set("Location", "/transactions/" + id);
+        try (Writer out = openJson(exchange, 201)) {
+            new JsonWriter(out).beginObject().name("id").value(id).endObject();
+        }
+    }
+
+    private void updateTransaction(HttpExchange exchange, long id) throws IOException {
+        Map<String, String> body = readBody(exchange);
+        Transaction existing = requireExisting(id);
+        LocalDateTime date = body.get("date") == null ? existing.getDate() : parseDateTime("date", body.get("date"));
+        Transaction updated = new Transaction(id, required(body, "type"), parseAmount(required(body, "amount")),
+                category(required(body, "category")), date);
+        service.updateTransaction(updated).join();
+        try (Writer out = openJson(exchange, 200)) {
+            writeTransaction(new JsonWriter(out), updated);
+        }
+    }
+
+    private void handleAggregates(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            throw methodNotAllowed(exchange, "GET");
+        }
+        Map<String, String> query = parseQuery(exchange);
+        TransactionGrouping grouping = parseGrouping(query.get("grouping"));
+        List<TransactionAggregate> aggregates = service.getAggregates(grouping, query.get("type"),
+                category(query.get("category")), parseStart(query.get("from")), parseEnd(query.get("to"))).join();
+        try (Writer body = openJson(exchange, 200)) {
+            JsonWriter json = new JsonWriter(body);
+            json.beginArray();
+            for (TransactionAggregate aggregate : aggregates) {
+                json.beginObject()
+                        .name("group").value(aggregate.group())
+                        .name("count").value(aggregate.count())
+                        .name("sum").money(aggregate.sum())
+                        .name("min").money(aggregate.min())
+                        .name("max").money(aggregate.max())
+                        .name("average").money(aggregate.average())
+                        .endObject();
+            }
+            json.endArray();
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        AsyncTransactionService.Stats stats = service.getStats();
+        try (Writer body = openJson(exchange, 200)) {
+            new JsonWriter(body).beginObject()
+                    .name("status").value("ok")
+                    .name("virtualThreads").value(stats.virtualThreads())
+                    .name("maxConcurrency").value(stats.maxConcurrency())
+                    .name("running").value(stats.running())
+                    .name("waiting").value(stats.waiting())
+                    .endObject();
+        }
+    }
+
+    private Transaction requireExisting(long id) {
+        Transaction existing = orNotFound(service.getTransactionById(id));
+        if (existing == null) {
+            throw new HttpError(404, "No transaction found with ID: " + id);
+        }
+        return existing;
+    }
+
+    // Lookups by id report a missing or non-positive id as IllegalArgumentException, which here means 404
+    private static <T> T orNotFound(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalArgumentException notFound) {
+                throw new HttpError(404, notFound.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private static void writeTransaction(JsonWriter json, Transaction transaction) throws IOException {
+        json.beginObject()
+                .name("id").value(transaction.getId())
+                .name("type").value(transaction.getType())
+                .name("amount").money(transaction.getAmount())
+                .name("category").value(transaction.getCategory())
+                .name("date").value(transaction.getDate())
+                .endObject();
+    }
+
+    // Chunked (length 0), so nothing is held back to compute a Content-Length
+    private static Writer openJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                RESPONSE_BUFFER_CHARS);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try (Writer body = openJson(exchange, status)) {
+            new JsonWriter(body).beginObject().name("error").value(message).endObject();
+        } catch (IOException | RuntimeException e) {
+            // Headers were already sent or the client went away; nothing more to report to it
+            logger.debug("Could not send {} response", status, e);
+        }
+    }
+
+    private static HttpError methodNotAllowed(HttpExchange exchange, String allowed) {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        return new HttpError(405, "Method " + exchange.getRequestMethod() + " not allowed");
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new HttpError(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            }
+            return JsonObjectReader.parseFlatObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            if (!value.isEmpty()) {
+                parameters.put(name, value);
+            }
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, String> body, String name) {
+        String value = body.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing \"" + name + "\"");
+        }
+        return value;
+    }
+
+    private static String category(String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    private static long parseAmount(String value) {
+        try {
+            return Money.parse(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount (expected at most two decimals): " + value);
+        }
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new HttpError(404, "No such resource: /transactions/" + value);
+        }
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static TransactionGrouping parseGrouping(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing grouping (one of CATEGORY, TYPE, DAY, MONTH, YEAR)");
+        }
+        try {
+            return TransactionGrouping.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown grouping: " + value);
+        }
+    }
+
+    // A bare date starts at midnight
+    private static LocalDateTime parseStart(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() == 10 ? parseDate("from", value).atStartOfDay() : parseDateTime("from", value);
+    }
+
+    // A bare date includes the whole day
+    private static LocalDateTime parseEnd(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() == 10 ? parseDate("to", value).atTime(LocalTime.MAX) : parseDateTime("to", value);
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + " (expected yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String name, String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + " (expected yyyy-MM-ddTHH:mm:ss): " + value);
+        }
+    }
+
+    // Opaque to clients: "<epoch second>.<nano>_<id>" of the last row on the previous page. The nanoseconds are
+    // needed because stored dates keep them; without them the next page would repeat rows from within that second.
+    private static String formatCursor(TransactionPage.Cursor cursor) {
+        LocalDateTime date = cursor.date();
+        return date.toEpochSecond(ZoneOffset.UTC) + "." + date.getNano() + "_" + cursor.id();
+    }
+
+    private static TransactionPage.Cursor parseCursor(String value) {
+        if (value == null) {
+            return null;
+        }
+        int point = value.indexOf('.');
+        int separator = value.indexOf('_', point + 1);
+        try {
+            long second = Long.parseLong(value.substring(0, point));
+            int nano = Integer.parseInt(value.substring(point + 1, separator));
+            return new TransactionPage.Cursor(LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+
+}
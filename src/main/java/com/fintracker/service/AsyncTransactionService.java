@@ -0,0 +1,134 @@
+package com.fintracker.service;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// CompletableFuture facade over TransactionService. Each call runs on its own virtual thread when the runtime has
+// them (Java 21+), so thousands of requests can wait cheaply. A semaphore sized to the connection pool bounds how
+// many touch the database at once; the rest wait for a permit instead of timing out in the pool.
+// On older runtimes it falls back to a fixed pool of maxConcurrency platform threads, which gives the same bound.
+public class AsyncTransactionService implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransactionService.class);
+
+    private final TransactionService service;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final boolean virtualThreads;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public record Stats(boolean virtualThreads, int maxConcurrency, int running, int waiting) {
+    }
+
+    public AsyncTransactionService(TransactionService service, DatabaseConfig databaseConfig) {
+        this(service, databaseConfig.getAsyncMaxConcurrency());
+    }
+
+    public AsyncTransactionService(TransactionService service, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.service = service;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        ExecutorService virtual = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : VirtualThreads.newPlatformExecutor("fintracker-async-", maxConcurrency);
+        logger.info("Async transaction service using {} with at most {} concurrent database calls",
+                virtualThreads ? "virtual threads" : "platform threads", maxConcurrency);
+    }
+
+    // The id completes once the row is committed, including when write-behind group-commits it
+    public CompletableFuture<Long> addTransaction(String type, long amount, String category) {
+        return submit(() -> service.addTransactionAsync(type, amount, category)).thenCompose(id -> id);
+    }
+
+    public CompletableFuture<Void> updateTransaction(Transaction transaction) {
+        return submit(() -> {
+            service.updateTransaction(transaction);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteTransaction(long id) {
+        return submit(() -> {
+            service.deleteTransaction(id);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Transaction> getTransactionById(long id) {
+        return submit(() -> service.getTransactionById(id));
+    }
+
+    public CompletableFuture<List<Transaction>> getTransactionsByFilter(String type, String category,
+                                                                        LocalDateTime startDate, LocalDateTime endDate) {
+        return submit(() -> service.getTransactionsByFilter(type, category, startDate, endDate));
+    }
+
+    public CompletableFuture<TransactionPage> getTransactionsPage(String type, String category, LocalDateTime startDate,
+                                                                  LocalDateTime endDate, TransactionPage.Cursor after,
+                                                                  int limit) {
+        return submit(() -> service.getTransactionsPage(type, category, startDate, endDate, after, limit));
+    }
+
+    public CompletableFuture<List<TransactionAggregate>> getAggregates(TransactionGrouping grouping, String type,
+                                                                       String category, LocalDateTime startDate,
+                                                                       LocalDateTime endDate) {
+        return submit(() -> service.getAggregates(grouping, type, category, startDate, endDate));
+    }
+
+    public Stats getStats() {
+        return new Stats(virtualThreads, maxConcurrency, maxConcurrency - permits.availablePermits(), waiting.get());
+    }
+
+    // Lets calls already submitted finish; the wrapped TransactionService stays open
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Async transaction calls still running after 30 s; interrupting them");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            waiting.incrementAndGet();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a database permit", e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+            try {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+}
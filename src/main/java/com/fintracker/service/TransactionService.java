@@ -1,44 +1,313 @@
 package com.fintracker.service;
 
+import com.fintracker.analytics.ColumnarLedger;
+import com.fintracker.analytics.OffHeapLedger;
+import com.fintracker.metrics.MetricsRegistry;
+import com.fintracker.metrics.OperationMetrics;
+import com.fintracker.model.CacheStats;
+import com.fintracker.model.ImportCheckpoint;
+import com.fintracker.model.MonthlySummary;
 import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
 import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.RollupRepository;
+import com.fintracker.repository.TransactionLogStore;
+import com.fintracker.repository.TransactionPartitions;
 import com.fintracker.repository.TransactionRepository;
+import com.fintracker.repository.TransactionStore;
+import com.fintracker.repository.WriteBehindQueue;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TransactionService {
-    private final TransactionRepository repository;
+    // Upper bound on how many categories one fuzzy query expands into
+    private static final int MAX_CATEGORY_MATCHES = 20;
+
+    private final TransactionStore repository;
+    // Rollups and partitions are H2 features; both are null with the log store
+    private final RollupRepository rollupRepository;
+    private final WriteBehindQueue writeBehindQueue;
+    private final TransactionPartitions partitions;
+    private final MetricsRegistry metricsRegistry;
+    private final OperationMetrics addMetrics;
+    private final OperationMetrics addAsyncMetrics;
+    private final OperationMetrics addAllMetrics;
+    private final OperationMetrics importBatchMetrics;
+    private final OperationMetrics findCheckpointMetrics;
+    private final OperationMetrics clearCheckpointMetrics;
+    private final OperationMetrics deleteMetrics;
+    private final OperationMetrics updateMetrics;
+    private final OperationMetrics getAllMetrics;
+    private final OperationMetrics getByIdMetrics;
+    private final OperationMetrics getByFilterMetrics;
+    private final OperationMetrics getPageMetrics;
+    private final OperationMetrics aggregatesMetrics;
+    private final OperationMetrics balanceMetrics;
+    private final OperationMetrics monthlySummariesMetrics;
+    private final OperationMetrics verifyRollupsMetrics;
+    private final OperationMetrics rebuildRollupsMetrics;
+    private final OperationMetrics archiveMetrics;
+    private final OperationMetrics streamMetrics;
+    private final OperationMetrics forEachMetrics;
+    private final OperationMetrics columnarLedgerMetrics;
+    private final OperationMetrics offHeapLedgerMetrics;
+    private final OperationMetrics searchCategoriesMetrics;
+    private final OperationMetrics getByCategoriesMetrics;
 
     public TransactionService(DatabaseConfig databaseConfig) {
-        this.repository = new TransactionRepository(databaseConfig);
+        TransactionLogStore.Settings logStore = databaseConfig.getLogStoreSettings();
+        if (logStore.enabled()) {
+            this.repository = new TransactionLogStore(logStore, databaseConfig.getMetricsRegistry());
+            this.rollupRepository = null;
+            this.partitions = null;
+        } else {
+            TransactionRepository h2 = new TransactionRepository(databaseConfig);
+            this.repository = h2;
+            this.rollupRepository = new RollupRepository(databaseConfig, h2.getCategoryDictionary());
+            this.partitions = databaseConfig.getPartitions();
+        }
+        WriteBehindQueue.Settings writeBehind = databaseConfig.getWriteBehindSettings();
+        this.writeBehindQueue = writeBehind.enabled() ? new WriteBehindQueue(repository, writeBehind) : null;
+        this.metricsRegistry = databaseConfig.getMetricsRegistry();
+        this.addMetrics = metricsRegistry.operation("service", "addTransaction");
+        this.addAsyncMetrics = metricsRegistry.operation("service", "addTransactionAsync");
+        this.addAllMetrics = metricsRegistry.operation("service", "addTransactions");
+        this.importBatchMetrics = metricsRegistry.operation("service", "importBatch");
+        this.findCheckpointMetrics = metricsRegistry.operation("service", "findImportCheckpoint");
+        this.clearCheckpointMetrics = metricsRegistry.operation("service", "clearImportCheckpoint");
+        this.deleteMetrics = metricsRegistry.operation("service", "deleteTransaction");
+        this.updateMetrics = metricsRegistry.operation("service", "updateTransaction");
+        this.getAllMetrics = metricsRegistry.operation("service", "getAllTransactions");
+        this.getByIdMetrics = metricsRegistry.operation("service", "getTransactionById");
+        this.getByFilterMetrics = metricsRegistry.operation("service", "getTransactionsByFilter");
+        this.getPageMetrics = metricsRegistry.operation("service", "getTransactionsPage");
+        this.aggregatesMetrics = metricsRegistry.operation("service", "getAggregates");
+        this.balanceMetrics = metricsRegistry.operation("service", "getBalance");
+        this.monthlySummariesMetrics = metricsRegistry.operation("service", "getMonthlySummaries");
+        this.verifyRollupsMetrics = metricsRegistry.operation("service", "verifyRollups");
+        this.rebuildRollupsMetrics = metricsRegistry.operation("service", "rebuildRollups");
+        this.archiveMetrics = metricsRegistry.operation("service", "archiveClosedYears");
+        this.streamMetrics = metricsRegistry.operation("service", "streamTransactionsByFilter");
+        this.forEachMetrics = metricsRegistry.operation("service", "forEachTransactionByFilter");
+        this.columnarLedgerMetrics = metricsRegistry.operation("service", "loadColumnarLedger");
+        this.offHeapLedgerMetrics = metricsRegistry.operation("service", "loadOffHeapLedger");
+        this.searchCategoriesMetrics = metricsRegistry.operation("service", "searchCategories");
+        this.getByCategoriesMetrics = metricsRegistry.operation("service", "getTransactionsByCategories");
+    }
+
+    public void addTransaction(String type, long amount, String category) {
+        addMetrics.run(() -> repository.save(newTransaction(type, amount, category)), 1);
     }
 
-    public void addTransaction(String type, double amount, String category) {
-        Transaction transaction = new Transaction(0L, type, amount, category,
+    // With fintracker.writeBehind.enabled the row is group-committed in the background and the future completes
+    // once it is durable in the database; otherwise it is saved synchronously and the future is already complete.
+    // Its recorded latency runs until the future completes, so it includes time spent queued for write-behind.
+    public CompletableFuture<Long> addTransactionAsync(String type, long amount, String category) {
+        long start = addAsyncMetrics.start();
+        Transaction transaction = newTransaction(type, amount, category);
+        if (writeBehindQueue != null) {
+            CompletableFuture<Long> saved = writeBehindQueue.submit(transaction);
+            if (addAsyncMetrics.isEnabled()) {
+                saved.whenComplete((id, failure) -> {
+                    if (failure == null) {
+                        addAsyncMetrics.success(start, 1);
+                    } else {
+                        addAsyncMetrics.failure(start);
+                    }
+                });
+            }
+            return saved;
+        }
+        try {
+            repository.save(transaction);
+        } catch (RuntimeException e) {
+            addAsyncMetrics.failure(start);
+            throw e;
+        }
+        addAsyncMetrics.success(start, 1);
+        return CompletableFuture.completedFuture(transaction.getId());
+    }
+
+    private static Transaction newTransaction(String type, long amount, String category) {
+        return new Transaction(0L, type, amount, category,
                 LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.SECONDS));
-        repository.save(transaction);
+    }
+
+    // Null when write-behind is disabled
+    public WriteBehindQueue.Metrics getWriteBehindMetrics() {
+        return writeBehindQueue == null ? null : writeBehindQueue.getMetrics();
+    }
+
+    // Commits everything still queued for write-behind and closes the store; call before closing the connection pool
+    public void close() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.close();
+        }
+        repository.close();
+    }
+
+    public void addTransactions(Collection<Transaction> transactions) {
+        addAllMetrics.run(() -> repository.saveAll(transactions), transactions == null ? 0 : transactions.size());
+    }
+
+    // Years up to this one are archived and reject writes; PartitionLayout.NO_YEAR while every year is open
+    public int getReadOnlyThroughYear() {
+        return repository.readOnlyThroughYear();
+    }
+
+    public void importBatch(List<Transaction> transactions, ImportCheckpoint checkpoint) {
+        importBatchMetrics.run(() -> repository.saveImportBatch(transactions, checkpoint),
+                transactions == null ? 0 : transactions.size());
+    }
+
+    public ImportCheckpoint findImportCheckpoint(String source) {
+        return findCheckpointMetrics.call(() -> repository.findImportCheckpoint(source),
+                checkpoint -> checkpoint == null ? 0 : 1);
+    }
+
+    public void clearImportCheckpoint(String source) {
+        clearCheckpointMetrics.run(() -> repository.clearImportCheckpoint(source), 1);
     }
 
     public void deleteTransaction(long id) {
-        repository.delete(id);
+        deleteMetrics.run(() -> repository.delete(id), 1);
     }
 
     public void updateTransaction(Transaction transaction) {
-        repository.update(transaction);
+        updateMetrics.run(() -> repository.update(transaction), 1);
     }
 
     public List<Transaction> getAllTransactions() {
-        return repository.getAll();
+        return getAllMetrics.call(repository::getAll, List::size);
     }
 
     public Transaction getTransactionById(long id) {
-        return repository.findById(id);
+        return getByIdMetrics.call(() -> repository.findById(id), transaction -> 1);
     }
 
     public List<Transaction> getTransactionsByFilter(
             String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
-        return repository.findByFilter(type, category, startDate, endDate);
+        return getByFilterMetrics.call(() -> repository.findByFilter(type, category, startDate, endDate), List::size);
+    }
+
+    public List<Transaction> getTransactionsByCategories(String type, Collection<String> categories,
+                                                         LocalDateTime startDate, LocalDateTime endDate) {
+        return getByCategoriesMetrics.call(() -> repository.findByCategories(type, categories, startDate, endDate),
+                List::size);
+    }
+
+    public TransactionPage getTransactionsPage(String type, String category, LocalDateTime startDate,
+                                               LocalDateTime endDate, TransactionPage.Cursor after, int limit) {
+        return getPageMetrics.call(() -> repository.findPage(type, category, startDate, endDate, after, limit),
+                page -> page.transactions().size());
+    }
+
+    public List<TransactionAggregate> getAggregates(TransactionGrouping grouping, String type, String category,
+                                                    LocalDateTime startDate, LocalDateTime endDate) {
+        return aggregatesMetrics.call(() -> repository.aggregateByFilter(grouping, type, category, startDate, endDate),
+                List::size);
+    }
+
+    public long getBalance() {
+        return balanceMetrics.call(repository::getBalance, balance -> 1);
+    }
+
+    public List<MonthlySummary> getMonthlySummaries(YearMonth startMonth, YearMonth endMonth) {
+        return monthlySummariesMetrics.call(() -> repository.findMonthlySummaries(startMonth, endMonth),
+                List::size);
+    }
+
+    public RollupRepository.Verification verifyRollups() {
+        return verifyRollupsMetrics.call(() -> rollups().verify(), verification -> 0);
+    }
+
+    public RollupRepository.Verification rebuildRollups() {
+        return rebuildRollupsMetrics.call(() -> rollups().rebuild(), verification -> 0);
+    }
+
+    // Moves every closed year up to throughYear out of the hot table; those years become read-only
+    public List<TransactionPartitions.ArchiveReport> archiveClosedYears(int throughYear) {
+        if (partitions == null) {
+            throw new UnsupportedOperationException("Archiving needs the H2 store (fintracker.store=h2)");
+        }
+        return archiveMetrics.call(() -> partitions.archiveThrough(throughYear),
+                reports -> reports.stream().mapToLong(TransactionPartitions.ArchiveReport::rowsMoved).sum());
+    }
+
+    private RollupRepository rollups() {
+        if (rollupRepository == null) {
+            throw new UnsupportedOperationException("Rollups need the H2 store (fintracker.store=h2)");
+        }
+        return rollupRepository;
+    }
+
+    public CacheStats getCacheStats() {
+        return repository.getCacheStats();
+    }
+
+    // Close the stream (try-with-resources) to release what it holds, such as a database connection
+    public Stream<Transaction> streamTransactionsByFilter(
+            String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
+        return streamMetrics.call(() -> repository.streamByFilter(type, category, startDate, endDate), stream -> 0);
+    }
+
+    public void forEachTransactionByFilter(String type, String category, LocalDateTime startDate,
+                                           LocalDateTime endDate, Consumer<? super Transaction> action) {
+        long[] visited = new long[1];
+        forEachMetrics.call(() -> {
+            repository.forEachByFilter(type, category, startDate, endDate, transaction -> {
+                action.accept(transaction);
+                visited[0]++;
+            });
+            return visited;
+        }, rows -> rows[0]);
+    }
+
+    // Every operation of both layers that has been instrumented so far, sorted by layer and name
+    public List<OperationMetrics.Snapshot> getOperationMetrics() {
+        return metricsRegistry.snapshot();
+    }
+
+    public List<String> getCategories() {
+        return repository.getCategoryNames();
+    }
+
+    // Prefix and typo-tolerant, best match first
+    public List<String> searchCategories(String query, int limit) {
+        return searchCategoriesMetrics.call(() -> repository.searchCategories(query, limit), List::size);
+    }
+
+    // What a category typed by a user stands for: the category itself if it exists, otherwise every close match.
+    // Pass the result to getTransactionsByCategories; it is empty when nothing matches.
+    public List<String> resolveCategoryQuery(String query) {
+        List<String> matches = searchCategories(query, MAX_CATEGORY_MATCHES);
+        if (!matches.isEmpty() && matches.get(0).equalsIgnoreCase(query.trim())) {
+            return List.of(matches.get(0));
+        }
+        return matches;
+    }
+
+    // Snapshot for repeated in-memory analytics; it does not see writes made after loading
+    public ColumnarLedger loadColumnarLedger(String type, String category, LocalDateTime startDate,
+                                             LocalDateTime endDate) {
+        return columnarLedgerMetrics.call(() -> ColumnarLedger.load(repository, type, category, startDate, endDate),
+                ColumnarLedger::size);
+    }
+
+    // Off-heap snapshot for findById and filtered scans over a large working set; like the columnar ledger it
+    // does not see writes made after loading
+    public OffHeapLedger loadOffHeapLedger(String type, String category, LocalDateTime startDate,
+                                           LocalDateTime endDate) {
+        return offHeapLedgerMetrics.call(() -> OffHeapLedger.load(repository, type, category, startDate, endDate),
+                OffHeapLedger::size);
     }
 
-}
\ No newline at end of file
+}
@@ -2,10 +2,99 @@ package com.fintracker.util;
 
 import com.fintracker.controller.FinanceController;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
 public class Main {
+    private static final int DEFAULT_PORT = 8080;
 
     public static void main(String[] args) {
-        new FinanceController().start();
+        if (args.length == 0) {
+            new FinanceController().start();
+            return;
+        }
+        switch (args[0]) {
+            case "--verify-rollups" -> new FinanceController().verifyRollups();
+            case "--rebuild-rollups" -> new FinanceController().rebuildRollups();
+            case "--import" -> {
+                if (args.length < 2) {
+                    usage("Missing file for --import");
+                }
+                new FinanceController().importTransactions(args[1]);
+            }
+            case "--archive-through" -> {
+                if (args.length < 2) {
+                    usage("Missing year for --archive-through");
+                }
+                new FinanceController().archiveThrough(parseYear(args[1]));
+            }
+            case "--export" -> export(args);
+            case "--server" -> new FinanceController().serve(args.length < 2 ? DEFAULT_PORT : parsePort(args[1]));
+            default -> usage("Unknown option: " + args[0]);
+        }
+    }
+
+    private static void export(String[] args) {
+        if (args.length < 2) {
+            usage("Missing file for --export");
+        }
+        String type = null;
+        String category = null;
+        LocalDate from = null;
+        LocalDate to = null;
+        for (int i = 2; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                usage("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--type" -> type = value;
+                case "--category" -> category = value.toUpperCase();
+                case "--from" -> from = parseDate(value);
+                case "--to" -> to = parseDate(value);
+                default -> usage("Unknown export option: " + args[i]);
+            }
+        }
+        new FinanceController().exportTransactions(args[1], type, category, from, to);
+    }
+
+    private static int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            if (port >= 0 && port <= 65535) {
+                return port;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        usage("Invalid port: " + value);
+        return DEFAULT_PORT;
+    }
+
+    private static int parseYear(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            usage("Invalid year: " + value);
+            return 0;
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            usage("Invalid date (expected yyyy-MM-dd): " + value);
+            return null;
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: fintracker [--verify-rollups | --rebuild-rollups | --archive-through <year> | --import <file.csv|file.ftx> | --server [port]]");
+        System.err.println("       fintracker --export <file.csv|file.ftx>[.gz] [--type income|expense] [--category NAME]"
+                + " [--from yyyy-MM-dd] [--to yyyy-MM-dd]");
+        System.exit(2);
     }
 
 }
\ No newline at end of file
@@ -1,14 +1,18 @@
 package com.fintracker.validator;
 
 import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public class TransactionValidator {
     private static final Logger logger = LoggerFactory.getLogger(TransactionValidator.class);
+    public static final int MAX_PAGE_SIZE = 1000;
 
     public static void checkTransactionExists(long id, boolean exists) {
         if (!exists) {
@@ -29,40 +33,137 @@ public class TransactionValidator {
             logger.warn("Invalid filter parameters: startDate {} is after endDate {}", startDate, endDate);
             throw new IllegalArgumentException("startDate cannot be after endDate");
         }
-        if (type != null && !type.matches("^(income|expense)$")) {
+        if (type != null && !isValidType(type)) {
             logger.warn("Invalid filter parameter: type must be 'income' or 'expense', but was '{}'", type);
             throw new IllegalArgumentException("Type must be 'income' or 'expense'");
         }
-        if (category != null && category.trim().isEmpty()) {
+        if (category != null && isBlank(category)) {
             logger.warn("Invalid filter parameter: category is empty");
             throw new IllegalArgumentException("Category cannot be empty");
         }
     }
 
+    public static void validateCategoriesFilter(String type, Collection<String> categories, LocalDateTime startDate,
+                                                LocalDateTime endDate) {
+        validateFilterParams(type, null, startDate, endDate);
+        if (categories == null || categories.isEmpty()) {
+            logger.warn("Invalid filter parameter: category list is empty");
+            throw new IllegalArgumentException("Categories cannot be empty");
+        }
+        for (String category : categories) {
+            if (category == null || isBlank(category)) {
+                logger.warn("Invalid filter parameter: category is empty");
+                throw new IllegalArgumentException("Category cannot be empty");
+            }
+        }
+    }
+
+    public static void validateGrouping(TransactionGrouping grouping) {
+        if (grouping == null) {
+            logger.warn("Invalid aggregate request: grouping is null");
+            throw new IllegalArgumentException("Grouping cannot be null");
+        }
+    }
+
+    public static void validatePageRequest(TransactionPage.Cursor after, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            logger.warn("Invalid page request: limit must be between 1 and {}, but was {}", MAX_PAGE_SIZE, limit);
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (after != null && (after.date() == null || after.id() <= 0)) {
+            logger.warn("Invalid page request: cursor must have a date and a positive ID, but was {}", after);
+            throw new IllegalArgumentException("Page cursor must have a date and a positive ID");
+        }
+    }
+
     public static void validateTransaction(Transaction transaction) {
+        ValidationRule violation = check(transaction);
+        if (violation != null) {
+            logger.warn("Invalid transaction {}: {}", transaction, violation.message());
+            throw new IllegalArgumentException(violation.message());
+        }
+    }
+
+    // Validates every row without throwing; callers decide what to do with the invalid ones
+    public static ValidationReport validateTransactions(Collection<? extends Transaction> transactions) {
+        ValidationReport report = new ValidationReport(transactions.size());
+        int index = 0;
+        for (Transaction transaction : transactions) {
+            ValidationRule violation = check(transaction);
+            if (violation != null) {
+                report.add(index, violation);
+            }
+            index++;
+        }
+        return report;
+    }
+
+    // Throws for the first invalid row after logging a single summary of all of them
+    public static void validateAll(Collection<? extends Transaction> transactions) {
+        ValidationReport report = validateTransactions(transactions);
+        if (!report.isValid()) {
+            logger.warn("Invalid transaction batch: {}", report);
+            report.throwIfInvalid();
+        }
+    }
+
+    // Years up to readOnlyThroughYear are archived: their rows can be read but not added, changed or removed
+    public static void checkNotArchived(LocalDateTime date, int readOnlyThroughYear) {
+        String violation = checkArchived(date, readOnlyThroughYear);
+        if (violation != null) {
+            logger.warn("Rejected write of a transaction dated {}: years through {} are archived", date, readOnlyThroughYear);
+            throw new IllegalArgumentException(violation);
+        }
+    }
+
+    // Like checkNotArchived without logging or throwing: the reason the date cannot be written, or null when it can
+    public static String checkArchived(LocalDateTime date, int readOnlyThroughYear) {
+        return date.getYear() <= readOnlyThroughYear
+                ? "Transactions dated " + date.getYear() + " are archived and read-only" : null;
+    }
+
+    public static void checkNoneArchived(Collection<? extends Transaction> transactions, int readOnlyThroughYear) {
+        for (Transaction transaction : transactions) {
+            checkNotArchived(transaction.getDate(), readOnlyThroughYear);
+        }
+    }
+
+    // The first rule the row breaks, or null when it is valid
+    public static ValidationRule check(Transaction transaction) {
         if (transaction == null) {
-            logger.warn("Invalid transaction: transaction is null");
-            throw new IllegalArgumentException("Transaction cannot be null");
+            return ValidationRule.NULL_TRANSACTION;
         }
-        if (transaction.getType() == null || !transaction.getType().matches("^(income|expense)$")) {
-            logger.warn("Invalid transaction: type must be 'income' or 'expense', but was '{}'", transaction.getType());
-            throw new IllegalArgumentException("Transaction type must be 'income' or 'expense'");
+        if (!isValidType(transaction.getType())) {
+            return ValidationRule.INVALID_TYPE;
         }
         if (transaction.getAmount() < 0) {
-            logger.warn("Invalid transaction: amount cannot be negative, but was {}", transaction.getAmount());
-            throw new IllegalArgumentException("Transaction amount cannot be negative");
+            return ValidationRule.NEGATIVE_AMOUNT;
         }
-        if (transaction.getCategory() == null) {
-            logger.warn("Invalid transaction: category is null");
-            throw new IllegalArgumentException("Transaction category cannot be null");
-        } else if (transaction.getCategory().trim().isEmpty()) {
-            logger.warn("Invalid transaction: category is empty");
-            throw new IllegalArgumentException("Transaction category cannot be empty");
+        String category = transaction.getCategory();
+        if (category == null) {
+            return ValidationRule.NULL_CATEGORY;
+        }
+        if (isBlank(category)) {
+            return ValidationRule.EMPTY_CATEGORY;
         }
         if (transaction.getDate() == null) {
-            logger.warn("Invalid transaction: date is null");
-            throw new IllegalArgumentException("Transaction date cannot be null");
+            return ValidationRule.NULL_DATE;
+        }
+        return null;
+    }
+
+    private static boolean isValidType(String type) {
+        return "income".equals(type) || "expense".equals(type);
+    }
+
+    // Same notion of blank as trim().isEmpty(), without allocating the trimmed copy
+    private static boolean isBlank(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
         }
+        return true;
     }
 
     public static void logIfTransactionsEmpty(List<Transaction> transactions, String type, String category, LocalDateTime startDate, LocalDateTime endDate) {
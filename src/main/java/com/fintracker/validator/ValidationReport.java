@@ -0,0 +1,89 @@
+package com.fintracker.validator;
+
+import java.util.Arrays;
+
+// Result of validating a batch: the index of each invalid row and the rule it broke, in row order.
+// Stored as parallel primitive arrays that are only allocated once the first invalid row is found.
+public final class ValidationReport {
+    private static final ValidationRule[] RULES = ValidationRule.values();
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int MAX_LISTED_ERRORS = 10;
+
+    private final int rowCount;
+    private int[] rowIndexes;
+    private byte[] rules;
+    private int errorCount;
+
+    ValidationReport(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    void add(int rowIndex, ValidationRule rule) {
+        if (rowIndexes == null) {
+            rowIndexes = new int[INITIAL_CAPACITY];
+            rules = new byte[INITIAL_CAPACITY];
+        } else if (errorCount == rowIndexes.length) {
+            rowIndexes = Arrays.copyOf(rowIndexes, errorCount * 2);
+            rules = Arrays.copyOf(rules, errorCount * 2);
+        }
+        rowIndexes[errorCount] = rowIndex;
+        rules[errorCount] = (byte) rule.ordinal();
+        errorCount++;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+
+    public int errorCount() {
+        return errorCount;
+    }
+
+    // Zero-based position of the error-th invalid row within the validated batch
+    public int rowIndex(int error) {
+        checkError(error);
+        return rowIndexes[error];
+    }
+
+    public ValidationRule rule(int error) {
+        checkError(error);
+        return RULES[rules[error]];
+    }
+
+    // Same IllegalArgumentException contract as the single-row checks, naming the first invalid row
+    public void throwIfInvalid() {
+        if (errorCount == 0) {
+            return;
+        }
+        String message = "Row " + rowIndexes[0] + ": " + RULES[rules[0]].message();
+        throw new IllegalArgumentException(errorCount == 1 ? message
+                : message + " (" + errorCount + " of " + rowCount + " rows invalid)");
+    }
+
+    private void checkError(int error) {
+        if (error < 0 || error >= errorCount) {
+            throw new IndexOutOfBoundsException("Error " + error + " out of " + errorCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (errorCount == 0) {
+            return "all " + rowCount + " rows valid";
+        }
+        StringBuilder summary = new StringBuilder()
+                .append(errorCount).append(" of ").append(rowCount).append(" rows invalid:");
+        for (int i = 0; i < Math.min(errorCount, MAX_LISTED_ERRORS); i++) {
+            summary.append(' ').append(rowIndexes[i]).append('=').append(RULES[rules[i]]);
+        }
+        if (errorCount > MAX_LISTED_ERRORS) {
+            summary.append(" ...");
+        }
+        return summary.toString();
+    }
+
+}
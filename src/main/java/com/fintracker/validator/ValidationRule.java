@@ -0,0 +1,22 @@
+package com.fintracker.validator;
+
+// Row-level checks in the order TransactionValidator applies them; a row is reported under the first one it fails
+public enum ValidationRule {
+    NULL_TRANSACTION("Transaction cannot be null"),
+    INVALID_TYPE("Transaction type must be 'income' or 'expense'"),
+    NEGATIVE_AMOUNT("Transaction amount cannot be negative"),
+    NULL_CATEGORY("Transaction category cannot be null"),
+    EMPTY_CATEGORY("Transaction category cannot be empty"),
+    NULL_DATE("Transaction date cannot be null");
+
+    private final String message;
+
+    ValidationRule(String message) {
+        this.message = message;
+    }
+
+    public String message() {
+        return message;
+    }
+
+}
@@ -1,8 +1,8 @@
-CREATE TABLE transactions
+CREATE TABLE IF NOT EXISTS transactions
 (
     id       IDENTITY,
     type     VARCHAR(255),
     amount   DOUBLE,
     category VARCHAR(255),
     date     TIMESTAMP
-);
\ No newline at end of file
+);
@@ -0,0 +1,6 @@
+-- Date-range filters and keyset paging both seek on (date, id)
+CREATE INDEX IF NOT EXISTS idx_transactions_date_id ON transactions (date, id);
+
+-- Equality on type or category followed by an optional date range, still ordered for paging
+CREATE INDEX IF NOT EXISTS idx_transactions_type_date_id ON transactions (type, date, id);
+CREATE INDEX IF NOT EXISTS idx_transactions_category_date_id ON transactions (category, date, id);
@@ -0,0 +1,16 @@
+-- Per (month, category, type) totals maintained by TransactionRepository in the same transaction as each write
+CREATE TABLE IF NOT EXISTS transaction_rollups
+(
+    bucket_month DATE         NOT NULL,
+    category     VARCHAR(255) NOT NULL,
+    type         VARCHAR(255) NOT NULL,
+    total        DOUBLE       NOT NULL,
+    tx_count     BIGINT       NOT NULL,
+    PRIMARY KEY (bucket_month, category, type)
+);
+
+INSERT INTO transaction_rollups (bucket_month, category, type, total, tx_count)
+SELECT CAST(DATE_TRUNC('MONTH', date) AS DATE), category, type, SUM(amount), COUNT(*)
+FROM transactions
+WHERE category IS NOT NULL AND type IS NOT NULL AND date IS NOT NULL
+GROUP BY CAST(DATE_TRUNC('MONTH', date) AS DATE), category, type;
@@ -0,0 +1,15 @@
+-- Replaces the per-row conversion FinanceController used to run on every startup
+UPDATE transactions SET type = LOWER(type) WHERE type IN ('INCOME', 'EXPENSE');
+
+-- Fold the upper-case rollup buckets into their lower-case counterparts
+MERGE INTO transaction_rollups r
+USING (SELECT bucket_month, category, LOWER(type) AS type, SUM(total) AS total, SUM(tx_count) AS tx_count
+       FROM transaction_rollups
+       WHERE type IN ('INCOME', 'EXPENSE')
+       GROUP BY bucket_month, category, LOWER(type)) AS d
+ON r.bucket_month = d.bucket_month AND r.category = d.category AND r.type = d.type
+WHEN MATCHED THEN UPDATE SET total = r.total + d.total, tx_count = r.tx_count + d.tx_count
+WHEN NOT MATCHED THEN INSERT (bucket_month, category, type, total, tx_count)
+    VALUES (d.bucket_month, d.category, d.type, d.total, d.tx_count);
+
+DELETE FROM transaction_rollups WHERE type IN ('INCOME', 'EXPENSE');
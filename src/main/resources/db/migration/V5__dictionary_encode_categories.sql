@@ -0,0 +1,70 @@
+-- Category names are stored once; transactions and rollups reference them by integer id.
+-- H2 commits each DDL statement on its own, so every step tolerates a rerun after a failure part-way through.
+CREATE TABLE IF NOT EXISTS categories
+(
+    id   INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+-- The list UserInputHandler used to hard-code, followed by every category already in use
+MERGE INTO categories (name) KEY (name)
+VALUES ('FOOD'), ('TRANSPORT'), ('ENTERTAINMENT'), ('BILLS'), ('SALARY'), ('OTHER');
+
+-- Brings the name column back empty on a rerun after it was dropped, so the steps that read it still parse
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS category VARCHAR(255);
+
+INSERT INTO categories (name)
+SELECT DISTINCT category AS name
+FROM transactions
+WHERE category IS NOT NULL
+  AND category NOT IN (SELECT name FROM categories)
+ORDER BY name;
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS category_id INT;
+
+UPDATE transactions t
+SET category_id = (SELECT c.id FROM categories c WHERE c.name = t.category)
+WHERE category_id IS NULL
+  AND category IS NOT NULL;
+
+-- The foreign key holds on to the new index, which a rerun drops and rebuilds along with it
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS fk_transactions_category;
+
+DROP INDEX IF EXISTS idx_transactions_category_date_id;
+
+ALTER TABLE transactions DROP COLUMN IF EXISTS category;
+
+-- Created before the foreign key so H2 uses it instead of adding a single-column index
+CREATE INDEX IF NOT EXISTS idx_transactions_category_date_id ON transactions (category_id, date, id);
+
+ALTER TABLE transactions ADD CONSTRAINT IF NOT EXISTS fk_transactions_category
+    FOREIGN KEY (category_id) REFERENCES categories (id);
+
+-- Rollups are derived data, so they are rebuilt from the transactions rather than converted. A rerun after the
+-- rename below builds a fresh copy and replaces the renamed table with it.
+CREATE TABLE IF NOT EXISTS transaction_rollups_by_id
+(
+    bucket_month DATE         NOT NULL,
+    category_id  INT          NOT NULL,
+    type         VARCHAR(255) NOT NULL,
+    total        DOUBLE       NOT NULL,
+    tx_count     BIGINT       NOT NULL,
+    PRIMARY KEY (bucket_month, category_id, type)
+);
+
+DELETE FROM transaction_rollups_by_id;
+
+INSERT INTO transaction_rollups_by_id (bucket_month, category_id, type, total, tx_count)
+SELECT CAST(DATE_TRUNC('MONTH', date) AS DATE), category_id, type, SUM(amount), COUNT(*)
+FROM transactions
+WHERE category_id IS NOT NULL AND type IS NOT NULL AND date IS NOT NULL
+GROUP BY CAST(DATE_TRUNC('MONTH', date) AS DATE), category_id, type;
+
+DROP TABLE IF EXISTS transaction_rollups;
+
+ALTER TABLE transaction_rollups_by_id RENAME TO transaction_rollups;
+
+-- Added after the rename because constraint names are unique per schema, not per table
+ALTER TABLE transaction_rollups ADD CONSTRAINT IF NOT EXISTS fk_rollups_category
+    FOREIGN KEY (category_id) REFERENCES categories (id);
@@ -0,0 +1,32 @@
+-- Amounts become exact BIGINT minor units (cents); Money.SCALE must match the factor used here.
+-- H2 commits each DDL statement on its own, so every step tolerates a rerun after a failure part-way through.
+-- The scaled amounts are staged in amount_minor, and are only computed while amount still holds major units.
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS amount_minor BIGINT;
+
+UPDATE transactions
+SET amount_minor = ROUND(amount * 100)
+WHERE amount_minor IS NULL
+  AND amount IS NOT NULL
+  AND EXISTS (SELECT 1
+              FROM INFORMATION_SCHEMA.COLUMNS
+              WHERE TABLE_SCHEMA = SCHEMA()
+                AND TABLE_NAME = 'TRANSACTIONS'
+                AND COLUMN_NAME = 'AMOUNT'
+                AND DATA_TYPE <> 'BIGINT');
+
+ALTER TABLE transactions ALTER COLUMN amount SET DATA TYPE BIGINT;
+
+UPDATE transactions SET amount = amount_minor WHERE amount_minor IS NOT NULL;
+
+ALTER TABLE transactions DROP COLUMN IF EXISTS amount_minor;
+
+-- Rollup totals were accumulated in floating point, so they are recomputed rather than converted
+DELETE FROM transaction_rollups;
+
+ALTER TABLE transaction_rollups ALTER COLUMN total SET DATA TYPE BIGINT;
+
+INSERT INTO transaction_rollups (bucket_month, category_id, type, total, tx_count)
+SELECT CAST(DATE_TRUNC('MONTH', date) AS DATE), category_id, type, SUM(amount), COUNT(*)
+FROM transactions
+WHERE category_id IS NOT NULL AND type IS NOT NULL AND date IS NOT NULL
+GROUP BY CAST(DATE_TRUNC('MONTH', date) AS DATE), category_id, type;
@@ -0,0 +1,10 @@
+-- Resume position of an interrupted import, committed in the same transaction as the rows it covers
+CREATE TABLE import_checkpoints
+(
+    source        VARCHAR(1024) PRIMARY KEY,
+    file_size     BIGINT NOT NULL,
+    file_modified BIGINT NOT NULL,
+    byte_offset   BIGINT NOT NULL,
+    line_number   BIGINT NOT NULL,
+    imported      BIGINT NOT NULL
+);
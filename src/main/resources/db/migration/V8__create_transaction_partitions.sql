@@ -0,0 +1,11 @@
+-- One row per closed year. Its transactions were moved out of the hot transactions table into table_name,
+-- which is NULL when the year had no rows. Closed years are read-only; the latest one bounds the hot table.
+CREATE TABLE transaction_partitions
+(
+    partition_year INT PRIMARY KEY,
+    table_name     VARCHAR(64),
+    row_count      BIGINT    NOT NULL,
+    min_id         BIGINT,
+    max_id         BIGINT,
+    archived_at    TIMESTAMP NOT NULL
+);
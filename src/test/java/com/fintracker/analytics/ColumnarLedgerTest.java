@@ -0,0 +1,77 @@
+package com.fintracker.analytics;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TestDatabase;
+import com.fintracker.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ColumnarLedgerTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 5, 10, 12, 0);
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        databaseConfig = TestDatabase.inMemory("columnar");
+        repository = new TransactionRepository(databaseConfig);
+        repository.save(new Transaction(0, "expense", 300, "FOOD", DATE));
+        repository.save(new Transaction(0, "income", 1_000, "SALARY", DATE));
+        // Rows from before categories were required have a NULL category_id
+        TestDatabase.execute(databaseConfig,
+                "INSERT INTO transactions (type, amount, category_id, date) VALUES ('expense', 50, NULL, '2024-05-11')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        databaseConfig.closeConnection();
+    }
+
+    @Test
+    void loadsRowsWithoutCategory() {
+        ColumnarLedger ledger = ColumnarLedger.load(repository, null, null, null, null);
+
+        assertEquals(3, ledger.size());
+        assertEquals(3, ledger.categoryCount());
+        assertEquals(350, ledger.sum(ColumnarLedger.EXPENSE_ONLY, ColumnarLedger.ANY_CATEGORY, Long.MIN_VALUE,
+                Long.MAX_VALUE));
+        assertEquals(300, ledger.sum(ColumnarLedger.ANY_TYPE, ledger.categoryCode("FOOD"), Long.MIN_VALUE,
+                Long.MAX_VALUE));
+    }
+
+    @Test
+    void aggregatesRowsWithoutCategoryLast() {
+        ColumnarLedger ledger = ColumnarLedger.load(repository, null, null, null, null);
+
+        List<TransactionAggregate> aggregates = ledger.aggregate(TransactionGrouping.CATEGORY, null, null, null, null);
+
+        assertEquals(3, aggregates.size());
+        assertEquals("FOOD", aggregates.get(0).group());
+        assertEquals("SALARY", aggregates.get(1).group());
+        assertNull(aggregates.get(2).group());
+        assertEquals(50, aggregates.get(2).sum());
+    }
+
+    @Test
+    void aggregatesLikeTheRepository() {
+        ColumnarLedger ledger = ColumnarLedger.load(repository, null, null, null, null);
+
+        for (TransactionGrouping grouping : TransactionGrouping.values()) {
+            assertEquals(repository.aggregateByFilter(grouping, null, null, null, null),
+                    ledger.aggregate(grouping, null, null, null, null), grouping.name());
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.fintracker.analytics;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TestDatabase;
+import com.fintracker.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapLedgerTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 5, 10, 12, 0);
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        databaseConfig = TestDatabase.inMemory("offheap");
+        repository = new TransactionRepository(databaseConfig);
+        repository.save(new Transaction(0, "expense", 300, "FOOD", DATE));
+        repository.save(new Transaction(0, "income", 1_000, "SALARY", DATE.plusDays(1)));
+        // Rows from before categories were required have a NULL category_id
+        TestDatabase.execute(databaseConfig,
+                "INSERT INTO transactions (type, amount, category_id, date) VALUES ('expense', 50, NULL, '2024-05-12')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        databaseConfig.closeConnection();
+    }
+
+    @Test
+    void matchesTheStore() {
+        OffHeapLedger ledger = OffHeapLedger.load(repository, null, null, null, null);
+
+        assertEquals(repository.getAll().size(), ledger.size());
+        // Transaction has no equals; its toString shows every field
+        assertEquals(repository.findByFilter("expense", "FOOD", null, null).toString(),
+                ledger.findByFilter("expense", "FOOD", null, null).toString());
+        assertEquals(repository.findById(2).toString(), ledger.findById(2).toString());
+        assertFalse(ledger.newRow().moveToId(99));
+    }
+
+    @Test
+    void loadsRowsWithoutCategory() {
+        OffHeapLedger ledger = OffHeapLedger.load(repository, null, null, null, null);
+
+        OffHeapLedger.Row row = ledger.newRow();
+        assertTrue(row.moveToId(3));
+        assertNull(row.category());
+        assertEquals(50, row.amount());
+        List<Transaction> expenses = ledger.findByFilter("expense", null, null, null);
+        assertEquals(2, expenses.size());
+        assertNull(expenses.get(1).getCategory());
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.fintracker.importer;
+
+import com.fintracker.model.Transaction;
+import com.fintracker.repository.DatabaseConfig;
+import com.fintracker.repository.TestDatabase;
+import com.fintracker.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvTransactionImporterTest {
+    private static final CsvTransactionImporter.Settings SETTINGS = new CsvTransactionImporter.Settings(64, 2, 4, 2);
+
+    @TempDir
+    Path directory;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionService service;
+
+    @BeforeEach
+    void setUp() {
+        databaseConfig = TestDatabase.inMemory("importer");
+        service = new TransactionService(databaseConfig);
+        service.addTransactions(List.of(new Transaction(0, "expense", 100, "FOOD", LocalDateTime.of(2020, 6, 1, 0, 0))));
+        service.archiveClosedYears(2020);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+        databaseConfig.closeConnection();
+    }
+
+    // Archived rows are skipped like invalid ones instead of failing the batch they would have been written in
+    @Test
+    void reportsArchivedRowsAsRowErrors() throws IOException {
+        Path file = directory.resolve("transactions.csv");
+        Files.writeString(file, """
+                date,type,amount,category
+                2024-01-02,expense,12.50,food
+                2020-12-31 23:59:59,expense,3.00,food
+                2024-01-03,income,100,salary
+                2024-01-04,refund,1,food
+                2024-01-05,expense,7,rent
+                """);
+
+        CsvTransactionImporter.ImportReport report = new CsvTransactionImporter(service, SETTINGS).importFile(file);
+
+        assertEquals(3, report.rowsImported());
+        assertEquals(2, report.errorCount());
+        assertEquals(List.of(
+                new CsvTransactionImporter.RowError(3, "Transactions dated 2020 are archived and read-only"),
+                new CsvTransactionImporter.RowError(5, "Transaction type must be 'income' or 'expense'")),
+                report.errors());
+        assertEquals(4, service.getAllTransactions().size());
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.fintracker.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// V5 and V6 mix DDL, which H2 commits at once, with data steps. A failure part-way leaves the statements before it
+// committed, so each prefix of those scripts is applied and then the full migration is rerun over it; the result
+// must match an uninterrupted run.
+class MigrationRunnerTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final List<MigrationRunner.Migration> MIGRATIONS = DatabaseSchemaInitializer.MIGRATIONS;
+
+    @Test
+    void dictionaryEncodingResumesAfterAnyStatement() throws SQLException {
+        assertResumable(5);
+    }
+
+    @Test
+    void minorUnitConversionResumesAfterAnyStatement() throws SQLException {
+        assertResumable(6);
+    }
+
+    private void assertResumable(int version) throws SQLException {
+        String expected;
+        try (Connection connection = legacyDatabase(version)) {
+            new MigrationRunner(connection).migrate(MIGRATIONS);
+            expected = snapshot(connection);
+        }
+        List<String> statements = MigrationRunner.splitStatements(script(version));
+        for (int applied = 1; applied < statements.size(); applied++) {
+            try (Connection connection = legacyDatabase(version)) {
+                try (Statement stmt = connection.createStatement()) {
+                    for (String statement : statements.subList(0, applied)) {
+                        stmt.execute(statement);
+                    }
+                }
+                new MigrationRunner(connection).migrate(MIGRATIONS);
+                assertEquals(expected, snapshot(connection), "V" + version + " rerun after statement " + applied);
+            }
+        }
+    }
+
+    // Migrated up to, but not including, version, with rows as the pre-migration schema stored them
+    private static Connection legacyDatabase(int version) throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                "jdbc:h2:mem:migration-" + SEQUENCE.incrementAndGet(), "sa", "");
+        MigrationRunner runner = new MigrationRunner(connection);
+        runner.migrate(MIGRATIONS.subList(0, 4));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO transactions (type, amount, category, date) VALUES "
+                    + "('income', 1500.25, 'SALARY', '2024-01-31 09:00:00'), "
+                    + "('expense', 12.5, 'GROCERIES', '2024-01-02 18:30:00'), "
+                    + "('expense', 0.1, 'GROCERIES', '2024-02-03 08:00:00'), "
+                    + "('expense', 40, NULL, '2024-02-04 08:00:00')");
+            stmt.execute("INSERT INTO transaction_rollups (bucket_month, category, type, total, tx_count) "
+                    + "SELECT CAST(DATE_TRUNC('MONTH', date) AS DATE), category, type, SUM(amount), COUNT(*) "
+                    + "FROM transactions WHERE category IS NOT NULL "
+                    + "GROUP BY CAST(DATE_TRUNC('MONTH', date) AS DATE), category, type");
+        }
+        if (version > 5) {
+            runner.migrate(MIGRATIONS.subList(0, version - 1));
+        }
+        return connection;
+    }
+
+    private static String script(int version) {
+        MigrationRunner.Migration migration = MIGRATIONS.get(version - 1);
+        try (InputStream input = MigrationRunnerTest.class.getClassLoader()
+                .getResourceAsStream("db/migration/" + migration.script())) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + migration.script(), e);
+        }
+    }
+
+    private static String snapshot(Connection connection) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        rows.addAll(query(connection, "SELECT id, name FROM categories ORDER BY id"));
+        rows.addAll(query(connection, "SELECT t.id, t.type, t.amount, t.category_id, c.name, t.date "
+                + "FROM transactions t LEFT JOIN categories c ON c.id = t.category_id ORDER BY t.id"));
+        rows.addAll(query(connection, "SELECT bucket_month, category_id, type, total, tx_count "
+                + "FROM transaction_rollups ORDER BY 1, 2, 3"));
+        rows.addAll(query(connection, "SELECT table_name, column_name, data_type FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE table_schema = SCHEMA() "
+                + "AND table_name IN ('TRANSACTIONS', 'TRANSACTION_ROLLUPS', 'CATEGORIES') ORDER BY 1, 2"));
+        rows.addAll(query(connection, "SELECT table_name, constraint_type, COUNT(*) "
+                + "FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE table_schema = SCHEMA() "
+                + "GROUP BY table_name, constraint_type ORDER BY table_name, constraint_type"));
+        rows.addAll(query(connection, "SELECT index_name FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE table_schema = SCHEMA() AND index_name LIKE 'IDX_%' ORDER BY 1"));
+        return String.join("\n", rows);
+    }
+
+    private static List<String> query(Connection connection, String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int column = 1; column <= columns; column++) {
+                    row.append(column == 1 ? "" : " | ").append(rs.getString(column));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+}
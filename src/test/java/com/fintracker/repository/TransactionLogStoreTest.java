@@ -0,0 +1,284 @@
+package com.fintracker.repository;
+
+import com.fintracker.metrics.MetricsRegistry;
+import com.fintracker.model.ImportCheckpoint;
+import com.fintracker.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Crash recovery, driven by editing the log file between opens the way a crash would have left it
+class TransactionLogStoreTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 14, 9, 30);
+    private static final int WRITERS = 4;
+    private static final int ROWS_PER_WRITER = 500;
+
+    @TempDir
+    Path directory;
+
+    private MetricsRegistry metrics;
+    private Path file;
+    private TransactionLogStore store;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsRegistry(new MetricsRegistry.Settings(false, "test", null, 60));
+        file = directory.resolve("transactions.log");
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        metrics.close();
+    }
+
+    // A record that never reached the disk can be followed by one that did; it must not come back once the
+    // space before it has been written again
+    @Test
+    void recordsAfterAnUnwrittenOneStayDiscarded() throws IOException {
+        store.save(row(100));
+        store.save(row(200));
+        store.save(row(300));
+        store.close();
+        zero(recordOf(2));
+
+        store = open();
+        assertEquals(List.of(1L), ids());
+        store.save(row(400));
+        store.close();
+
+        store = open();
+        assertEquals(List.of(1L, 2L), ids());
+        assertEquals(400, store.findById(2).getAmount());
+    }
+
+    // A record whose checksum fails is where the last write was cut short; replay stops before it
+    @Test
+    void tornTailIsDroppedOnReplay() throws IOException {
+        store.save(row(100));
+        store.save(row(200));
+        store.close();
+        tear(recordOf(2));
+
+        store = open();
+        assertEquals(List.of(1L), ids());
+        store.save(row(300));
+        store.close();
+
+        store = open();
+        assertEquals(List.of(1L, 2L), ids());
+        assertEquals(300, store.findById(2).getAmount());
+    }
+
+    // Without its COMMIT record a batch is dropped whole, checkpoint included, and stays dropped
+    @Test
+    void uncommittedBatchAtTheTailIsDropped() throws IOException {
+        store.save(row(100));
+        store.saveImportBatch(List.of(row(200), row(300)), checkpoint());
+        store.close();
+        zero(lastRecord(TransactionLog.COMMIT));
+
+        store = open();
+        assertEquals(List.of(1L), ids());
+        assertNull(store.findImportCheckpoint("import.csv"));
+        store.save(row(400));
+        store.close();
+
+        store = open();
+        assertEquals(List.of(1L, 2L), ids());
+        assertEquals(400, store.findById(2).getAmount());
+        assertNull(store.findImportCheckpoint("import.csv"));
+    }
+
+    // A batch is appended in one go, so a plain record after batch members means that batch never committed
+    @Test
+    void batchInterruptedByAnUnbatchedRecordIsDropped() throws IOException {
+        store.saveBatch(List.of(row(100), row(200)));
+        store.save(row(300));
+        store.close();
+        long put = recordOf(3);
+        copy(put, lastRecord(TransactionLog.COMMIT));
+        zero(put);
+
+        store = open();
+        assertEquals(List.of(3L), ids());
+        store.save(row(400));
+        assertEquals(List.of(3L, 4L), ids());
+    }
+
+    // Rows written while a compaction copies the log are carried over to the new generation
+    @Test
+    void compactionKeepsRowsAppendedConcurrently() throws Exception {
+        Map<Long, Long> expected = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                long base = writer * 10_000L;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < ROWS_PER_WRITER; i++) {
+                        Transaction transaction = row(base + i);
+                        store.save(transaction);
+                        if (i % 2 == 0) {
+                            store.update(new Transaction(transaction.getId(), "income", base + i + 1, "FOOD", DATE));
+                            expected.put(transaction.getId(), base + i + 1);
+                        } else {
+                            expected.put(transaction.getId(), base + i);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            int compactions = 0;
+            while (compactions < 3 || !writers.stream().allMatch(Future::isDone)) {
+                store.compact();
+                compactions++;
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(WRITERS * ROWS_PER_WRITER, expected.size());
+        assertAmounts(expected);
+        store.close();
+        store = open();
+        assertAmounts(expected);
+    }
+
+    // The manifest names the compacted generation, so a reopen reads it rather than the replaced file
+    @Test
+    void reopensTheCompactedGenerationThroughTheManifest() throws IOException {
+        store.save(row(100));
+        store.save(row(200));
+        store.save(row(300));
+        store.update(new Transaction(1, "income", 150, "FOOD", DATE));
+        store.delete(3);
+        store.saveImportBatch(List.of(row(400)), checkpoint());
+
+        TransactionLogStore.CompactionReport report = store.compact();
+        assertTrue(report.recordsAfter() < report.recordsBefore());
+        assertEquals("1", Files.readString(directory.resolve("transactions.log.current")).trim());
+        assertTrue(Files.exists(directory.resolve("transactions.log.1")));
+        assertFalse(Files.exists(file));
+        store.close();
+
+        store = open();
+        assertEquals(List.of(1L, 2L, 4L), ids());
+        assertEquals(150, store.findById(1).getAmount());
+        assertEquals(checkpoint(), store.findImportCheckpoint("import.csv"));
+        store.save(row(500));
+        assertEquals(List.of(1L, 2L, 4L, 5L), ids());
+        store.compact();
+        store.close();
+
+        store = open();
+        assertEquals(List.of(1L, 2L, 4L, 5L), ids());
+        assertFalse(Files.exists(directory.resolve("transactions.log.1")));
+    }
+
+    private void assertAmounts(Map<Long, Long> expected) {
+        List<Transaction> transactions = store.getAll();
+        assertEquals(expected.size(), transactions.size());
+        for (Transaction transaction : transactions) {
+            long id = transaction.getId();
+            assertEquals(expected.get(id), transaction.getAmount(), "amount of " + id);
+        }
+    }
+
+    private TransactionLogStore open() {
+        return new TransactionLogStore(new TransactionLogStore.Settings(true, file, false, 3600, 50), metrics);
+    }
+
+    private List<Long> ids() {
+        return store.getAll().stream().map(Transaction::getId).toList();
+    }
+
+    private static Transaction row(long amount) {
+        return new Transaction(0, "expense", amount, "FOOD", DATE);
+    }
+
+    private static ImportCheckpoint checkpoint() {
+        return new ImportCheckpoint("import.csv", 4096, 1_700_000_000_000L, 2048, 40, 39);
+    }
+
+    // Position of the last PUT of the id in the generation-0 file
+    private long recordOf(long id) throws IOException {
+        return lastRecord(TransactionLog.PUT, id);
+    }
+
+    private long lastRecord(byte kind) throws IOException {
+        return lastRecord(kind, -1);
+    }
+
+    // PUT and DELETE records keep the id at byte 8
+    private long lastRecord(byte kind, long id) throws IOException {
+        long found = -1;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(TransactionLog.RECORD_BYTES);
+            long records = channel.size() / TransactionLog.RECORD_BYTES;
+            for (long position = 0; position < records; position++) {
+                channel.read(record.clear(), position * TransactionLog.RECORD_BYTES);
+                if (record.get(0) == kind && (id < 0 || record.getLong(8) == id)) {
+                    found = position;
+                }
+            }
+        }
+        assertTrue(found > 0, "no record of kind " + kind);
+        return found;
+    }
+
+    private void zero(long record) throws IOException {
+        write(record, ByteBuffer.allocate(TransactionLog.RECORD_BYTES));
+    }
+
+    // Changes one byte of the record without fixing its checksum
+    private void tear(long record) throws IOException {
+        ByteBuffer bytes = read(record);
+        bytes.put(20, (byte) (bytes.get(20) ^ 0x5A));
+        write(record, bytes);
+    }
+
+    private void copy(long from, long to) throws IOException {
+        write(to, read(from));
+    }
+
+    private ByteBuffer read(long record) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(TransactionLog.RECORD_BYTES);
+            channel.read(bytes, record * TransactionLog.RECORD_BYTES);
+            return bytes.clear();
+        }
+    }
+
+    private void write(long record, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, record * TransactionLog.RECORD_BYTES);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionPartitionsTest {
+    private static final int YEAR = 2021;
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        databaseConfig = TestDatabase.inMemory("partitions");
+        repository = new TransactionRepository(databaseConfig);
+        List<Transaction> rows = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            rows.add(new Transaction(0, "expense", month, "FOOD", LocalDateTime.of(YEAR, month, 15, 0, 0)));
+        }
+        repository.saveAll(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        databaseConfig.closeConnection();
+    }
+
+    // A writer that passed its archive check before the year became read-only commits after the monthly passes.
+    // The final pass must wait for it, or its row stays in the hot table where no query for the year looks.
+    @Test
+    void finalPassWaitsForWritersThatCheckedBeforeTheYearWasClosed() throws Exception {
+        TransactionPartitions partitions = databaseConfig.getPartitions();
+        CompletableFuture<?>[] archive = new CompletableFuture<?>[1];
+        partitions.guardWrite(() -> {
+            archive[0] = CompletableFuture.runAsync(() -> partitions.archiveThrough(YEAR));
+            while (!partitions.layout().isReadOnly(LocalDateTime.of(YEAR, 1, 1, 0, 0))) {
+                Thread.onSpinWait();
+            }
+            assertThrows(TimeoutException.class, () -> archive[0].get(500, TimeUnit.MILLISECONDS));
+            TestDatabase.execute(databaseConfig, "INSERT INTO transactions (type, amount, category_id, date) "
+                    + "SELECT 'expense', 13, id, '" + YEAR + "-01-20' FROM categories WHERE name = 'FOOD'");
+        });
+        archive[0].get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, count(PartitionLayout.HOT_TABLE));
+        assertEquals(13, count(PartitionLayout.archiveTable(YEAR)));
+    }
+
+    private long count(String table) throws SQLException {
+        try (Connection connection = databaseConfig.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Round trips per single-row operation, counted by the pool, with the cache off so every call reaches H2.
+// Not-found must cost no more than the statement that discovers it and keep its IllegalArgumentException message.
+class TransactionRepositoryStatementCountTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final long MISSING_ID = 999_999;
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 14, 9, 30);
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private long id;
+
+    @BeforeEach
+    void setUp() {
+        databaseConfig = new DatabaseConfig(properties(false));
+        repository = new TransactionRepository(databaseConfig);
+        Transaction transaction = new Transaction(0, "expense", 1_250, "GROCERIES", DATE);
+        repository.save(transaction);
+        id = transaction.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        databaseConfig.closeConnection();
+    }
+
+    @Test
+    void findByIdIsOneStatement() {
+        assertStatements(1, () -> repository.findById(id));
+    }
+
+    @Test
+    void findByIdNotFoundIsOneStatement() {
+        assertStatements(1, () -> assertNotFound(MISSING_ID, () -> repository.findById(MISSING_ID)));
+    }
+
+    // The UPDATE itself plus one rollup delta statement
+    @Test
+    void updateIsTwoStatements() {
+        Transaction changed = new Transaction(id, "expense", 2_000, "GROCERIES", DATE);
+        assertStatements(2, () -> repository.update(changed));
+        assertEquals(2_000, repository.findById(id).getAmount());
+    }
+
+    @Test
+    void updateNotFoundIsOneStatement() {
+        Transaction missing = new Transaction(MISSING_ID, "expense", 2_000, "GROCERIES", DATE);
+        assertStatements(1, () -> assertNotFound(MISSING_ID, () -> repository.update(missing)));
+    }
+
+    @Test
+    void deleteIsTwoStatements() {
+        assertStatements(2, () -> repository.delete(id));
+        assertNotFound(id, () -> repository.findById(id));
+    }
+
+    @Test
+    void deleteNotFoundIsOneStatement() {
+        assertStatements(1, () -> assertNotFound(MISSING_ID, () -> repository.delete(MISSING_ID)));
+    }
+
+    // A second delete of the same row is reported as not found, not swallowed
+    @Test
+    void repeatedDeleteIsNotFound() {
+        repository.delete(id);
+        assertStatements(1, () -> assertNotFound(id, () -> repository.delete(id)));
+    }
+
+    @Test
+    void existencePrecheckAddsOneStatement() {
+        tearDown();
+        databaseConfig = new DatabaseConfig(properties(true));
+        repository = new TransactionRepository(databaseConfig);
+        Transaction transaction = new Transaction(0, "income", 500, "SALARY", LocalDateTime.of(2024, 3, 1, 0, 0));
+        repository.save(transaction);
+        long savedId = transaction.getId();
+
+        assertStatements(2, () -> repository.findById(savedId));
+        assertStatements(1, () -> assertNotFound(MISSING_ID, () -> repository.findById(MISSING_ID)));
+        assertStatements(3, () -> repository.delete(savedId));
+    }
+
+    private void assertStatements(long expected, Runnable operation) {
+        long before = databaseConfig.getPoolMetrics().statementCount();
+        operation.run();
+        assertEquals(expected, databaseConfig.getPoolMetrics().statementCount() - before);
+    }
+
+    private static void assertNotFound(long id, Runnable operation) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, operation::run);
+        assertEquals("No transaction found with ID: " + id, e.getMessage());
+    }
+
+    private static Properties properties(boolean existencePrecheck) {
+        Properties properties = new Properties();
+        properties.setProperty("fintracker.db.path",
+                "jdbc:h2:mem:statements-" + SEQUENCE.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty("fintracker.db.user", "sa");
+        properties.setProperty("fintracker.db.password", "");
+        properties.setProperty("fintracker.cache.enabled", "false");
+        properties.setProperty("fintracker.db.existencePrecheck", String.valueOf(existencePrecheck));
+        properties.setProperty("fintracker.metrics.enabled", "false");
+        return properties;
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.fintracker.repository;
+
+import com.fintracker.metrics.MetricsRegistry;
+import com.fintracker.model.ImportCheckpoint;
+import com.fintracker.model.MonthlySummary;
+import com.fintracker.model.Transaction;
+import com.fintracker.model.TransactionAggregate;
+import com.fintracker.model.TransactionGrouping;
+import com.fintracker.model.TransactionPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// What TransactionService relies on from a TransactionStore, checked against H2 and the log store alike
+class TransactionStoreContractTest {
+    private static final long MISSING_ID = 999_999;
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 14, 9, 30);
+
+    enum Backend { H2, LOG }
+
+    @TempDir
+    Path directory;
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+    private TransactionStore store;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            resources.get(i).close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void savesAndFindsById(Backend backend) {
+        open(backend);
+        Transaction transaction = new Transaction(0, "expense", 1_250, "GROCERIES", DATE);
+        store.save(transaction);
+
+        assertTrue(transaction.getId() > 0);
+        assertEquals(transaction.toString(), store.findById(transaction.getId()).toString());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void unknownIdsAreNotFound(Backend backend) {
+        open(backend);
+        assertNotFound(MISSING_ID, () -> store.findById(MISSING_ID));
+        assertNotFound(MISSING_ID, () -> store.update(new Transaction(MISSING_ID, "expense", 1, "FOOD", DATE)));
+        assertNotFound(MISSING_ID, () -> store.delete(MISSING_ID));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void updatesAndDeletes(Backend backend) {
+        open(backend);
+        Transaction transaction = new Transaction(0, "expense", 1_250, "GROCERIES", DATE);
+        store.save(transaction);
+        long id = transaction.getId();
+
+        store.update(new Transaction(id, "income", 2_000, "SALARY", DATE.plusDays(1)));
+        Transaction updated = store.findById(id);
+        assertEquals("income", updated.getType());
+        assertEquals(2_000, updated.getAmount());
+        assertEquals("SALARY", updated.getCategory());
+
+        store.delete(id);
+        assertNotFound(id, () -> store.findById(id));
+        // A second delete of the same row is reported as not found, not swallowed
+        assertNotFound(id, () -> store.delete(id));
+    }
+
+    // validateAll runs before anything is written, so one invalid row keeps the whole batch out
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void batchesAreAllOrNothing(Backend backend) {
+        open(backend);
+        List<Transaction> invalid = List.of(new Transaction(0, "expense", 100, "FOOD", DATE),
+                new Transaction(0, "refund", 100, "FOOD", DATE));
+        assertThrows(IllegalArgumentException.class, () -> store.saveBatch(invalid));
+        assertEquals(0, store.getAll().size());
+
+        List<Transaction> valid = List.of(new Transaction(0, "expense", 100, "FOOD", DATE),
+                new Transaction(0, "income", 300, "SALARY", DATE));
+        store.saveBatch(valid);
+        assertEquals(List.of(valid.get(0).getId(), valid.get(1).getId()),
+                store.getAll().stream().map(Transaction::getId).toList());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void importCheckpointsCommitWithTheirRows(Backend backend) {
+        open(backend);
+        ImportCheckpoint checkpoint = new ImportCheckpoint("import.csv", 4096, 1_700_000_000_000L, 2048, 40, 39);
+        store.saveImportBatch(List.of(new Transaction(0, "expense", 100, "FOOD", DATE)), checkpoint);
+
+        assertEquals(checkpoint, store.findImportCheckpoint("import.csv"));
+        assertEquals(1, store.getAll().size());
+        store.clearImportCheckpoint("import.csv");
+        assertNull(store.findImportCheckpoint("import.csv"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void pagesWalkEveryRowInDateOrder(Backend backend) {
+        open(backend);
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            rows.add(new Transaction(0, "expense", i, "FOOD", DATE.minusDays(i % 3)));
+        }
+        store.saveAll(rows);
+
+        List<Long> walked = new ArrayList<>();
+        TransactionPage.Cursor cursor = null;
+        do {
+            TransactionPage page = store.findPage(null, null, null, null, cursor, 3);
+            page.transactions().forEach(transaction -> walked.add(transaction.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = rows.stream()
+                .sorted((left, right) -> left.getDate().equals(right.getDate())
+                        ? Long.compare(left.getId(), right.getId()) : left.getDate().compareTo(right.getDate()))
+                .map(Transaction::getId).toList();
+        assertEquals(expected, walked);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void totalsAgree(Backend backend) {
+        open(backend);
+        store.saveAll(List.of(new Transaction(0, "income", 5_000, "SALARY", DATE),
+                new Transaction(0, "expense", 1_200, "FOOD", DATE),
+                new Transaction(0, "expense", 800, "FOOD", DATE.plusMonths(1))));
+
+        assertEquals(3_000, store.getBalance());
+        assertEquals(List.of(new MonthlySummary(YearMonth.of(2024, 3), 5_000, 1_200, 2),
+                        new MonthlySummary(YearMonth.of(2024, 4), 0, 800, 1)),
+                store.findMonthlySummaries(null, null));
+        List<TransactionAggregate> byCategory = store.aggregateByFilter(TransactionGrouping.CATEGORY, null, null,
+                null, null);
+        assertEquals(List.of("FOOD", "SALARY"), byCategory.stream().map(TransactionAggregate::group).toList());
+        assertEquals(List.of("FOOD", "SALARY"), store.findByCategories(null, List.of("FOOD", "SALARY", "NONE"),
+                null, null).stream().map(Transaction::getCategory).distinct().sorted().toList());
+    }
+
+    private void open(Backend backend) {
+        if (backend == Backend.H2) {
+            DatabaseConfig databaseConfig = TestDatabase.inMemory("contract");
+            resources.add(databaseConfig::closeConnection);
+            store = new TransactionRepository(databaseConfig);
+        } else {
+            MetricsRegistry metrics = new MetricsRegistry(new MetricsRegistry.Settings(false, "test", null, 60));
+            resources.add(metrics);
+            Path file = directory.resolve("transactions.log");
+            store = new TransactionLogStore(new TransactionLogStore.Settings(true, file, false, 3600, 50), metrics);
+        }
+        resources.add(store);
+    }
+
+    private static void assertNotFound(long id, Runnable operation) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, operation::run);
+        assertEquals("No transaction found with ID: " + id, e.getMessage());
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.fintracker.repository;
+
+import com.fintracker.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private static final WriteBehindQueue.Settings SETTINGS = new WriteBehindQueue.Settings(true, 16, 16, 0, 1_000);
+
+    private DatabaseConfig databaseConfig;
+    private TransactionRepository repository;
+    private WriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        databaseConfig = TestDatabase.inMemory("write-behind");
+        repository = new TransactionRepository(databaseConfig);
+        repository.saveAll(List.of(new Transaction(0, "expense", 100, "FOOD", LocalDateTime.of(2020, 6, 1, 0, 0))));
+        databaseConfig.getPartitions().archiveThrough(2020);
+        queue = new WriteBehindQueue(repository, SETTINGS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+        repository.close();
+        databaseConfig.closeConnection();
+    }
+
+    // Rejected before it is queued, so it never reaches a group commit
+    @Test
+    void rejectsArchivedRowsOnSubmit() {
+        Transaction archived = new Transaction(0, "expense", 200, "FOOD", LocalDateTime.of(2020, 7, 1, 0, 0));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> queue.submit(archived));
+
+        assertEquals("Transactions dated 2020 are archived and read-only", e.getMessage());
+        assertEquals(0, queue.getMetrics().submitted());
+        long id = queue.submit(new Transaction(0, "expense", 300, "FOOD", LocalDateTime.of(2024, 7, 1, 0, 0))).join();
+        assertTrue(id > 0);
+        assertEquals(0, queue.getMetrics().failed());
+    }
+
+}